@@ -2,6 +2,13 @@
 
 import filesystemorganization.command.CommandHandler;
 import filesystemorganization.model.FileSystemOrganization;
+import filesystemorganization.model.persistence.Journal;
+import filesystemorganization.model.persistence.SpillStore;
+import filesystemorganization.model.persistence.SyncPolicy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * This class is the entry point of the program.
@@ -10,23 +17,112 @@
  * @author ujxbs
  */
 public final class Main {
-    private static final String GREETING_MESSAGE = "Use one of the following commands: load <path>, run <id>, "
-            + "change <id> <file> <number>, quit";
+    private static final String STARTUP_OPTIONS = "[--journal <directory> [--sync every|batched|periodic]] "
+            + "[--memory-budget <bytes>[k|m|g] [--spill-directory <directory>]]";
+    private static final String GREETING_MESSAGE = "Use one of the following commands: load <path>, watch <path>, "
+            + "change <id> <file> <number>, change-batch <id> <file>, run <id> [options], rank <path>, "
+            + "query <id> [options] <expression>, top <id> <number> [expression], run-file <path> <output>, "
+            + "run-all [options], materialize <id> <targetDir> [options], diff <id> [--apply], unload <id>, jobs, "
+            + "wait <job>, cancel <job>, quit" + System.lineSeparator()
+            + "Append \" &\" to run a command as background job. Startup options: " + STARTUP_OPTIONS;
     private static final String UTILITY_CLASS_CONSTRUCTOR_MESSAGE = "Utility classes cannot be instantiated";
+    private static final String ERROR_PREFIX = "ERROR: ";
+    private static final String JOURNAL_OPTION = "--journal";
+    private static final String SYNC_OPTION = "--sync";
+    private static final String MEMORY_BUDGET_OPTION = "--memory-budget";
+    private static final String SPILL_DIRECTORY_OPTION = "--spill-directory";
+    private static final String INVALID_OPTIONS = "Usage: " + STARTUP_OPTIONS;
+    private static final String SPILL_DIRECTORY_PREFIX = "filesystemorganization-spill";
+    private static final String MEMORY_BUDGET_PATTERN = "\\d+[kmgKMG]?";
+    private static final String BYTE_UNITS = "kmg";
+    private static final int BITS_PER_UNIT = 10;
+    private static final String JOURNAL_ERROR_FORMAT = "The journal could not be opened: %s";
+    private static final String SPILL_ERROR_FORMAT = "The spill directory could not be created: %s";
+    private static final String JOURNAL_CLOSE_ERROR_FORMAT = "The journal could not be closed: %s";
+    private static final int OPTION_VALUE_OFFSET = 1;
 
     private Main() {
         throw new UnsupportedOperationException(UTILITY_CLASS_CONSTRUCTOR_MESSAGE);
     }
-    
+
     /**
      * Starts the program.
      *
      * @param args the command line arguments
      */
     public static void main(String[] args) {
+        Path journalDirectory = null;
+        SyncPolicy syncPolicy = SyncPolicy.EVERY;
+        Path spillDirectory = null;
+        long memoryBudget = Long.MAX_VALUE;
+        for (int i = 0; i < args.length; i += OPTION_VALUE_OFFSET + 1) {
+            if (i + OPTION_VALUE_OFFSET >= args.length) {
+                System.err.println(ERROR_PREFIX + INVALID_OPTIONS);
+                return;
+            }
+            String value = args[i + OPTION_VALUE_OFFSET];
+            if (args[i].equals(JOURNAL_OPTION)) {
+                journalDirectory = Path.of(value);
+            } else if (args[i].equals(SYNC_OPTION) && findSyncPolicy(value) != null) {
+                syncPolicy = findSyncPolicy(value);
+            } else if (args[i].equals(MEMORY_BUDGET_OPTION) && value.matches(MEMORY_BUDGET_PATTERN)) {
+                memoryBudget = parseMemoryBudget(value);
+            } else if (args[i].equals(SPILL_DIRECTORY_OPTION)) {
+                spillDirectory = Path.of(value);
+            } else {
+                System.err.println(ERROR_PREFIX + INVALID_OPTIONS);
+                return;
+            }
+        }
+
         FileSystemOrganization fileSystemOrganization = new FileSystemOrganization();
+        if (memoryBudget != Long.MAX_VALUE) {
+            try {
+                Path directory = spillDirectory == null
+                        ? Files.createTempDirectory(SPILL_DIRECTORY_PREFIX)
+                        : spillDirectory;
+                fileSystemOrganization.setMemoryBudget(memoryBudget, new SpillStore(directory));
+            } catch (IOException e) {
+                System.err.println(ERROR_PREFIX + SPILL_ERROR_FORMAT.formatted(e.getMessage()));
+                return;
+            }
+        }
+        if (journalDirectory != null) {
+            try {
+                fileSystemOrganization.setJournal(Journal.open(journalDirectory, syncPolicy, fileSystemOrganization));
+            } catch (IOException e) {
+                System.err.println(ERROR_PREFIX + JOURNAL_ERROR_FORMAT.formatted(e.getMessage()));
+                return;
+            }
+        }
+
         System.out.println(GREETING_MESSAGE);
         CommandHandler commandHandler = new CommandHandler(fileSystemOrganization);
         commandHandler.handleUserInput();
+
+        try {
+            fileSystemOrganization.closeJournal();
+        } catch (IOException e) {
+            System.err.println(ERROR_PREFIX + JOURNAL_CLOSE_ERROR_FORMAT.formatted(e.getMessage()));
+        }
+    }
+
+    private static long parseMemoryBudget(String givenMemoryBudget) {
+        char unit = Character.toLowerCase(givenMemoryBudget.charAt(givenMemoryBudget.length() - 1));
+        int unitIndex = BYTE_UNITS.indexOf(unit);
+        if (unitIndex < 0) {
+            return Long.parseLong(givenMemoryBudget);
+        }
+        long amount = Long.parseLong(givenMemoryBudget.substring(0, givenMemoryBudget.length() - 1));
+        return amount << (BITS_PER_UNIT * (unitIndex + 1));
+    }
+
+    private static SyncPolicy findSyncPolicy(String givenSyncPolicy) {
+        for (SyncPolicy syncPolicy : SyncPolicy.values()) {
+            if (syncPolicy.name().toLowerCase().equals(givenSyncPolicy)) {
+                return syncPolicy;
+            }
+        }
+        return null;
     }
 }
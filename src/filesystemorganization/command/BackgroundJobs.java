@@ -0,0 +1,177 @@
+package filesystemorganization.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class manages the commands that run as background jobs. Every job gets an ID, counted up from one, and is kept
+ * until it was waited for.
+ *
+ * @author ujxbs
+ */
+final class BackgroundJobs {
+
+    private static final int FIRST_JOB_ID = 1;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final String THREAD_NAME_FORMAT = "background-job-%d";
+    private static final String JOB_FORMAT = "[%d] %s: %s";
+    private static final String RUNNING_STATE = "running";
+    private static final String DONE_STATE = "done";
+    private static final String CANCELLED_STATE = "cancelled";
+    private static final String CANCELLING_STATE = "cancelling";
+    private final Map<Integer, Job> jobs = new TreeMap<>();
+    private final ExecutorService executor;
+    private int nextJobId = FIRST_JOB_ID;
+
+    /**
+     * Constructs the manager of background jobs. Its threads do not keep the program alive.
+     */
+    BackgroundJobs() {
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a command as background job.
+     *
+     * @param commandLine the command line that started the job, used to describe it
+     * @param task        the execution of the command
+     * @return the ID of the job
+     */
+    synchronized int submit(String commandLine, Callable<CommandResult> task) {
+        int jobId = nextJobId++;
+        Job job = new Job(commandLine, () -> {
+            Thread.currentThread().setName(THREAD_NAME_FORMAT.formatted(jobId));
+            return task.call();
+        });
+        executor.execute(job);
+        jobs.put(jobId, job);
+        return jobId;
+    }
+
+    /**
+     * Returns the job with given ID.
+     *
+     * @param jobId the ID of the job
+     * @return the job, or null if no such job exists
+     */
+    synchronized Job getJob(int jobId) {
+        return jobs.get(jobId);
+    }
+
+    /**
+     * Forgets the job with given ID, after its result was reported.
+     *
+     * @param jobId the ID of the job
+     */
+    synchronized void removeJob(int jobId) {
+        jobs.remove(jobId);
+    }
+
+    /**
+     * Describes every job with its ID, its state and its command line, in the order the jobs were started.
+     *
+     * @return a line for every job
+     */
+    synchronized List<String> describeJobs() {
+        List<String> descriptions = new ArrayList<>();
+        for (Map.Entry<Integer, Job> entry : jobs.entrySet()) {
+            Job job = entry.getValue();
+            String state;
+            if (job.isCancelled() && !job.isStopped()) {
+                state = CANCELLING_STATE;
+            } else if (job.isCancelled() && job.getCompletedResult() == null) {
+                state = CANCELLED_STATE;
+            } else if (job.isDone()) {
+                state = DONE_STATE;
+            } else {
+                state = RUNNING_STATE;
+            }
+            descriptions.add(JOB_FORMAT.formatted(entry.getKey(), state, job.commandLine));
+        }
+        return descriptions;
+    }
+
+    /**
+     * Cancels all jobs that are still running and waits for them to stop.
+     */
+    void shutdown() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A background job, whose future result is cancelled at once by {@link #cancel(boolean)}, while its command only
+     * stops at its next cancellation check. A command that was past its last check when it was cancelled still
+     * completes, and its result is kept apart from the cancelled future.
+     */
+    static final class Job extends FutureTask<CommandResult> {
+
+        private final String commandLine;
+        private final CountDownLatch stopped = new CountDownLatch(1);
+        private volatile CommandResult completedResult;
+
+        private Job(String commandLine, Callable<CommandResult> task) {
+            super(task);
+            this.commandLine = commandLine;
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                stopped.countDown();
+            }
+        }
+
+        @Override
+        protected void set(CommandResult result) {
+            completedResult = result;
+            super.set(result);
+        }
+
+        /**
+         * Waits until the command of the job has stopped, which a job cancelled before it started does at once.
+         *
+         * @throws InterruptedException if the waiting thread was interrupted
+         */
+        void awaitStop() throws InterruptedException {
+            stopped.await();
+        }
+
+        /**
+         * Checks whether the command of the job has stopped.
+         *
+         * @return true if the command has completed, failed or stopped at a cancellation check, false otherwise
+         */
+        boolean isStopped() {
+            return stopped.getCount() == 0;
+        }
+
+        /**
+         * Returns the result of the command, also if the job was cancelled after the last cancellation check of the
+         * command.
+         *
+         * @return the result, or null if the command has not completed
+         */
+        CommandResult getCompletedResult() {
+            return completedResult;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.FileSystemOrganization;
+
+/**
+ * This command cancels a running background job and waits until the job has stopped at its next cancellation check.
+ * A job that was past its last check completes instead, which is reported as well. Either way, the job can still be
+ * waited for afterwards.
+ *
+ * @author ujxbs
+ */
+final class CancelCommand implements Command {
+
+    private static final int JOB_ID_INDEX = 0;
+    private static final int NUMBER_OF_ARGUMENTS = 1;
+    private static final String SUCCESS_FORMAT = "Cancelled job %d";
+    private static final String INVALID_JOB_ID_VALUE = "Given job id can only be an integer value!";
+    private static final String INVALID_JOB = "A job with given id does not exist!";
+    private static final String JOB_FINISHED_FORMAT = "Job %d has already finished!";
+    private static final String INTERRUPTED_FORMAT = "Waiting for job %d to stop was interrupted!";
+    private final BackgroundJobs backgroundJobs;
+
+    /**
+     * Constructs a new CancelCommand.
+     *
+     * @param backgroundJobs the background jobs to cancel one of
+     */
+    CancelCommand(BackgroundJobs backgroundJobs) {
+        this.backgroundJobs = backgroundJobs;
+    }
+
+    @Override
+    public CommandResult execute(FileSystemOrganization ignored, String[] commandArguments) {
+        int jobId;
+        try {
+            jobId = Integer.parseInt(commandArguments[JOB_ID_INDEX]);
+        } catch (NumberFormatException e) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_JOB_ID_VALUE);
+        }
+
+        BackgroundJobs.Job job = backgroundJobs.getJob(jobId);
+        if (job == null) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_JOB);
+        }
+        if (!job.cancel(true)) {
+            return new CommandResult(CommandResultType.FAILURE, JOB_FINISHED_FORMAT.formatted(jobId));
+        }
+        try {
+            job.awaitStop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new CommandResult(CommandResultType.FAILURE, INTERRUPTED_FORMAT.formatted(jobId));
+        }
+        if (job.getCompletedResult() != null) {
+            return new CommandResult(CommandResultType.FAILURE, JOB_FINISHED_FORMAT.formatted(jobId));
+        }
+        return new CommandResult(CommandResultType.SUCCESS, SUCCESS_FORMAT.formatted(jobId));
+    }
+
+    @Override
+    public int getNumberOfArguments() {
+        return NUMBER_OF_ARGUMENTS;
+    }
+}
@@ -0,0 +1,136 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.FileSystemOrganization;
+import filesystemorganization.model.document.Document;
+import filesystemorganization.model.persistence.UnconfirmedWriteException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This command changes the access numbers of many documents within a loaded input file at once. The changes are read
+ * from a file of {@code identifier,count} pairs and are only applied if all of them are valid.
+ *
+ * @author ujxbs
+ */
+final class ChangeBatchCommand implements Command {
+
+    private static final int ENTRY_ID_INDEX = 0;
+    private static final int PATH_INDEX = 1;
+    private static final int NUMBER_OF_ARGUMENTS = 2;
+    private static final int DOCUMENT_IDENTIFIER_INDEX = 0;
+    private static final int NEW_ACCESS_COUNT_INDEX = 1;
+    private static final int NUMBER_OF_PAIR_ELEMENTS = 2;
+    private static final int LOWEST_ACCESS_COUNT = 0;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final String PAIR_SEPARATOR = ",";
+    private static final String SUCCESS_FORMAT = "Changed %d access counts for id %d";
+    private static final String INVALID_ID_VALUE = "Given id can only be an integer value!";
+    private static final String INVALID_ENTRY = "An entry with given id number does not exist!";
+    private static final String NON_EXISTENT_FILE = "File %s does not exist!";
+    private static final String UNREADABLE_FILE = "File %s could not be read!";
+    private static final String INVALID_PAIR = "Line %d is not a pair of identifier and access count!";
+    private static final String INVALID_ACCESS_COUNT = "The access count in line %d can only be a non negative "
+            + "integer value!";
+    private static final String INVALID_IDENTIFIER = "The document in line %d does not exist in given id's entry!";
+    private static final String JOURNAL_ERROR = "The changes could not be written to the journal!";
+    private static final String UNCONFIRMED_FORMAT = "Changed %d access counts for id %d, but it is unknown "
+            + "whether the changes are durable!";
+    private static final String REMOVED_DOCUMENT = "A document of the file was removed meanwhile!";
+
+    @Override
+    public CommandResult execute(FileSystemOrganization model, String[] commandArguments) {
+        int entryId;
+        try {
+            entryId = Integer.parseInt(commandArguments[ENTRY_ID_INDEX]);
+        } catch (NumberFormatException e) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_ID_VALUE);
+        }
+
+        if (model.entryDoesNotExist(entryId)) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_ENTRY);
+        }
+
+        Path pathToFile = Paths.get(commandArguments[PATH_INDEX]);
+        if (!Files.exists(pathToFile)) {
+            return new CommandResult(CommandResultType.FAILURE, NON_EXISTENT_FILE.formatted(pathToFile));
+        }
+
+        // A later pair for the same document replaces an earlier one
+        Map<Document, Integer> changeIndices = new IdentityHashMap<>();
+        List<Document> documents = new ArrayList<>();
+        int[] newAccessCounts = new int[INITIAL_CAPACITY];
+        try (BufferedReader reader = Files.newBufferedReader(pathToFile)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] pair = line.split(PAIR_SEPARATOR);
+                if (pair.length != NUMBER_OF_PAIR_ELEMENTS) {
+                    return new CommandResult(CommandResultType.FAILURE, INVALID_PAIR.formatted(lineNumber));
+                }
+
+                String givenAccessCount = pair[NEW_ACCESS_COUNT_INDEX].trim();
+                int newAccessCount;
+                try {
+                    newAccessCount = Integer.parseInt(givenAccessCount);
+                } catch (NumberFormatException e) {
+                    return new CommandResult(CommandResultType.FAILURE, INVALID_ACCESS_COUNT.formatted(lineNumber));
+                }
+                if (newAccessCount < LOWEST_ACCESS_COUNT) {
+                    return new CommandResult(CommandResultType.FAILURE, INVALID_ACCESS_COUNT.formatted(lineNumber));
+                }
+
+                Document document = model.findDocument(entryId, pair[DOCUMENT_IDENTIFIER_INDEX].trim());
+                if (document == null) {
+                    return new CommandResult(CommandResultType.FAILURE, model.entryDoesNotExist(entryId)
+                            ? INVALID_ENTRY
+                            : INVALID_IDENTIFIER.formatted(lineNumber));
+                }
+
+                Integer changeIndex = changeIndices.putIfAbsent(document, documents.size());
+                if (changeIndex == null) {
+                    changeIndex = documents.size();
+                    documents.add(document);
+                    if (changeIndex == newAccessCounts.length) {
+                        newAccessCounts = Arrays.copyOf(newAccessCounts, 2 * newAccessCounts.length);
+                    }
+                }
+                newAccessCounts[changeIndex] = newAccessCount;
+            }
+        } catch (IOException e) {
+            return new CommandResult(CommandResultType.FAILURE, UNREADABLE_FILE.formatted(pathToFile));
+        }
+
+        try {
+            if (!model.changeAccessCounts(entryId, documents, newAccessCounts)) {
+                return new CommandResult(CommandResultType.FAILURE,
+                        model.entryDoesNotExist(entryId) ? INVALID_ENTRY : REMOVED_DOCUMENT);
+            }
+        } catch (UnconfirmedWriteException e) {
+            return new CommandResult(CommandResultType.FAILURE,
+                    UNCONFIRMED_FORMAT.formatted(documents.size(), entryId));
+        } catch (IOException e) {
+            return new CommandResult(CommandResultType.FAILURE, JOURNAL_ERROR);
+        }
+        return new CommandResult(CommandResultType.SUCCESS, SUCCESS_FORMAT.formatted(documents.size(), entryId));
+    }
+
+    @Override
+    public int getNumberOfArguments() {
+        return NUMBER_OF_ARGUMENTS;
+    }
+
+    @Override
+    public boolean canRunInBackground() {
+        return true;
+    }
+}
@@ -2,6 +2,9 @@
 
 import filesystemorganization.model.FileSystemOrganization;
 import filesystemorganization.model.document.Document;
+import filesystemorganization.model.persistence.UnconfirmedWriteException;
+
+import java.io.IOException;
 
 /**
  * This command changes the access number of a specific document within a loaded input file with given entry ID number.
@@ -19,6 +22,9 @@ final class ChangeCommand implements Command {
     private static final String INVALID_ACCESS_COUNT = "An access count can only be a non negative integer value.";
     private static final String INVALID_ID_OR_NUMBER_VALUE = "given access number or id can only be an integer value.";
     private static final String INVALID_IDENTIFIER = "A document with given identifier does not exist in given id's entry.";
+    private static final String JOURNAL_ERROR = "The change could not be written to the journal.";
+    private static final String UNCONFIRMED_FORMAT = "Change %d to %d for %s, but it is unknown whether "
+            + "the change is durable.";
     private static final int LOWEST_ACCESS_COUNT = 0;
 
     @Override
@@ -42,15 +48,24 @@ public CommandResult execute(FileSystemOrganization model, String[] commandArgum
             return new CommandResult(CommandResultType.FAILURE, INVALID_ACCESS_COUNT);
         }
 
-        Document wantedDocument;
-        if (model.findDocument(entryId, documentIdentifier) == null) {
-            return new CommandResult(CommandResultType.FAILURE, INVALID_IDENTIFIER);
-        } else {
-            wantedDocument = model.findDocument(entryId, documentIdentifier);
+        Document wantedDocument = model.findDocument(entryId, documentIdentifier);
+        if (wantedDocument == null) {
+            return new CommandResult(CommandResultType.FAILURE,
+                    model.entryDoesNotExist(entryId) ? INVALID_ENTRY : INVALID_IDENTIFIER);
         }
 
         int oldAccessCount = wantedDocument.getAccessCount();
-        wantedDocument.setAccessCount(newAccessCount);
+        try {
+            if (!model.changeAccessCount(entryId, wantedDocument, newAccessCount)) {
+                return new CommandResult(CommandResultType.FAILURE,
+                        model.entryDoesNotExist(entryId) ? INVALID_ENTRY : INVALID_IDENTIFIER);
+            }
+        } catch (UnconfirmedWriteException e) {
+            return new CommandResult(CommandResultType.FAILURE,
+                    UNCONFIRMED_FORMAT.formatted(oldAccessCount, newAccessCount, documentIdentifier));
+        } catch (IOException e) {
+            return new CommandResult(CommandResultType.FAILURE, JOURNAL_ERROR);
+        }
 
         return new CommandResult(CommandResultType.SUCCESS, SUCCESS_FORMAT.formatted(oldAccessCount, newAccessCount, documentIdentifier));
     }
@@ -24,5 +24,24 @@ public interface Command {
      * @return the number of arguments that the command expects
      */
     int getNumberOfArguments();
+
+    /**
+     * Returns the number of arguments that the command accepts in addition to the expected ones.
+     *
+     * @return the number of optional arguments of the command
+     */
+    default int getNumberOfOptionalArguments() {
+        return 0;
+    }
+
+    /**
+     * Returns whether the command may run as background job. Such a command must not depend on state of the command
+     * handler and should stop once its thread is interrupted.
+     *
+     * @return true if the command may run as background job, false otherwise
+     */
+    default boolean canRunInBackground() {
+        return false;
+    }
 }
 
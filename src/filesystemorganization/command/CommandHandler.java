@@ -2,6 +2,7 @@
 
 import filesystemorganization.model.FileSystemOrganization;
 
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -16,16 +17,36 @@
  */
 public final class CommandHandler {
     private static final String COMMAND_SEPARATOR_REGEX = " +";
+    private static final String COMMAND_LINE_SEPARATOR = " ";
     private static final String ERROR_PREFIX = "ERROR: ";
     private static final String COMMAND_NOT_FOUND_FORMAT = "command '%s' not found!";
     private static final String WRONG_ARGUMENTS_COUNT_FORMAT = "wrong number of arguments for command '%s'!";
     private static final String LOAD_COMMAND_NAME = "load";
+    private static final String WATCH_COMMAND_NAME = "watch";
     private static final String CHANGE_COMMAND_NAME = "change";
+    private static final String CHANGE_BATCH_COMMAND_NAME = "change-batch";
     private static final String RUN_COMMAND_NAME = "run";
+    private static final String RANK_COMMAND_NAME = "rank";
+    private static final String QUERY_COMMAND_NAME = "query";
+    private static final String TOP_COMMAND_NAME = "top";
+    private static final String RUN_FILE_COMMAND_NAME = "run-file";
+    private static final String RUN_ALL_COMMAND_NAME = "run-all";
+    private static final String MATERIALIZE_COMMAND_NAME = "materialize";
+    private static final String DIFF_COMMAND_NAME = "diff";
+    private static final String UNLOAD_COMMAND_NAME = "unload";
     private static final String QUIT_COMMAND_NAME = "quit";
+    private static final String JOBS_COMMAND_NAME = "jobs";
+    private static final String WAIT_COMMAND_NAME = "wait";
+    private static final String CANCEL_COMMAND_NAME = "cancel";
+    private static final String BACKGROUND_MARKER = "&";
+    private static final String NO_BACKGROUND_FORMAT = "command '%s' cannot run in the background!";
+    private static final String JOB_STARTED_FORMAT = "Started job %d";
+    private static final String INPUT_OUTPUT_ERROR_FORMAT = "input file could not be accessed: %s";
     private static final String INVALID_RESULT_TYPE_FORMAT = "Unexpected value: %s";
     private final FileSystemOrganization fileSystemOrganization;
     private final Map<String, Command> commands;
+    private final BackgroundJobs backgroundJobs = new BackgroundJobs();
+    private final SourceWatcher sourceWatcher;
     private boolean running = false;
 
     /**
@@ -36,11 +57,13 @@ public final class CommandHandler {
     public CommandHandler(FileSystemOrganization fileSystemOrganization) {
         this.fileSystemOrganization = Objects.requireNonNull(fileSystemOrganization);
         this.commands = new HashMap<>();
+        this.sourceWatcher = new SourceWatcher(fileSystemOrganization);
         this.initCommands();
     }
 
     /**
-     * Starts the interaction with the user.
+     * Starts the interaction with the user. Background jobs that are still running when the interaction ends are
+     * cancelled, and watched files are no longer watched.
      */
     public void handleUserInput() {
         this.running = true;
@@ -49,6 +72,9 @@ public void handleUserInput() {
             while (running && scanner.hasNextLine()) {
                 executeCommand(scanner.nextLine());
             }
+        } finally {
+            backgroundJobs.shutdown();
+            sourceWatcher.close();
         }
     }
 
@@ -61,19 +87,30 @@ public void quit() {
 
     private void executeCommand(String commandWithArguments) {
         String[] splittedCommand = commandWithArguments.trim().split(COMMAND_SEPARATOR_REGEX);
+        boolean background = splittedCommand.length > 1
+                && splittedCommand[splittedCommand.length - 1].equals(BACKGROUND_MARKER);
+        int numberOfTokens = background ? splittedCommand.length - 1 : splittedCommand.length;
         String commandName = splittedCommand[0];
-        String[] commandArguments = Arrays.copyOfRange(splittedCommand, 1, splittedCommand.length);
+        String[] commandArguments = Arrays.copyOfRange(splittedCommand, 1, numberOfTokens);
 
-        executeCommand(commandName, commandArguments);
+        executeCommand(commandName, commandArguments, background);
     }
 
-    private void executeCommand(String commandName, String[] commandArguments) {
+    private void executeCommand(String commandName, String[] commandArguments, boolean background) {
         if (!commands.containsKey(commandName)) {
             System.err.println(ERROR_PREFIX + COMMAND_NOT_FOUND_FORMAT.formatted(commandName));
-        } else if (commands.get(commandName).getNumberOfArguments() != commandArguments.length) {
+        } else if (hasWrongNumberOfArguments(commands.get(commandName), commandArguments)) {
             System.err.println(ERROR_PREFIX + WRONG_ARGUMENTS_COUNT_FORMAT.formatted(commandName));
+        } else if (background && !commands.get(commandName).canRunInBackground()) {
+            System.err.println(ERROR_PREFIX + NO_BACKGROUND_FORMAT.formatted(commandName));
+        } else if (background) {
+            Command command = commands.get(commandName);
+            String commandLine = commandName + COMMAND_LINE_SEPARATOR
+                    + String.join(COMMAND_LINE_SEPARATOR, commandArguments);
+            int jobId = backgroundJobs.submit(commandLine, () -> runCommand(command, commandArguments));
+            System.out.println(JOB_STARTED_FORMAT.formatted(jobId));
         } else {
-            CommandResult result = commands.get(commandName).execute(fileSystemOrganization, commandArguments);
+            CommandResult result = runCommand(commands.get(commandName), commandArguments);
             String output = switch (result.getType()) {
                 case SUCCESS -> result.getMessage();
                 case FAILURE -> ERROR_PREFIX + result.getMessage();
@@ -88,10 +125,37 @@ private void executeCommand(String commandName, String[] commandArguments) {
         }
     }
 
+    private boolean hasWrongNumberOfArguments(Command command, String[] commandArguments) {
+        return commandArguments.length < command.getNumberOfArguments()
+                || commandArguments.length > command.getNumberOfArguments() + command.getNumberOfOptionalArguments();
+    }
+
+    private CommandResult runCommand(Command command, String[] commandArguments) {
+        try {
+            return command.execute(fileSystemOrganization, commandArguments);
+        } catch (UncheckedIOException e) {
+            return new CommandResult(CommandResultType.FAILURE,
+                    INPUT_OUTPUT_ERROR_FORMAT.formatted(e.getCause().getMessage()));
+        }
+    }
+
     private void initCommands() {
         this.addCommand(LOAD_COMMAND_NAME, new LoadCommand());
+        this.addCommand(WATCH_COMMAND_NAME, new WatchCommand(sourceWatcher));
         this.addCommand(CHANGE_COMMAND_NAME, new ChangeCommand());
+        this.addCommand(CHANGE_BATCH_COMMAND_NAME, new ChangeBatchCommand());
         this.addCommand(RUN_COMMAND_NAME, new RunCommand());
+        this.addCommand(RANK_COMMAND_NAME, new RankCommand());
+        this.addCommand(QUERY_COMMAND_NAME, new QueryCommand());
+        this.addCommand(TOP_COMMAND_NAME, new TopCommand());
+        this.addCommand(RUN_FILE_COMMAND_NAME, new RunFileCommand());
+        this.addCommand(RUN_ALL_COMMAND_NAME, new RunAllCommand());
+        this.addCommand(MATERIALIZE_COMMAND_NAME, new MaterializeCommand());
+        this.addCommand(DIFF_COMMAND_NAME, new DiffCommand());
+        this.addCommand(UNLOAD_COMMAND_NAME, new UnloadCommand());
+        this.addCommand(JOBS_COMMAND_NAME, new JobsCommand(backgroundJobs));
+        this.addCommand(WAIT_COMMAND_NAME, new WaitCommand(backgroundJobs));
+        this.addCommand(CANCEL_COMMAND_NAME, new CancelCommand(backgroundJobs));
         this.addCommand(QUIT_COMMAND_NAME, new QuitCommand(this));
     }
 
@@ -0,0 +1,98 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.FileSystemOrganization;
+import filesystemorganization.model.documentorganization.AutomaticStructuring;
+import filesystemorganization.model.documentorganization.LayoutDiff;
+import filesystemorganization.model.documentorganization.Materializer;
+
+import java.io.IOException;
+import java.util.StringJoiner;
+
+/**
+ * This command compares the current structuring of a specific loaded input file with the structuring it was
+ * materialized with last, and lists the directory creations, moves and removals that turn one layout into the other.
+ * With the apply option, the operations are carried out and the current structuring becomes the materialized one.
+ *
+ * @author ujxbs
+ */
+final class DiffCommand implements Command {
+
+    private static final int INPUT_FILE_INDEX = 0;
+    private static final int OPTION_INDEX = 1;
+    private static final int NUMBER_OF_ARGUMENTS = 1;
+    private static final int NUMBER_OF_OPTIONAL_ARGUMENTS = 1;
+    private static final String APPLY_OPTION = "--apply";
+    private static final String INVALID_OPTION = "The option of diff is --apply!";
+    private static final String INVALID_ID_VALUE = "Given id can only be an integer value!";
+    private static final String INVALID_ENTRY = "An entry with given id number does not exist!";
+    private static final String ERROR_NO_FILE_LOADED = "No file was loaded!";
+    private static final String NOT_MATERIALIZED_FORMAT = "Entry %d was not materialized yet!";
+    private static final String DIFF_ERROR = "The layout could not be changed: %s";
+    private static final String PLAN_FORMAT = "%d directories to create, %d directories and %d documents to move, "
+            + "%d directories to remove";
+    private static final String APPLIED_FORMAT = "Created %d directories, moved %d directories and %d documents, "
+            + "removed %d directories";
+
+    @Override
+    public CommandResult execute(FileSystemOrganization model, String[] commandArguments) {
+        int entryId;
+        try {
+            entryId = Integer.parseInt(commandArguments[INPUT_FILE_INDEX]);
+        } catch (NumberFormatException e) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_ID_VALUE);
+        }
+        boolean apply = commandArguments.length > OPTION_INDEX;
+        if (apply && !commandArguments[OPTION_INDEX].equals(APPLY_OPTION)) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_OPTION);
+        }
+
+        if (model.getEntryIds().isEmpty()) {
+            return new CommandResult(CommandResultType.FAILURE, ERROR_NO_FILE_LOADED);
+        }
+        if (model.entryDoesNotExist(entryId)) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_ENTRY);
+        }
+        Materializer materializer = model.getMaterializer(entryId);
+        if (materializer == null) {
+            return new CommandResult(CommandResultType.FAILURE, NOT_MATERIALIZED_FORMAT.formatted(entryId));
+        }
+
+        AutomaticStructuring structuring = model.getStructuring(entryId);
+        if (structuring == null) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_ENTRY);
+        }
+        LayoutDiff diff;
+        try {
+            diff = materializer.diff(structuring);
+            if (apply) {
+                materializer.apply(diff);
+            }
+        } catch (IOException e) {
+            return new CommandResult(CommandResultType.FAILURE, DIFF_ERROR.formatted(e.getMessage()));
+        }
+
+        StringJoiner output = new StringJoiner(System.lineSeparator());
+        for (String operation : diff.getOperations()) {
+            output.add(operation);
+        }
+        output.add((apply ? APPLIED_FORMAT : PLAN_FORMAT).formatted(diff.getNumberOfCreatedDirectories(),
+                diff.getNumberOfDirectoryMoves(), diff.getNumberOfDocumentMoves(),
+                diff.getNumberOfRemovedDirectories()));
+        return new CommandResult(CommandResultType.SUCCESS, output.toString());
+    }
+
+    @Override
+    public int getNumberOfArguments() {
+        return NUMBER_OF_ARGUMENTS;
+    }
+
+    @Override
+    public int getNumberOfOptionalArguments() {
+        return NUMBER_OF_OPTIONAL_ARGUMENTS;
+    }
+
+    @Override
+    public boolean canRunInBackground() {
+        return true;
+    }
+}
@@ -0,0 +1,150 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.document.DocumentType;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * This class checks the lines of an input file before their documents are created. A tag must be either binary or
+ * multivalued throughout the file, so the checker remembers the tags of the lines it has checked.
+ *
+ * @author ujxbs
+ */
+final class DocumentChecker {
+
+    private static final int IDENTIFIER_ENTRY_INDEX = 0;
+    private static final int DOCUMENT_TYPE_INDEX = 1;
+    private static final int ACCESS_COUNT_INDEX = 2;
+    private static final int TAG_IDENTIFIER_INDEX = 0;
+    private static final int TAG_VALUE_INDEX = 1;
+    private static final int NUMBER_OF_NON_TAG_ENTRIES = 3;
+    private static final String DOCUMENTS_ELEMENTS_SEPARATOR = ",";
+    private static final String ILLEGAL_IDENTIFIER_SEPARATOR = " ";
+    private static final String INVALID_DOCUMENT_ENTRY = "Invalid number of entries for a document!";
+    private static final String INVALID_DOCUMENT_IDENTIFIER = "Invalid identifier for a document!";
+    private static final String INVALID_DOCUMENT_TYPE = "Invalid type for a document!";
+    private static final String ERROR_DUPLICATE_IDENTIFIER = "Tag identifiers must be unique!";
+    private static final String INVALID_TAG_IDENTIFIER = "Invalid identifier for a tag!";
+    private static final String TAG_IDENTIFIER_VALUE_SEPARATOR = "=";
+    private static final String INVALID_TAG_VALUE = "Invalid value for a multivalued or numeric tag!";
+    private static final String TAG_IDENTIFIER_PATTERN = "^[a-zA-Z][a-zA-Z0-9]*$";
+    private static final String MULTIVALUED_VALUE_PATTERN = "^[a-zA-Z][a-zA-Z0-9 ]*$";
+    private static final String NUMERIC_VALUE_PATTERN = "^-?\\d+$";
+    private static final String ACCESS_COUNT_PATTERN = "[1-9]\\d*";
+    private static final String INVALID_ACCESS_COUNT = "Total number of accesses can only be a non-negative "
+            + "integer value!";
+    private final Set<String> binaryTags = new HashSet<>();
+    private final Set<String> multivaluedTags = new HashSet<>();
+
+    /**
+     * Constructs a checker that has not checked any line yet.
+     */
+    DocumentChecker() {
+    }
+
+    /**
+     * Constructs a checker that remembers the tags of the lines another checker has checked, so that further lines
+     * can be checked without changing the other checker.
+     *
+     * @param other the other checker
+     */
+    DocumentChecker(DocumentChecker other) {
+        binaryTags.addAll(other.binaryTags);
+        multivaluedTags.addAll(other.multivaluedTags);
+    }
+
+    /**
+     * Checks a line of an input file, and whether its tags are used consistently with the lines checked before.
+     *
+     * @param document the line of the input file
+     * @return the failure describing why the line is invalid, or null if it is valid
+     */
+    CommandResult checkDocument(String document) {
+        String[] elements = document.split(DOCUMENTS_ELEMENTS_SEPARATOR);
+        if (elements.length < NUMBER_OF_NON_TAG_ENTRIES) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_DOCUMENT_ENTRY);
+        }
+
+        if (!elements[ACCESS_COUNT_INDEX].matches(ACCESS_COUNT_PATTERN)) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_ACCESS_COUNT);
+        }
+
+        if (elements[IDENTIFIER_ENTRY_INDEX].contains(ILLEGAL_IDENTIFIER_SEPARATOR)) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_DOCUMENT_IDENTIFIER);
+        }
+
+        if (!isValidDocumentType(elements[DOCUMENT_TYPE_INDEX])) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_DOCUMENT_TYPE);
+        }
+
+        List<String> tagEntries = Arrays.stream(elements)
+                .skip(NUMBER_OF_NON_TAG_ENTRIES)
+                .collect(Collectors.toList());
+
+        return isValidTag(tagEntries);
+    }
+
+    private boolean isValidDocumentType(String givenDocumentType) {
+        for (DocumentType documentType : DocumentType.values()) {
+            if (documentType.name().toLowerCase().equals(givenDocumentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CommandResult isValidTag(List<String> tagEntries) {
+        Set<String> uniqueTag = new HashSet<>();
+
+        for (String tagEntry : tagEntries) {
+            if (tagEntry.contains(TAG_IDENTIFIER_VALUE_SEPARATOR)) {
+                String[] multivaluedTagElements = tagEntry.split(TAG_IDENTIFIER_VALUE_SEPARATOR);
+                String tagIdentifier = multivaluedTagElements[TAG_IDENTIFIER_INDEX].toLowerCase();
+                String tagValue = multivaluedTagElements[TAG_VALUE_INDEX];
+
+                if (!tagIdentifier.matches(TAG_IDENTIFIER_PATTERN)) {
+                    return new CommandResult(CommandResultType.FAILURE, INVALID_TAG_IDENTIFIER);
+                }
+
+                boolean isMultivaluedValid = tagValue.matches(MULTIVALUED_VALUE_PATTERN);
+                boolean isNumericValid = tagValue.matches(NUMERIC_VALUE_PATTERN);
+
+                if (!(isMultivaluedValid || isNumericValid)) {
+                    return new CommandResult(CommandResultType.FAILURE, INVALID_TAG_VALUE);
+                }
+
+                if (!uniqueTag.add(tagIdentifier)) {
+                    return new CommandResult(CommandResultType.FAILURE, ERROR_DUPLICATE_IDENTIFIER);
+                }
+
+                if (binaryTags.contains(tagIdentifier)) {
+                    return new CommandResult(CommandResultType.FAILURE, ERROR_DUPLICATE_IDENTIFIER);
+                }
+
+                multivaluedTags.add(tagIdentifier);
+
+            } else {
+                String tagIdentifier = tagEntry.toLowerCase();
+
+                if (!tagIdentifier.matches(TAG_IDENTIFIER_PATTERN)) {
+                    return new CommandResult(CommandResultType.FAILURE, INVALID_TAG_IDENTIFIER);
+                }
+
+                if (!uniqueTag.add(tagIdentifier)) {
+                    return new CommandResult(CommandResultType.FAILURE, ERROR_DUPLICATE_IDENTIFIER);
+                }
+
+                if (multivaluedTags.contains(tagIdentifier)) {
+                    return new CommandResult(CommandResultType.FAILURE, ERROR_DUPLICATE_IDENTIFIER);
+                }
+
+                binaryTags.add(tagIdentifier);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,40 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.FileSystemOrganization;
+
+import java.util.List;
+
+/**
+ * This command lists the background jobs that were not waited for yet.
+ *
+ * @author ujxbs
+ */
+final class JobsCommand implements Command {
+
+    private static final int NUMBER_OF_ARGUMENTS = 0;
+    private static final String NO_JOBS = "No background jobs.";
+    private final BackgroundJobs backgroundJobs;
+
+    /**
+     * Constructs a new JobsCommand.
+     *
+     * @param backgroundJobs the background jobs to list
+     */
+    JobsCommand(BackgroundJobs backgroundJobs) {
+        this.backgroundJobs = backgroundJobs;
+    }
+
+    @Override
+    public CommandResult execute(FileSystemOrganization ignored, String[] commandArguments) {
+        List<String> descriptions = backgroundJobs.describeJobs();
+        if (descriptions.isEmpty()) {
+            return new CommandResult(CommandResultType.SUCCESS, NO_JOBS);
+        }
+        return new CommandResult(CommandResultType.SUCCESS, String.join(System.lineSeparator(), descriptions));
+    }
+
+    @Override
+    public int getNumberOfArguments() {
+        return NUMBER_OF_ARGUMENTS;
+    }
+}
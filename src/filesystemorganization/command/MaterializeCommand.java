@@ -0,0 +1,111 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.FileSystemOrganization;
+import filesystemorganization.model.documentorganization.AutomaticStructuring;
+import filesystemorganization.model.documentorganization.LinkType;
+import filesystemorganization.model.documentorganization.Materializer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This command creates the directory tree of the structuring of a specific loaded input file below a target
+ * directory and links every document into its directory, by symbolic links unless hard links are requested. The
+ * identifiers of the documents are resolved against a source directory, the working directory by default. The layout
+ * is remembered, so that a later structuring can be laid out by {@link DiffCommand}.
+ *
+ * @author ujxbs
+ */
+final class MaterializeCommand implements Command {
+
+    private static final int INPUT_FILE_INDEX = 0;
+    private static final int TARGET_DIRECTORY_INDEX = 1;
+    private static final int NUMBER_OF_ARGUMENTS = 2;
+    private static final int NUMBER_OF_OPTIONAL_ARGUMENTS = 4;
+    private static final int FIRST_OPTION_INDEX = 2;
+    private static final int OPTION_VALUE_DIFFERENCE = 1;
+    private static final int OPTION_DIFFERENCE = 2;
+    private static final String LINK_OPTION = "--link";
+    private static final Map<String, LinkType> LINK_TYPES = Map.of("hard", LinkType.HARD, "sym", LinkType.SYMBOLIC);
+    private static final String SOURCE_OPTION = "--source";
+    private static final String WORKING_DIRECTORY = "";
+    private static final String INVALID_OPTION = "The options of materialize are --link <hard|sym> and "
+            + "--source <directory>, each at most once!";
+    private static final String INVALID_ID_VALUE = "Given id can only be an integer value!";
+    private static final String INVALID_ENTRY = "An entry with given id number does not exist!";
+    private static final String ERROR_NO_FILE_LOADED = "No file was loaded!";
+    private static final String MATERIALIZE_ERROR = "The documents could not be materialized: %s";
+    private static final String SUCCESS_FORMAT = "Materialized %d documents into %d directories below %s, "
+            + "%d links were up to date";
+
+    @Override
+    public CommandResult execute(FileSystemOrganization model, String[] commandArguments) {
+        int entryId;
+        try {
+            entryId = Integer.parseInt(commandArguments[INPUT_FILE_INDEX]);
+        } catch (NumberFormatException e) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_ID_VALUE);
+        }
+
+        LinkType linkType = LinkType.SYMBOLIC;
+        Path sourceDirectory = Paths.get(WORKING_DIRECTORY);
+        Set<String> givenOptions = new HashSet<>();
+        for (int i = FIRST_OPTION_INDEX; i < commandArguments.length; i += OPTION_DIFFERENCE) {
+            if (i + OPTION_VALUE_DIFFERENCE >= commandArguments.length || !givenOptions.add(commandArguments[i])) {
+                return new CommandResult(CommandResultType.FAILURE, INVALID_OPTION);
+            }
+            String option = commandArguments[i];
+            String optionValue = commandArguments[i + OPTION_VALUE_DIFFERENCE];
+            if (option.equals(LINK_OPTION) && LINK_TYPES.containsKey(optionValue)) {
+                linkType = LINK_TYPES.get(optionValue);
+            } else if (option.equals(SOURCE_OPTION)) {
+                sourceDirectory = Paths.get(optionValue);
+            } else {
+                return new CommandResult(CommandResultType.FAILURE, INVALID_OPTION);
+            }
+        }
+
+        if (model.getEntryIds().isEmpty()) {
+            return new CommandResult(CommandResultType.FAILURE, ERROR_NO_FILE_LOADED);
+        }
+        if (model.entryDoesNotExist(entryId)) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_ENTRY);
+        }
+
+        AutomaticStructuring structuring = model.getStructuring(entryId);
+        if (structuring == null) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_ENTRY);
+        }
+        Path targetDirectory = Paths.get(commandArguments[TARGET_DIRECTORY_INDEX]);
+        Materializer materializer = new Materializer(targetDirectory, sourceDirectory, linkType);
+        Materializer.Materialization materialization;
+        try {
+            materialization = materializer.materialize(structuring);
+        } catch (IOException e) {
+            return new CommandResult(CommandResultType.FAILURE, MATERIALIZE_ERROR.formatted(e.getMessage()));
+        }
+        model.setMaterializer(entryId, materializer);
+        return new CommandResult(CommandResultType.SUCCESS, SUCCESS_FORMAT.formatted(
+                materialization.numberOfDocuments(), materialization.numberOfDirectories(), targetDirectory,
+                materialization.numberOfUnchangedLinks()));
+    }
+
+    @Override
+    public int getNumberOfArguments() {
+        return NUMBER_OF_ARGUMENTS;
+    }
+
+    @Override
+    public int getNumberOfOptionalArguments() {
+        return NUMBER_OF_OPTIONAL_ARGUMENTS;
+    }
+
+    @Override
+    public boolean canRunInBackground() {
+        return true;
+    }
+}
@@ -0,0 +1,113 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.FileSystemOrganization;
+import filesystemorganization.model.document.Document;
+import filesystemorganization.model.query.TagQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * This command lists the documents of a loaded input file that match a boolean expression over their tags and types,
+ * like {@code genre=pop AND NOT fun}, with their access counts. The expression is answered by the inverted index of
+ * the input file. The matches are listed in the order of the input file, or by descending access count.
+ *
+ * @author ujxbs
+ */
+final class QueryCommand implements Command {
+
+    private static final int ENTRY_ID_INDEX = 0;
+    private static final int NUMBER_OF_ARGUMENTS = 2;
+    private static final int NUMBER_OF_OPTIONAL_ARGUMENTS = 1024;
+    private static final int FIRST_OPTION_INDEX = 1;
+    private static final int OPTION_VALUE_DIFFERENCE = 1;
+    private static final int OPTION_DIFFERENCE = 2;
+    private static final String OPTION_PREFIX = "--";
+    private static final String SORT_OPTION = "--sort";
+    private static final String SORT_BY_COUNT = "count";
+    private static final String LIMIT_OPTION = "--limit";
+    private static final String LIMIT_PATTERN = "[1-9]\\d{0,8}";
+    private static final String INVALID_OPTION = "The options of query are --sort count and --limit <number>, each at "
+            + "most once, before the expression!";
+    private static final String INVALID_EXPRESSION = "The expression combines tag, tag=value, type:<type>, "
+            + "tag<number> and tag a..b with AND, OR, NOT and parentheses!";
+    private static final String INVALID_ID_VALUE = "Given id can only be an integer value!";
+    private static final String INVALID_ENTRY = "An entry with given id number does not exist!";
+    private static final String MATCH_FORMAT = "%s %d";
+    private static final String SUMMARY_FORMAT = "%d of %d documents match";
+
+    @Override
+    public CommandResult execute(FileSystemOrganization model, String[] commandArguments) {
+        int entryId;
+        try {
+            entryId = Integer.parseInt(commandArguments[ENTRY_ID_INDEX]);
+        } catch (NumberFormatException e) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_ID_VALUE);
+        }
+
+        boolean sortByCount = false;
+        int limit = Integer.MAX_VALUE;
+        Set<String> givenOptions = new HashSet<>();
+        int expressionIndex = FIRST_OPTION_INDEX;
+        while (commandArguments[expressionIndex].startsWith(OPTION_PREFIX)) {
+            if (expressionIndex + OPTION_VALUE_DIFFERENCE >= commandArguments.length - 1
+                    || !givenOptions.add(commandArguments[expressionIndex])) {
+                return new CommandResult(CommandResultType.FAILURE, INVALID_OPTION);
+            }
+            String option = commandArguments[expressionIndex];
+            String optionValue = commandArguments[expressionIndex + OPTION_VALUE_DIFFERENCE];
+            if (option.equals(SORT_OPTION) && optionValue.equals(SORT_BY_COUNT)) {
+                sortByCount = true;
+            } else if (option.equals(LIMIT_OPTION) && optionValue.matches(LIMIT_PATTERN)) {
+                limit = Integer.parseInt(optionValue);
+            } else {
+                return new CommandResult(CommandResultType.FAILURE, INVALID_OPTION);
+            }
+            expressionIndex += OPTION_DIFFERENCE;
+        }
+
+        TagQuery query = QueryParser.parse(Arrays.asList(commandArguments)
+                .subList(expressionIndex, commandArguments.length));
+        if (query == null) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_EXPRESSION);
+        }
+        List<Document> documents = model.getSpecificInputFile(entryId);
+        List<Document> matchingDocuments = model.queryDocuments(entryId, query);
+        if (documents == null || matchingDocuments == null) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_ENTRY);
+        }
+        int numberOfDocuments = documents.size();
+        List<Document> listedDocuments = matchingDocuments;
+        if (sortByCount) {
+            listedDocuments = new ArrayList<>(matchingDocuments);
+            listedDocuments.sort(Comparator.comparingInt(Document::getAccessCount).reversed());
+        }
+
+        StringJoiner output = new StringJoiner(System.lineSeparator());
+        for (Document document : listedDocuments.subList(0, Math.min(limit, listedDocuments.size()))) {
+            output.add(MATCH_FORMAT.formatted(document.getIdentifier(), document.getAccessCount()));
+        }
+        output.add(SUMMARY_FORMAT.formatted(matchingDocuments.size(), numberOfDocuments));
+        return new CommandResult(CommandResultType.SUCCESS, output.toString());
+    }
+
+    @Override
+    public int getNumberOfArguments() {
+        return NUMBER_OF_ARGUMENTS;
+    }
+
+    @Override
+    public int getNumberOfOptionalArguments() {
+        return NUMBER_OF_OPTIONAL_ARGUMENTS;
+    }
+
+    @Override
+    public boolean canRunInBackground() {
+        return true;
+    }
+}
@@ -0,0 +1,178 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.document.DocumentType;
+import filesystemorganization.model.query.TagQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class parses the boolean expression of a query. {@code NOT} binds tighter than {@code AND}, which binds
+ * tighter than {@code OR}, and parentheses group. A term is a tag, a tag with a value, or a document type written as
+ * {@code type:<type>}. A value may contain spaces, so it extends up to the next operator or parenthesis. A numeric
+ * tag is compared with {@code <}, {@code <=}, {@code >} or {@code >=}, like {@code size>800000}, or checked against an
+ * inclusive range, like {@code length 60..300} or {@code length=60..300}.
+ *
+ * @author ujxbs
+ */
+final class QueryParser {
+
+    private static final String AND_OPERATOR = "AND";
+    private static final String OR_OPERATOR = "OR";
+    private static final String NOT_OPERATOR = "NOT";
+    private static final String OPENING_PARENTHESIS = "(";
+    private static final String CLOSING_PARENTHESIS = ")";
+    private static final Set<String> DELIMITERS = Set.of(AND_OPERATOR, OR_OPERATOR, NOT_OPERATOR,
+            OPENING_PARENTHESIS, CLOSING_PARENTHESIS);
+    private static final String PARENTHESIS_SPLIT_REGEX = "(?=[()])|(?<=[()])";
+    private static final String TYPE_PREFIX = "type:";
+    private static final String TAG_VALUE_SEPARATOR = "=";
+    private static final String VALUE_WORD_SEPARATOR = " ";
+    private static final String TAG_IDENTIFIER_PATTERN = "[a-zA-Z][a-zA-Z0-9]*";
+    private static final String TAG_VALUE_PATTERN = "[a-zA-Z][a-zA-Z0-9 ]*|-?\\d+";
+    private static final Pattern COMPARISON_PATTERN = Pattern.compile("([a-zA-Z][a-zA-Z0-9]*)(<=|>=|<|>)(-?\\d{1,18})");
+    private static final Pattern RANGE_PATTERN = Pattern.compile("(-?\\d{1,18})\\.\\.(-?\\d{1,18})");
+    private static final int COMPARISON_TAG_GROUP = 1;
+    private static final int COMPARISON_OPERATOR_GROUP = 2;
+    private static final int COMPARISON_VALUE_GROUP = 3;
+    private static final int RANGE_FROM_GROUP = 1;
+    private static final int RANGE_TO_GROUP = 2;
+    private static final String LESS_OPERATOR = "<";
+    private static final String LESS_OR_EQUAL_OPERATOR = "<=";
+    private static final String GREATER_OPERATOR = ">";
+    private final List<String> tokens = new ArrayList<>();
+    private int position = 0;
+
+    private QueryParser(List<String> expressionTokens) {
+        for (String expressionToken : expressionTokens) {
+            for (String token : expressionToken.split(PARENTHESIS_SPLIT_REGEX)) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses the tokens of an expression, as they were separated by spaces.
+     *
+     * @param expressionTokens the tokens of the expression
+     * @return the query, or null if the expression is invalid
+     */
+    static TagQuery parse(List<String> expressionTokens) {
+        QueryParser parser = new QueryParser(expressionTokens);
+        TagQuery query = parser.parseDisjunction();
+        return parser.position == parser.tokens.size() ? query : null;
+    }
+
+    private TagQuery parseDisjunction() {
+        List<TagQuery> queries = new ArrayList<>();
+        do {
+            TagQuery query = parseConjunction();
+            if (query == null) {
+                return null;
+            }
+            queries.add(query);
+        } while (accept(OR_OPERATOR));
+        return TagQuery.or(queries);
+    }
+
+    private TagQuery parseConjunction() {
+        List<TagQuery> queries = new ArrayList<>();
+        do {
+            TagQuery query = parseNegation();
+            if (query == null) {
+                return null;
+            }
+            queries.add(query);
+        } while (accept(AND_OPERATOR));
+        return TagQuery.and(queries);
+    }
+
+    private TagQuery parseNegation() {
+        if (accept(NOT_OPERATOR)) {
+            TagQuery query = parseNegation();
+            return query == null ? null : TagQuery.not(query);
+        }
+        if (accept(OPENING_PARENTHESIS)) {
+            TagQuery query = parseDisjunction();
+            return query != null && accept(CLOSING_PARENTHESIS) ? query : null;
+        }
+        return parseTerm();
+    }
+
+    private TagQuery parseTerm() {
+        if (position == tokens.size() || DELIMITERS.contains(tokens.get(position))) {
+            return null;
+        }
+        String token = tokens.get(position++);
+        if (token.startsWith(TYPE_PREFIX)) {
+            return findDocumentType(token.substring(TYPE_PREFIX.length()));
+        }
+        Matcher comparison = COMPARISON_PATTERN.matcher(token);
+        if (comparison.matches()) {
+            return parseComparison(comparison);
+        }
+        if (!token.contains(TAG_VALUE_SEPARATOR)) {
+            if (!token.matches(TAG_IDENTIFIER_PATTERN)) {
+                return null;
+            }
+            Matcher range = position < tokens.size() ? RANGE_PATTERN.matcher(tokens.get(position)) : null;
+            if (range != null && range.matches()) {
+                position++;
+                return parseRange(token, range);
+            }
+            return TagQuery.tag(token);
+        }
+
+        String tagIdentifier = token.substring(0, token.indexOf(TAG_VALUE_SEPARATOR));
+        StringBuilder value = new StringBuilder(token.substring(tagIdentifier.length() + 1));
+        while (position < tokens.size() && !DELIMITERS.contains(tokens.get(position))) {
+            value.append(VALUE_WORD_SEPARATOR).append(tokens.get(position++));
+        }
+        if (!tagIdentifier.matches(TAG_IDENTIFIER_PATTERN)) {
+            return null;
+        }
+        Matcher range = RANGE_PATTERN.matcher(value);
+        if (range.matches()) {
+            return parseRange(tagIdentifier, range);
+        }
+        return value.toString().matches(TAG_VALUE_PATTERN) ? TagQuery.tagValue(tagIdentifier, value.toString()) : null;
+    }
+
+    private TagQuery parseComparison(Matcher comparison) {
+        String tagIdentifier = comparison.group(COMPARISON_TAG_GROUP);
+        long value = Long.parseLong(comparison.group(COMPARISON_VALUE_GROUP));
+        return switch (comparison.group(COMPARISON_OPERATOR_GROUP)) {
+            case LESS_OPERATOR -> TagQuery.range(tagIdentifier, Long.MIN_VALUE, value - 1);
+            case LESS_OR_EQUAL_OPERATOR -> TagQuery.range(tagIdentifier, Long.MIN_VALUE, value);
+            case GREATER_OPERATOR -> TagQuery.range(tagIdentifier, value + 1, Long.MAX_VALUE);
+            default -> TagQuery.range(tagIdentifier, value, Long.MAX_VALUE);
+        };
+    }
+
+    private TagQuery parseRange(String tagIdentifier, Matcher range) {
+        return TagQuery.range(tagIdentifier, Long.parseLong(range.group(RANGE_FROM_GROUP)),
+                Long.parseLong(range.group(RANGE_TO_GROUP)));
+    }
+
+    private TagQuery findDocumentType(String givenDocumentType) {
+        for (DocumentType documentType : DocumentType.values()) {
+            if (documentType.name().toLowerCase().equals(givenDocumentType)) {
+                return TagQuery.type(documentType);
+            }
+        }
+        return null;
+    }
+
+    private boolean accept(String delimiter) {
+        if (position < tokens.size() && tokens.get(position).equals(delimiter)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,109 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.FileSystemOrganization;
+import filesystemorganization.model.document.Document;
+import filesystemorganization.model.documentorganization.TagRanking;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * This command ranks the tags of an input file by their information gains at the root of the structuring, without
+ * loading the file. The file is read line by line twice, first for the access counts of the tag values and then for
+ * the share of every document, and no document is kept after its line was read.
+ *
+ * @author ujxbs
+ */
+final class RankCommand implements Command {
+
+    private static final int PATH_INDEX = 0;
+    private static final int NUMBER_OF_ARGUMENTS = 1;
+    private static final int LAST_INDEX_DIFFERENCE = 1;
+    private static final String DIRECTORY_SEPARATOR = "/";
+    private static final String NON_EXISTENT_FILE = "File %s does not exist!";
+    private static final String TAG_CONFLICT_ERROR = "A conflict arises with the added tags of a document!";
+    private static final String EMPTY_FILE_ERROR = "File %s is empty!";
+    private static final String CHANGED_FILE_ERROR = "File %s changed while it was read!";
+
+    @Override
+    public CommandResult execute(FileSystemOrganization model, String[] commandArguments) {
+        String pathName = commandArguments[PATH_INDEX];
+        Path pathToFile = Paths.get(pathName);
+        if (!Files.exists(pathToFile)) {
+            return new CommandResult(CommandResultType.FAILURE,
+                    String.format(NON_EXISTENT_FILE, getFileName(pathName)));
+        }
+
+        DocumentChecker documentChecker = new DocumentChecker();
+        TagRanking tagRanking = new TagRanking();
+        boolean fileIsEmpty = true;
+        try (BufferedReader reader = Files.newBufferedReader(pathToFile)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException();
+                }
+                CommandResult checkResult = documentChecker.checkDocument(line);
+                if (checkResult != null) {
+                    return checkResult;
+                }
+                Document document = model.parseDocument(line);
+                if (document.causesConflict()) {
+                    return new CommandResult(CommandResultType.FAILURE, TAG_CONFLICT_ERROR);
+                }
+                tagRanking.addDocument(document);
+                fileIsEmpty = false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (fileIsEmpty) {
+            return new CommandResult(CommandResultType.FAILURE, String.format(EMPTY_FILE_ERROR, getFileName(pathName)));
+        }
+
+        DocumentChecker shareChecker = new DocumentChecker();
+        try (BufferedReader reader = Files.newBufferedReader(pathToFile)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException();
+                }
+                if (shareChecker.checkDocument(line) != null) {
+                    return new CommandResult(CommandResultType.FAILURE,
+                            String.format(CHANGED_FILE_ERROR, getFileName(pathName)));
+                }
+                tagRanking.addDocumentShare(model.parseDocument(line));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (IllegalArgumentException e) {
+            return new CommandResult(CommandResultType.FAILURE,
+                    String.format(CHANGED_FILE_ERROR, getFileName(pathName)));
+        }
+
+        List<String> sortedInformationGains = tagRanking.getSortedInformationGains();
+        return new CommandResult(CommandResultType.SUCCESS,
+                sortedInformationGains.isEmpty() ? null : String.join(System.lineSeparator(), sortedInformationGains));
+    }
+
+    @Override
+    public int getNumberOfArguments() {
+        return NUMBER_OF_ARGUMENTS;
+    }
+
+    @Override
+    public boolean canRunInBackground() {
+        return true;
+    }
+
+    private String getFileName(String fullPath) {
+        String[] parts = fullPath.split(DIRECTORY_SEPARATOR);
+        return parts[parts.length - LAST_INDEX_DIFFERENCE];
+    }
+}
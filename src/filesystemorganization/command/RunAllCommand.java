@@ -0,0 +1,159 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.FileSystemOrganization;
+import filesystemorganization.model.documentorganization.AutomaticStructuring;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This command structures all loaded input files on a bounded number of threads. The structurings are displayed in the
+ * order of the entry IDs, or written to one output file per entry, each with the time it took.
+ * <p>
+ * The estimated footprints of the entries that are structured at once may not exceed a share of the heap, so that
+ * large entries wait for each other while small entries keep the threads busy. An entry larger than the share is
+ * structured alone.
+ *
+ * @author ujxbs
+ */
+final class RunAllCommand implements Command {
+
+    private static final int NUMBER_OF_ARGUMENTS = 0;
+    private static final int NUMBER_OF_OPTIONAL_ARGUMENTS = 4;
+    private static final int OPTION_VALUE_DIFFERENCE = 1;
+    private static final int OPTION_DIFFERENCE = 2;
+    private static final String PARALLEL_OPTION = "--parallel";
+    private static final String PARALLEL_PATTERN = "[1-9]\\d{0,3}";
+    private static final String OUTPUT_OPTION = "--output";
+    private static final String OUTPUT_FILE_FORMAT = "entry-%d.txt";
+    private static final long HEAP_SHARE = 2;
+    private static final long FOOTPRINT_UNIT = 1024;
+    private static final String INVALID_OPTION = "The options of run-all are --parallel <number of threads> and "
+            + "--output <directory>, each at most once!";
+    private static final String ERROR_NO_FILE_LOADED = "No file was loaded!";
+    private static final String OUTPUT_ERROR = "The structurings could not be written: %s";
+    private static final String ENTRY_FAILED_FORMAT = "Entry %d could not be structured: %s";
+    private static final String ENTRY_FORMAT = "Entry %d structured in %d ms";
+    private static final String ENTRY_WRITTEN_FORMAT = "Entry %d structured in %d ms into %s";
+    private static final String ENTRY_UNLOADED_FORMAT = "Entry %d was unloaded before it was structured";
+
+    @Override
+    public CommandResult execute(FileSystemOrganization model, String[] commandArguments) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        Path outputDirectory = null;
+        Set<String> givenOptions = new HashSet<>();
+        for (int i = 0; i < commandArguments.length; i += OPTION_DIFFERENCE) {
+            if (i + OPTION_VALUE_DIFFERENCE >= commandArguments.length || !givenOptions.add(commandArguments[i])) {
+                return new CommandResult(CommandResultType.FAILURE, INVALID_OPTION);
+            }
+            String option = commandArguments[i];
+            String optionValue = commandArguments[i + OPTION_VALUE_DIFFERENCE];
+            if (option.equals(PARALLEL_OPTION) && optionValue.matches(PARALLEL_PATTERN)) {
+                parallelism = Integer.parseInt(optionValue);
+            } else if (option.equals(OUTPUT_OPTION)) {
+                outputDirectory = Paths.get(optionValue);
+            } else {
+                return new CommandResult(CommandResultType.FAILURE, INVALID_OPTION);
+            }
+        }
+
+        List<Integer> entryIds = model.getEntryIds();
+        if (entryIds.isEmpty()) {
+            return new CommandResult(CommandResultType.FAILURE, ERROR_NO_FILE_LOADED);
+        }
+        if (outputDirectory != null) {
+            try {
+                Files.createDirectories(outputDirectory);
+            } catch (IOException e) {
+                return new CommandResult(CommandResultType.FAILURE, OUTPUT_ERROR.formatted(e.getMessage()));
+            }
+        }
+
+        int capacity = (int) Math.min(Integer.MAX_VALUE,
+                Math.max(1, Runtime.getRuntime().maxMemory() / HEAP_SHARE / FOOTPRINT_UNIT));
+        Semaphore footprintPermits = new Semaphore(capacity, true);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, entryIds.size()));
+        List<Future<String>> results = new ArrayList<>();
+        try {
+            for (int entryId : entryIds) {
+                int permits = (int) Math.min(capacity, Math.max(1, model.getFootprint(entryId) / FOOTPRINT_UNIT));
+                Path outputFile = outputDirectory == null ? null : outputDirectory.resolve(
+                        OUTPUT_FILE_FORMAT.formatted(entryId));
+                results.add(executor.submit(() -> structureEntry(model, entryId, footprintPermits, permits,
+                        outputFile)));
+            }
+
+            StringJoiner output = new StringJoiner(System.lineSeparator());
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    output.add(results.get(i).get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof CancellationException cancellation) {
+                        throw cancellation;
+                    }
+                    return new CommandResult(CommandResultType.FAILURE,
+                            ENTRY_FAILED_FORMAT.formatted(entryIds.get(i), e.getCause().getMessage()));
+                }
+            }
+            return new CommandResult(CommandResultType.SUCCESS, output.toString());
+        } catch (InterruptedException e) {
+            throw new CancellationException();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // The time is measured once the entry may start, so that waiting for other entries is not included
+    private String structureEntry(FileSystemOrganization model, int entryId, Semaphore footprintPermits, int permits,
+                                  Path outputFile) throws IOException {
+        try {
+            footprintPermits.acquire(permits);
+        } catch (InterruptedException e) {
+            throw new CancellationException();
+        }
+        try {
+            long start = System.nanoTime();
+            AutomaticStructuring structuring = model.getStructuring(entryId);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (structuring == null) {
+                return ENTRY_UNLOADED_FORMAT.formatted(entryId);
+            }
+            if (outputFile == null) {
+                return ENTRY_FORMAT.formatted(entryId, millis) + System.lineSeparator() + structuring;
+            }
+            Files.writeString(outputFile, structuring + System.lineSeparator());
+            return ENTRY_WRITTEN_FORMAT.formatted(entryId, millis, outputFile);
+        } finally {
+            footprintPermits.release(permits);
+        }
+    }
+
+    @Override
+    public int getNumberOfArguments() {
+        return NUMBER_OF_ARGUMENTS;
+    }
+
+    @Override
+    public int getNumberOfOptionalArguments() {
+        return NUMBER_OF_OPTIONAL_ARGUMENTS;
+    }
+
+    @Override
+    public boolean canRunInBackground() {
+        return true;
+    }
+}
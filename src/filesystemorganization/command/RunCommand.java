@@ -2,16 +2,59 @@
 
 import filesystemorganization.model.documentorganization.AutomaticStructuring;
 import filesystemorganization.model.FileSystemOrganization;
+import filesystemorganization.model.documentorganization.SampleSize;
+import filesystemorganization.model.documentorganization.SplitCriterion;
+import filesystemorganization.model.documentorganization.StructuringOptions;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This command executes automatic structuring on a specific loaded content of an input file, lists a tags list sorted
- * by information gains and displays calculated directory tree of the documents in the file.
+ * by information gains and displays calculated directory tree of the documents in the file. With a deadline, the tree
+ * is only expanded until the deadline has passed. With a sample size, the information gains are estimated from a
+ * sample of the documents, as fraction of all documents or as number of documents. With a maximum number of children,
+ * the values of a tag with the lowest access counts are grouped into one branch. With a number of bins, the values of
+ * numeric tags are split into ranges. With a split criterion, the gains are calculated by the Gini impurity or as gain
+ * ratio instead of as information gain. With another entry to start from, the unchanged subtrees of its cached
+ * structuring are taken over, which yields the same output. If that structuring cannot be started from, a note after
+ * the output says so.
  *
  * @author ujxbs
  */
 final class RunCommand implements Command {
     private static final int INPUT_FILE_INDEX = 0;
     private static final int NUMBER_OF_ARGUMENTS = 1;
+    private static final int NUMBER_OF_OPTIONAL_ARGUMENTS = 12;
+    private static final int FIRST_OPTION_INDEX = 1;
+    private static final int OPTION_VALUE_DIFFERENCE = 1;
+    private static final int OPTION_DIFFERENCE = 2;
+    private static final String DEADLINE_OPTION = "--deadline";
+    private static final String DEADLINE_PATTERN = "\\d{1,12}";
+    private static final String SAMPLE_OPTION = "--sample";
+    private static final String SAMPLE_COUNT_PATTERN = "[1-9]\\d{0,8}";
+    private static final String SAMPLE_FRACTION_PATTERN = "0?\\.\\d*[1-9]\\d*";
+    private static final String MAXIMUM_CHILDREN_OPTION = "--max-children";
+    private static final String MAXIMUM_CHILDREN_PATTERN = "[2-9]|[1-9]\\d{1,8}";
+    private static final String BINS_OPTION = "--bins";
+    private static final String BINS_PATTERN = "[2-9]|[1-9]\\d{1,8}";
+    private static final String CRITERION_OPTION = "--criterion";
+    private static final Map<String, SplitCriterion> SPLIT_CRITERIA = Map.of("entropy", SplitCriterion.ENTROPY,
+            "gini", SplitCriterion.GINI_IMPURITY, "gain-ratio", SplitCriterion.GAIN_RATIO);
+    private static final String PREVIOUS_ENTRY_OPTION = "--from";
+    private static final String PREVIOUS_ENTRY_PATTERN = "\\d{1,9}";
+    private static final int NO_PREVIOUS_ENTRY = -1;
+    private static final String INVALID_OPTION = "The options of run are --deadline <milliseconds>, "
+            + "--sample <fraction|count>, --max-children <number of at least 2>, --bins <number of at least 2>, "
+            + "--criterion <entropy|gini|gain-ratio> and --from <id>, each at most once!";
+    private static final String INVALID_SAMPLED_CRITERION = "Only the entropy criterion can be estimated from a "
+            + "sample!";
+    private static final String NO_PREVIOUS_STRUCTURING = "Entry %d has no complete structuring to start from, so "
+            + "entry %d was structured from scratch.";
+    private static final String UNUSABLE_PREVIOUS_STRUCTURING = "The structuring of entry %d cannot be started from "
+            + "with these options, so entry %d was structured from scratch.";
     private static final String INVALID_ID_VALUE = "Given id can only be an integer value!";
     private static final String INVALID_ENTRY = "An entry with given id number does not exist!";
     private static final String ERROR_NO_FILE_LOADED = "No file was loaded!";
@@ -25,21 +68,85 @@ public CommandResult execute(FileSystemOrganization model, String[] commandArgum
             return new CommandResult(CommandResultType.FAILURE, INVALID_ID_VALUE);
         }
 
-        if (model.getInputFiles().isEmpty()) {
+        StructuringOptions options = StructuringOptions.DEFAULT;
+        int previousEntryId = NO_PREVIOUS_ENTRY;
+        Set<String> givenOptions = new HashSet<>();
+        for (int i = FIRST_OPTION_INDEX; i < commandArguments.length; i += OPTION_DIFFERENCE) {
+            if (i + OPTION_VALUE_DIFFERENCE >= commandArguments.length || !givenOptions.add(commandArguments[i])) {
+                return new CommandResult(CommandResultType.FAILURE, INVALID_OPTION);
+            }
+            String option = commandArguments[i];
+            String optionValue = commandArguments[i + OPTION_VALUE_DIFFERENCE];
+            if (option.equals(DEADLINE_OPTION) && optionValue.matches(DEADLINE_PATTERN)) {
+                long timeBudgetMillis = Long.parseLong(optionValue);
+                options = options.withDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis));
+            } else if (option.equals(SAMPLE_OPTION) && optionValue.matches(SAMPLE_COUNT_PATTERN)) {
+                options = options.withSampleSize(SampleSize.ofCount(Integer.parseInt(optionValue)));
+            } else if (option.equals(SAMPLE_OPTION) && optionValue.matches(SAMPLE_FRACTION_PATTERN)) {
+                options = options.withSampleSize(SampleSize.ofFraction(Double.parseDouble(optionValue)));
+            } else if (option.equals(MAXIMUM_CHILDREN_OPTION) && optionValue.matches(MAXIMUM_CHILDREN_PATTERN)) {
+                options = options.withMaximumNumberOfChildren(Integer.parseInt(optionValue));
+            } else if (option.equals(BINS_OPTION) && optionValue.matches(BINS_PATTERN)) {
+                options = options.withNumberOfBins(Integer.parseInt(optionValue));
+            } else if (option.equals(CRITERION_OPTION) && SPLIT_CRITERIA.containsKey(optionValue)) {
+                options = options.withSplitCriterion(SPLIT_CRITERIA.get(optionValue));
+            } else if (option.equals(PREVIOUS_ENTRY_OPTION) && optionValue.matches(PREVIOUS_ENTRY_PATTERN)) {
+                previousEntryId = Integer.parseInt(optionValue);
+            } else {
+                return new CommandResult(CommandResultType.FAILURE, INVALID_OPTION);
+            }
+        }
+
+        if (!options.getSampleSize().isAll() && options.getSplitCriterion() != SplitCriterion.ENTROPY) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_SAMPLED_CRITERION);
+        }
+
+        if (model.getEntryIds().isEmpty()) {
             return new CommandResult(CommandResultType.FAILURE, ERROR_NO_FILE_LOADED);
         }
 
-        if (model.entryDoesNotExist(entryId)) {
+        if (model.entryDoesNotExist(entryId)
+                || (previousEntryId != NO_PREVIOUS_ENTRY && model.entryDoesNotExist(previousEntryId))) {
             return new CommandResult(CommandResultType.FAILURE, INVALID_ENTRY);
         }
 
-        AutomaticStructuring structuring = new AutomaticStructuring(model, entryId);
+        if (previousEntryId == NO_PREVIOUS_ENTRY) {
+            AutomaticStructuring structuring = model.getStructuring(entryId, options);
+            return structuring == null
+                    ? new CommandResult(CommandResultType.FAILURE, INVALID_ENTRY)
+                    : new CommandResult(CommandResultType.SUCCESS, structuring.toString());
+        }
 
-        return new CommandResult(CommandResultType.SUCCESS, structuring.toString());
+        AutomaticStructuring cachedStructuring = model.getCachedStructuring(entryId);
+        AutomaticStructuring previousStructuring = model.getCachedStructuring(previousEntryId);
+        AutomaticStructuring structuring = model.getStructuring(entryId,
+                options.withPreviousStructuring(previousStructuring));
+        if (structuring == null) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_ENTRY);
+        }
+        // A cached structuring of the entry itself is returned without structuring anything
+        String note = null;
+        if (structuring != cachedStructuring && previousStructuring == null) {
+            note = NO_PREVIOUS_STRUCTURING.formatted(previousEntryId, entryId);
+        } else if (structuring != cachedStructuring && !structuring.isStartedFromPreviousStructuring()) {
+            note = UNUSABLE_PREVIOUS_STRUCTURING.formatted(previousEntryId, entryId);
+        }
+        return new CommandResult(CommandResultType.SUCCESS,
+                note == null ? structuring.toString() : structuring + System.lineSeparator() + note);
     }
 
     @Override
     public int getNumberOfArguments() {
         return NUMBER_OF_ARGUMENTS;
     }
+
+    @Override
+    public int getNumberOfOptionalArguments() {
+        return NUMBER_OF_OPTIONAL_ARGUMENTS;
+    }
+
+    @Override
+    public boolean canRunInBackground() {
+        return true;
+    }
 }
@@ -0,0 +1,91 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.FileSystemOrganization;
+import filesystemorganization.model.document.Document;
+import filesystemorganization.model.documentorganization.ExternalStructuring;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CancellationException;
+
+/**
+ * This command structures an input file without loading it, for input files whose documents do not fit into memory.
+ * The documents are partitioned on the disk until the partitions fit into the memory budget, and the structuring is
+ * written to an output file instead of being displayed.
+ *
+ * @author ujxbs
+ */
+final class RunFileCommand implements Command {
+
+    private static final int PATH_INDEX = 0;
+    private static final int OUTPUT_PATH_INDEX = 1;
+    private static final int NUMBER_OF_ARGUMENTS = 2;
+    private static final int LAST_INDEX_DIFFERENCE = 1;
+    private static final String DIRECTORY_SEPARATOR = "/";
+    private static final String PARTITION_DIRECTORY_PREFIX = "filesystemorganization-partitions";
+    private static final String NON_EXISTENT_FILE = "File %s does not exist!";
+    private static final String TAG_CONFLICT_ERROR = "A conflict arises with the added tags of a document!";
+    private static final String EMPTY_FILE_ERROR = "File %s is empty!";
+    private static final String PARTITION_ERROR = "The structuring could not be written: %s";
+    private static final String SUCCESS_FORMAT = "Structured %s into %s";
+
+    @Override
+    public CommandResult execute(FileSystemOrganization model, String[] commandArguments) {
+        String pathName = commandArguments[PATH_INDEX];
+        Path pathToFile = Paths.get(pathName);
+        if (!Files.exists(pathToFile)) {
+            return new CommandResult(CommandResultType.FAILURE,
+                    String.format(NON_EXISTENT_FILE, getFileName(pathName)));
+        }
+
+        DocumentChecker documentChecker = new DocumentChecker();
+        boolean fileIsEmpty = true;
+        try (ExternalStructuring structuring = new ExternalStructuring(
+                Files.createTempDirectory(PARTITION_DIRECTORY_PREFIX), model.getMemoryBudget());
+             BufferedReader reader = Files.newBufferedReader(pathToFile)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException();
+                }
+                CommandResult checkResult = documentChecker.checkDocument(line);
+                if (checkResult != null) {
+                    return checkResult;
+                }
+                Document document = model.parseDocument(line);
+                if (document.causesConflict()) {
+                    return new CommandResult(CommandResultType.FAILURE, TAG_CONFLICT_ERROR);
+                }
+                structuring.addDocument(document);
+                fileIsEmpty = false;
+            }
+            if (fileIsEmpty) {
+                return new CommandResult(CommandResultType.FAILURE,
+                        String.format(EMPTY_FILE_ERROR, getFileName(pathName)));
+            }
+            structuring.writeStructuring(Paths.get(commandArguments[OUTPUT_PATH_INDEX]));
+        } catch (IOException e) {
+            return new CommandResult(CommandResultType.FAILURE, PARTITION_ERROR.formatted(e.getMessage()));
+        }
+        return new CommandResult(CommandResultType.SUCCESS,
+                SUCCESS_FORMAT.formatted(pathName, commandArguments[OUTPUT_PATH_INDEX]));
+    }
+
+    @Override
+    public int getNumberOfArguments() {
+        return NUMBER_OF_ARGUMENTS;
+    }
+
+    @Override
+    public boolean canRunInBackground() {
+        return true;
+    }
+
+    private String getFileName(String fullPath) {
+        String[] parts = fullPath.split(DIRECTORY_SEPARATOR);
+        return parts[parts.length - LAST_INDEX_DIFFERENCE];
+    }
+}
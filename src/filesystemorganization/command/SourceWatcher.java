@@ -0,0 +1,322 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.FileSystemOrganization;
+import filesystemorganization.model.document.Document;
+import filesystemorganization.model.persistence.UnconfirmedWriteException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class keeps loaded input files bound to their source files. A single daemon thread waits for changes in the
+ * directories of the source files. Once a source file has changed and no further change follows for a moment, its
+ * lines are matched with the lines it had before by their hashes, and its entry is reloaded in place: only the lines
+ * that were not there before are checked and parsed into documents.
+ * <p>
+ * A binding ends when its entry is unloaded or the command handler stops. Bindings are not journaled, but the reloads
+ * are.
+ *
+ * @author ujxbs
+ */
+final class SourceWatcher implements AutoCloseable {
+
+    private static final String THREAD_NAME = "source-watcher";
+    private static final long QUIET_PERIOD_MILLIS = 100;
+    private static final long HASH_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long HASH_PRIME = 0x100000001B3L;
+    private static final String DOCUMENTS_ELEMENTS_SEPARATOR = ",";
+    private static final String ERROR_PREFIX = "ERROR: ";
+    private static final String RELOADED_FORMAT = "Reloaded %s into id %d: %d added, %d removed, %d modified";
+    private static final String NOT_RELOADED_FORMAT = "File %s was not reloaded: %s";
+    private static final String EMPTY_FILE_ERROR = "The file is empty!";
+    private static final String TAG_CONFLICT_ERROR = "A conflict arises with the added tags of a document!";
+    private static final String JOURNAL_ERROR = "The reloading could not be written to the journal!";
+    private static final String UNCONFIRMED_FORMAT = "Reloaded %s into id %d, but it is unknown whether the reloading "
+            + "is durable!";
+    private final FileSystemOrganization model;
+    private final Map<Path, WatchedFile> watchedFiles = new HashMap<>();
+    private final Map<Path, WatchKey> directoryKeys = new HashMap<>();
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * Constructs a watcher without any bound source file. Its thread is started once the first file is watched.
+     *
+     * @param model the model the entries of the source files are loaded into
+     */
+    SourceWatcher(FileSystemOrganization model) {
+        this.model = model;
+    }
+
+    /**
+     * Checks whether a source file is bound to an entry that is still loaded.
+     *
+     * @param sourceFile the absolute and normalized path of the source file
+     * @return true if the source file is watched, false otherwise
+     */
+    synchronized boolean isWatched(Path sourceFile) {
+        WatchedFile watchedFile = watchedFiles.get(sourceFile);
+        if (watchedFile != null && model.entryDoesNotExist(watchedFile.entryId())) {
+            unwatch(sourceFile);
+            return false;
+        }
+        return watchedFile != null;
+    }
+
+    /**
+     * Binds a loaded entry to its source file, so that it is reloaded whenever the source file changes.
+     *
+     * @param sourceFile the absolute and normalized path of the source file
+     * @param entryId    the entry ID the source file was loaded with
+     * @param lines      the lines the entry was loaded from
+     * @param checker    the checker that checked these lines
+     * @throws IOException if the directory of the source file could not be watched
+     */
+    synchronized void watch(Path sourceFile, int entryId, List<String> lines, DocumentChecker checker)
+            throws IOException {
+        if (watchService == null) {
+            watchService = FileSystems.getDefault().newWatchService();
+            thread = new Thread(this::watchChanges, THREAD_NAME);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        Path directory = sourceFile.getParent();
+        if (!directoryKeys.containsKey(directory)) {
+            // Editors often save by replacing the file, which the directory reports as a creation
+            directoryKeys.put(directory, directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY));
+        }
+        long[] lineHashes = new long[lines.size()];
+        for (int i = 0; i < lineHashes.length; i++) {
+            lineHashes[i] = hashLine(lines.get(i));
+        }
+        watchedFiles.put(sourceFile, new WatchedFile(entryId, lineHashes, checker));
+    }
+
+    /**
+     * Stops watching all source files and waits until a reload in progress has finished. The entries stay loaded.
+     */
+    @Override
+    public void close() {
+        Thread watchingThread;
+        synchronized (this) {
+            watchedFiles.clear();
+            directoryKeys.clear();
+            watchingThread = thread;
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException e) {
+                    // The thread stops on the next change anyway, as no file is watched anymore
+                }
+            }
+        }
+        if (watchingThread != null) {
+            try {
+                watchingThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Changes are collected until the files were quiet for a moment, as saving a file may take several writes
+    private void watchChanges() {
+        Set<Path> changedFiles = new LinkedHashSet<>();
+        try {
+            while (true) {
+                WatchKey key = changedFiles.isEmpty()
+                        ? watchService.take()
+                        : watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    for (Path changedFile : changedFiles) {
+                        reload(changedFile);
+                    }
+                    changedFiles.clear();
+                    continue;
+                }
+                collectChanges(key, changedFiles);
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // The watcher was closed
+        }
+    }
+
+    private synchronized void collectChanges(WatchKey key, Set<Path> changedFiles) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                for (Path watchedFile : watchedFiles.keySet()) {
+                    if (watchedFile.getParent().equals(directory)) {
+                        changedFiles.add(watchedFile);
+                    }
+                }
+            } else {
+                Path changedFile = directory.resolve((Path) event.context());
+                if (watchedFiles.containsKey(changedFile)) {
+                    changedFiles.add(changedFile);
+                }
+            }
+        }
+    }
+
+    private void reload(Path sourceFile) {
+        WatchedFile watchedFile;
+        synchronized (this) {
+            watchedFile = isWatched(sourceFile) ? watchedFiles.get(sourceFile) : null;
+        }
+        // A replaced file may be missing for a moment, its creation is reported as another change
+        if (watchedFile == null || !Files.exists(sourceFile)) {
+            return;
+        }
+
+        List<String> lines;
+        List<Document> currentDocuments;
+        try {
+            lines = Files.readAllLines(sourceFile);
+            currentDocuments = model.getSpecificInputFile(watchedFile.entryId());
+        } catch (IOException | UncheckedIOException e) {
+            reportFailure(sourceFile, e.getMessage());
+            return;
+        }
+        if (currentDocuments == null) {
+            // The entry was unloaded after the binding was checked, which ends the binding
+            isWatched(sourceFile);
+            return;
+        }
+        if (lines.isEmpty()) {
+            reportFailure(sourceFile, EMPTY_FILE_ERROR);
+            return;
+        }
+
+        // Every unchanged line keeps one document of the same line, the other lines are new documents
+        long[] oldLineHashes = watchedFile.lineHashes();
+        Map<Long, Deque<Integer>> positionsOfHash = new HashMap<>();
+        for (int position = 0; position < oldLineHashes.length; position++) {
+            positionsOfHash.computeIfAbsent(oldLineHashes[position], hash -> new ArrayDeque<>()).add(position);
+        }
+        long[] lineHashes = new long[lines.size()];
+        int[] keptPositions = new int[lines.size()];
+        boolean[] kept = new boolean[oldLineHashes.length];
+        boolean reordered = lines.size() != oldLineHashes.length;
+        DocumentChecker checker = new DocumentChecker(watchedFile.checker());
+        Map<String, Integer> newIdentifiers = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            lineHashes[i] = hashLine(lines.get(i));
+            Deque<Integer> positions = positionsOfHash.get(lineHashes[i]);
+            if (positions != null && !positions.isEmpty()) {
+                keptPositions[i] = positions.poll();
+                kept[keptPositions[i]] = true;
+                reordered |= keptPositions[i] != i;
+                continue;
+            }
+            CommandResult checkResult = checker.checkDocument(lines.get(i));
+            if (checkResult != null) {
+                reportFailure(sourceFile, checkResult.getMessage());
+                return;
+            }
+            keptPositions[i] = FileSystemOrganization.NEW_DOCUMENT;
+            newIdentifiers.merge(getIdentifier(lines.get(i)), 1, Integer::sum);
+        }
+        if (newIdentifiers.isEmpty() && !reordered) {
+            return;
+        }
+
+        // A removed document whose identifier comes back in a new line was modified
+        int numberOfRemoved = 0;
+        int numberOfModified = 0;
+        for (int position = 0; position < kept.length; position++) {
+            if (!kept[position]) {
+                numberOfRemoved++;
+                Integer count = newIdentifiers.computeIfPresent(currentDocuments.get(position).getIdentifier(),
+                        (identifier, remaining) -> remaining - 1);
+                if (count != null && count >= 0) {
+                    numberOfModified++;
+                }
+            }
+        }
+        int numberOfAdded = lines.size() - (oldLineHashes.length - numberOfRemoved) - numberOfModified;
+
+        boolean confirmed = true;
+        try {
+            if (!model.reloadDocuments(watchedFile.entryId(), lines, keptPositions)) {
+                if (isWatched(sourceFile)) {
+                    reportFailure(sourceFile, TAG_CONFLICT_ERROR);
+                }
+                return;
+            }
+        } catch (UnconfirmedWriteException e) {
+            // The documents were replaced, so the new lines are what the next reload compares against
+            confirmed = false;
+        } catch (IOException e) {
+            reportFailure(sourceFile, JOURNAL_ERROR);
+            return;
+        }
+        synchronized (this) {
+            watchedFiles.replace(sourceFile, watchedFile, new WatchedFile(watchedFile.entryId(), lineHashes, checker));
+        }
+        if (!confirmed) {
+            System.err.println(ERROR_PREFIX + UNCONFIRMED_FORMAT.formatted(sourceFile, watchedFile.entryId()));
+            return;
+        }
+        System.out.println(RELOADED_FORMAT.formatted(sourceFile, watchedFile.entryId(), numberOfAdded,
+                numberOfRemoved - numberOfModified, numberOfModified));
+    }
+
+    private void unwatch(Path sourceFile) {
+        watchedFiles.remove(sourceFile);
+        Path directory = sourceFile.getParent();
+        for (Path watchedFile : watchedFiles.keySet()) {
+            if (watchedFile.getParent().equals(directory)) {
+                return;
+            }
+        }
+        WatchKey key = directoryKeys.remove(directory);
+        if (key != null) {
+            key.cancel();
+        }
+    }
+
+    private static void reportFailure(Path sourceFile, String message) {
+        System.err.println(ERROR_PREFIX + NOT_RELOADED_FORMAT.formatted(sourceFile, message));
+    }
+
+    private static String getIdentifier(String line) {
+        return line.substring(0, line.indexOf(DOCUMENTS_ELEMENTS_SEPARATOR));
+    }
+
+    private static long hashLine(String line) {
+        long hash = HASH_OFFSET_BASIS;
+        for (int i = 0; i < line.length(); i++) {
+            hash = (hash ^ line.charAt(i)) * HASH_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * The binding of a source file to its entry.
+     *
+     * @param entryId    the entry ID the source file is loaded with
+     * @param lineHashes the hashes of the lines the entry was loaded from, in the order of the documents
+     * @param checker    the checker that checked these lines
+     */
+    private record WatchedFile(int entryId, long[] lineHashes, DocumentChecker checker) {
+    }
+}
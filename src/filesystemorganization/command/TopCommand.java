@@ -0,0 +1,83 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.FileSystemOrganization;
+import filesystemorganization.model.document.Document;
+import filesystemorganization.model.query.TagQuery;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * This command lists the most accessed documents of a loaded input file with their access counts, optionally only
+ * those that match an expression like {@code genre=pop}. The documents are found through the access ranking of the
+ * input file, which is kept up to date by changes of access counts, so the input file is never sorted.
+ *
+ * @author ujxbs
+ */
+final class TopCommand implements Command {
+
+    private static final int ENTRY_ID_INDEX = 0;
+    private static final int LIMIT_INDEX = 1;
+    private static final int EXPRESSION_INDEX = 2;
+    private static final int NUMBER_OF_ARGUMENTS = 2;
+    private static final int NUMBER_OF_OPTIONAL_ARGUMENTS = 1024;
+    private static final String LIMIT_PATTERN = "[1-9]\\d{0,8}";
+    private static final String INVALID_ID_VALUE = "Given id can only be an integer value!";
+    private static final String INVALID_LIMIT = "The number of documents can only be a positive integer value!";
+    private static final String INVALID_EXPRESSION = "The expression combines tag, tag=value, type:<type>, "
+            + "tag<number> and tag a..b with AND, OR, NOT and parentheses!";
+    private static final String INVALID_ENTRY = "An entry with given id number does not exist!";
+    private static final String NO_MATCHES = "No document matches";
+    private static final String MATCH_FORMAT = "%s %d";
+
+    @Override
+    public CommandResult execute(FileSystemOrganization model, String[] commandArguments) {
+        int entryId;
+        try {
+            entryId = Integer.parseInt(commandArguments[ENTRY_ID_INDEX]);
+        } catch (NumberFormatException e) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_ID_VALUE);
+        }
+        if (!commandArguments[LIMIT_INDEX].matches(LIMIT_PATTERN)) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_LIMIT);
+        }
+        int limit = Integer.parseInt(commandArguments[LIMIT_INDEX]);
+
+        TagQuery query = null;
+        if (commandArguments.length > EXPRESSION_INDEX) {
+            query = QueryParser.parse(Arrays.asList(commandArguments)
+                    .subList(EXPRESSION_INDEX, commandArguments.length));
+            if (query == null) {
+                return new CommandResult(CommandResultType.FAILURE, INVALID_EXPRESSION);
+            }
+        }
+        List<Document> topDocuments = model.findTopDocuments(entryId, limit, query);
+        if (topDocuments == null) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_ENTRY);
+        }
+        if (topDocuments.isEmpty()) {
+            return new CommandResult(CommandResultType.SUCCESS, NO_MATCHES);
+        }
+        StringJoiner output = new StringJoiner(System.lineSeparator());
+        for (Document document : topDocuments) {
+            output.add(MATCH_FORMAT.formatted(document.getIdentifier(), document.getAccessCount()));
+        }
+        return new CommandResult(CommandResultType.SUCCESS, output.toString());
+    }
+
+    @Override
+    public int getNumberOfArguments() {
+        return NUMBER_OF_ARGUMENTS;
+    }
+
+    @Override
+    public int getNumberOfOptionalArguments() {
+        return NUMBER_OF_OPTIONAL_ARGUMENTS;
+    }
+
+    @Override
+    public boolean canRunInBackground() {
+        return true;
+    }
+}
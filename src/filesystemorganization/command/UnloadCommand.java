@@ -0,0 +1,53 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.FileSystemOrganization;
+import filesystemorganization.model.persistence.UnconfirmedWriteException;
+
+import java.io.IOException;
+
+/**
+ * This command removes a loaded input file with given entry ID number from the system.
+ *
+ * @author ujxbs
+ */
+final class UnloadCommand implements Command {
+
+    private static final int ENTRY_ID_INDEX = 0;
+    private static final int NUMBER_OF_ARGUMENTS = 1;
+    private static final String SUCCESS_FORMAT = "Unloaded id: %d";
+    private static final String INVALID_ID_VALUE = "Given id can only be an integer value!";
+    private static final String INVALID_ENTRY = "An entry with given id number does not exist!";
+    private static final String JOURNAL_ERROR = "The unloading could not be written to the journal!";
+    private static final String UNCONFIRMED_FORMAT = "Unloaded id: %d, but it is unknown whether the unloading is "
+            + "durable!";
+
+    @Override
+    public CommandResult execute(FileSystemOrganization model, String[] commandArguments) {
+        int entryId;
+        try {
+            entryId = Integer.parseInt(commandArguments[ENTRY_ID_INDEX]);
+        } catch (NumberFormatException e) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_ID_VALUE);
+        }
+
+        if (model.entryDoesNotExist(entryId)) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_ENTRY);
+        }
+
+        try {
+            if (!model.unloadInputFile(entryId)) {
+                return new CommandResult(CommandResultType.FAILURE, INVALID_ENTRY);
+            }
+        } catch (UnconfirmedWriteException e) {
+            return new CommandResult(CommandResultType.FAILURE, UNCONFIRMED_FORMAT.formatted(entryId));
+        } catch (IOException e) {
+            return new CommandResult(CommandResultType.FAILURE, JOURNAL_ERROR);
+        }
+        return new CommandResult(CommandResultType.SUCCESS, SUCCESS_FORMAT.formatted(entryId));
+    }
+
+    @Override
+    public int getNumberOfArguments() {
+        return NUMBER_OF_ARGUMENTS;
+    }
+}
@@ -0,0 +1,73 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.FileSystemOrganization;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * This command waits until a background job has finished and reports the result of its command as if the command
+ * had run in the foreground. The job is forgotten afterwards.
+ *
+ * @author ujxbs
+ */
+final class WaitCommand implements Command {
+
+    private static final int JOB_ID_INDEX = 0;
+    private static final int NUMBER_OF_ARGUMENTS = 1;
+    private static final String INVALID_JOB_ID_VALUE = "Given job id can only be an integer value!";
+    private static final String INVALID_JOB = "A job with given id does not exist!";
+    private static final String CANCELLED_FORMAT = "Job %d was cancelled!";
+    private static final String INTERRUPTED_FORMAT = "Waiting for job %d was interrupted!";
+    private static final String FAILED_FORMAT = "Job %d failed: %s";
+    private final BackgroundJobs backgroundJobs;
+
+    /**
+     * Constructs a new WaitCommand.
+     *
+     * @param backgroundJobs the background jobs to wait for
+     */
+    WaitCommand(BackgroundJobs backgroundJobs) {
+        this.backgroundJobs = backgroundJobs;
+    }
+
+    @Override
+    public CommandResult execute(FileSystemOrganization ignored, String[] commandArguments) {
+        int jobId;
+        try {
+            jobId = Integer.parseInt(commandArguments[JOB_ID_INDEX]);
+        } catch (NumberFormatException e) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_JOB_ID_VALUE);
+        }
+
+        BackgroundJobs.Job job = backgroundJobs.getJob(jobId);
+        if (job == null) {
+            return new CommandResult(CommandResultType.FAILURE, INVALID_JOB);
+        }
+
+        CommandResult result;
+        try {
+            // A cancelled job may still be running, or may have completed after its last cancellation check
+            job.awaitStop();
+            result = job.get();
+        } catch (CancellationException e) {
+            result = job.getCompletedResult() != null
+                    ? job.getCompletedResult()
+                    : new CommandResult(CommandResultType.FAILURE, CANCELLED_FORMAT.formatted(jobId));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new CommandResult(CommandResultType.FAILURE, INTERRUPTED_FORMAT.formatted(jobId));
+        } catch (ExecutionException e) {
+            result = e.getCause() instanceof CancellationException
+                    ? new CommandResult(CommandResultType.FAILURE, CANCELLED_FORMAT.formatted(jobId))
+                    : new CommandResult(CommandResultType.FAILURE, FAILED_FORMAT.formatted(jobId, e.getCause()));
+        }
+        backgroundJobs.removeJob(jobId);
+        return result;
+    }
+
+    @Override
+    public int getNumberOfArguments() {
+        return NUMBER_OF_ARGUMENTS;
+    }
+}
@@ -0,0 +1,101 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.FileSystemOrganization;
+import filesystemorganization.model.persistence.UnconfirmedWriteException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * This command loads an input file like {@link LoadCommand} and keeps its entry bound to the file. Whenever the file
+ * changes, the entry is reloaded in place by its {@link SourceWatcher}, so its entry ID stays the same.
+ *
+ * @author ujxbs
+ */
+final class WatchCommand implements Command {
+
+    private static final int PATH_INDEX = 0;
+    private static final int NUMBER_OF_ARGUMENTS = 1;
+    private static final String NON_EXISTENT_FILE = "File %s does not exist!";
+    private static final String ALREADY_WATCHED = "File %s is watched already!";
+    private static final String EMPTY_FILE_ERROR = "File %s is empty!";
+    private static final String READ_ERROR = "File %s could not be read: %s";
+    private static final String TAG_CONFLICT_ERROR = "A conflict arises with the added tags of a document!";
+    private static final String JOURNAL_ERROR = "The loading could not be written to the journal!";
+    private static final String WATCH_ERROR = "File %s was loaded with id %d, but cannot be watched: %s";
+    private static final String SUCCESS_FORMAT = "Watching %s with id: %d";
+    private static final String UNCONFIRMED_FORMAT = "Watching %s with id: %d, but it is unknown whether the loading "
+            + "is durable!";
+    private final SourceWatcher sourceWatcher;
+
+    /**
+     * Constructs a new WatchCommand.
+     *
+     * @param sourceWatcher the watcher that keeps the entries bound to their files
+     */
+    WatchCommand(SourceWatcher sourceWatcher) {
+        this.sourceWatcher = sourceWatcher;
+    }
+
+    @Override
+    public CommandResult execute(FileSystemOrganization model, String[] commandArguments) {
+        String pathName = commandArguments[PATH_INDEX];
+        Path sourceFile = Paths.get(pathName).toAbsolutePath().normalize();
+        if (!Files.exists(sourceFile)) {
+            return new CommandResult(CommandResultType.FAILURE, NON_EXISTENT_FILE.formatted(pathName));
+        }
+        if (sourceWatcher.isWatched(sourceFile)) {
+            return new CommandResult(CommandResultType.FAILURE, ALREADY_WATCHED.formatted(pathName));
+        }
+
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(sourceFile);
+        } catch (IOException e) {
+            return new CommandResult(CommandResultType.FAILURE, READ_ERROR.formatted(pathName, e.getMessage()));
+        }
+        if (lines.isEmpty()) {
+            return new CommandResult(CommandResultType.FAILURE, EMPTY_FILE_ERROR.formatted(pathName));
+        }
+        DocumentChecker documentChecker = new DocumentChecker();
+        for (String line : lines) {
+            CommandResult checkResult = documentChecker.checkDocument(line);
+            if (checkResult != null) {
+                return checkResult;
+            }
+        }
+
+        int entryId;
+        boolean confirmed = true;
+        try {
+            entryId = model.loadDocuments(lines);
+        } catch (UnconfirmedWriteException e) {
+            // The entry exists, so it is watched like a confirmed one
+            entryId = e.getEntryId();
+            confirmed = false;
+        } catch (IOException e) {
+            return new CommandResult(CommandResultType.FAILURE, JOURNAL_ERROR);
+        }
+        if (entryId == FileSystemOrganization.CONFLICTING_INPUT_FILE) {
+            return new CommandResult(CommandResultType.FAILURE, TAG_CONFLICT_ERROR);
+        }
+        try {
+            sourceWatcher.watch(sourceFile, entryId, lines, documentChecker);
+        } catch (IOException e) {
+            return new CommandResult(CommandResultType.FAILURE, WATCH_ERROR.formatted(pathName, entryId,
+                    e.getMessage()));
+        }
+        if (!confirmed) {
+            return new CommandResult(CommandResultType.FAILURE, UNCONFIRMED_FORMAT.formatted(pathName, entryId));
+        }
+        return new CommandResult(CommandResultType.SUCCESS, SUCCESS_FORMAT.formatted(pathName, entryId));
+    }
+
+    @Override
+    public int getNumberOfArguments() {
+        return NUMBER_OF_ARGUMENTS;
+    }
+}
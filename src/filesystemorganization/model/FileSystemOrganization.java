@@ -3,25 +3,48 @@
 import filesystemorganization.model.document.Document;
 import filesystemorganization.model.document.DocumentFactory;
 import filesystemorganization.model.document.DocumentType;
+import filesystemorganization.model.documentorganization.AutomaticStructuring;
+import filesystemorganization.model.documentorganization.Materializer;
+import filesystemorganization.model.documentorganization.StructuringOptions;
+import filesystemorganization.model.persistence.Journal;
+import filesystemorganization.model.persistence.SpillStore;
+import filesystemorganization.model.persistence.UnconfirmedWriteException;
+import filesystemorganization.model.query.TagQuery;
 import filesystemorganization.model.tag.BinaryTag;
 import filesystemorganization.model.tag.MultivaluedTag;
 import filesystemorganization.model.tag.Tag;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.concurrent.CancellationException;
 
 
 /**
- * This class represents the facade of file system organization.
+ * This class represents the facade of file system organization. It may be used by several threads at once; loading
+ * and structuring documents happen outside its lock.
  *
  * @author ujxbs
  */
 public class FileSystemOrganization {
 
+    /**
+     * The result of {@link #loadDocuments} if a document of the input file causes a conflict.
+     */
+    public static final int CONFLICTING_INPUT_FILE = -1;
+
+    /**
+     * The kept position in {@link #reloadDocuments} of a line whose document is created anew.
+     */
+    public static final int NEW_DOCUMENT = -1;
+
     private static final int DOCUMENT_IDENTIFIER_INDEX = 0;
     private static final int DOCUMENT_TYPE_INDEX = 1;
     private static final int ACCESS_COUNT_INDEX = 2;
@@ -30,9 +53,17 @@ public class FileSystemOrganization {
     private static final String TAG_IDENTIFIER_VALUE_SEPARATOR = "=";
     private static final int TAG_IDENTIFIER_INDEX = 0;
     private static final int TAG_VALUE_INDEX = 1;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final long NO_SEQUENCE = -1;
     private final DocumentFactory documentFactory;
-    private final Map<Integer, List<Document>> inputFiles = new HashMap<>();
+    private final Map<Integer, InputFile> inputFiles = new HashMap<>();
+    private final Map<Integer, InputFile> residentInputFiles = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
     private int idCounter = 0;
+    private Journal journal;
+    private SpillStore spillStore;
+    private long memoryBudget = Long.MAX_VALUE;
+    private long residentFootprint = 0;
 
     /**
      * Constructs an instance of file system organization.
@@ -45,49 +76,302 @@ public FileSystemOrganization() {
      * Loads all the documents of an input file to the system.
      *
      * @param documentsList the list of the documents which are going to be added
-     * @return true if all the documents were successfully added, false otherwise
+     * @return the entry ID of the added input file, or {@link #CONFLICTING_INPUT_FILE} if a document causes a conflict
+     * @throws IOException if the loading could not be written to the journal
+     * @throws UnconfirmedWriteException if the loading was applied, but could not be confirmed as durable
+     * @throws CancellationException if the loading thread was interrupted
      */
-    public boolean loadDocuments(List<String> documentsList) {
+    public int loadDocuments(List<String> documentsList) throws IOException {
         List<Document> documentList = new ArrayList<>();
 
         for (String document : documentsList) {
-            String[] elements = document.split(DOCUMENTS_ELEMENTS_SEPARATOR);
-            String identifier = elements[DOCUMENT_IDENTIFIER_INDEX];
-            DocumentType documentType = DocumentType.valueOf(elements[DOCUMENT_TYPE_INDEX].toUpperCase().trim());
-            int accessCount = Integer.parseInt(elements[ACCESS_COUNT_INDEX].trim());
-            Set<Tag> documentTags = new HashSet<>();
-
-            for (int i = TAGS_STARTING_INDEX; i < elements.length; i++) {
-                String tagEntry = elements[i];
-                if (tagEntry.contains(TAG_IDENTIFIER_VALUE_SEPARATOR)) {
-                    String[] multivaluedTagElements = tagEntry.split(TAG_IDENTIFIER_VALUE_SEPARATOR);
-                    String tagIdentifier = multivaluedTagElements[TAG_IDENTIFIER_INDEX];
-                    String tagValue = multivaluedTagElements[TAG_VALUE_INDEX];
-
-                    documentTags.add(new MultivaluedTag(tagIdentifier, tagValue));
-                } else {
-                    documentTags.add(new BinaryTag(tagEntry));
-                }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
             }
 
-            Document newDocument = documentFactory.createDocument(identifier, documentType, accessCount, documentTags);
+            Document newDocument = parseDocument(document);
             if (newDocument.causesConflict()) {
-                return false;
+                return CONFLICTING_INPUT_FILE;
             }
             documentList.add(newDocument);
         }
-        inputFiles.put(idCounter, documentList);
-        idCounter++;
+
+        int entryId;
+        long sequence = NO_SEQUENCE;
+        synchronized (this) {
+            // A cancellation after the last document was parsed still discards the loading, as nothing was added yet
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            entryId = idCounter;
+            if (journal != null) {
+                sequence = journal.logLoad(entryId, documentsList);
+            }
+            InputFile inputFile = new InputFile(documentList);
+            inputFiles.put(entryId, inputFile);
+            makeResident(entryId, inputFile);
+            idCounter++;
+        }
+        awaitDurable(entryId, sequence);
+        return entryId;
+    }
+
+    /**
+     * Replaces the documents of an input file with those of a new version of it, in place. The documents of unchanged
+     * lines are kept as they are, with the access counts they were changed to, and only the other lines are parsed.
+     * The cached structuring is outdated, but the next structuring takes over its subtrees where the documents did not
+     * change. With a journal, the replacement is written as one record of the kept ranges and the new lines.
+     *
+     * @param entryId       entry ID
+     * @param lines         the lines of the new version, which must already have been checked; the lines of kept
+     *                      documents are not read and may be {@code null}
+     * @param keptPositions for every line, the position of the document of the current version it keeps, or
+     *                      {@link #NEW_DOCUMENT}
+     * @return true if the documents were replaced, false if a new document causes a conflict or the input file was
+     *         unloaded meanwhile
+     * @throws IOException if the replacement could not be written to the journal
+     * @throws UnconfirmedWriteException if the replacement was applied, but could not be confirmed as durable
+     */
+    public boolean reloadDocuments(int entryId, List<String> lines, int[] keptPositions) throws IOException {
+        Map<Integer, Document> newDocuments = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (keptPositions[i] == NEW_DOCUMENT) {
+                Document newDocument = parseDocument(lines.get(i));
+                if (newDocument.causesConflict()) {
+                    return false;
+                }
+                newDocuments.put(i, newDocument);
+            }
+        }
+
+        long sequence = NO_SEQUENCE;
+        synchronized (this) {
+            if (entryDoesNotExist(entryId)) {
+                return false;
+            }
+            List<Document> currentDocuments = getSpecificInputFile(entryId);
+            List<Document> documentList = new ArrayList<>(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                documentList.add(keptPositions[i] == NEW_DOCUMENT
+                        ? newDocuments.get(i)
+                        : currentDocuments.get(keptPositions[i]));
+            }
+            if (journal != null) {
+                sequence = journal.logReload(entryId, lines, keptPositions);
+            }
+            InputFile inputFile = inputFiles.get(entryId);
+            residentFootprint -= inputFile.getFootprint();
+            inputFile.replaceDocuments(documentList);
+            residentFootprint += inputFile.getFootprint();
+            enforceMemoryBudget(entryId);
+        }
+        awaitDurable(entryId, sequence);
+        return true;
+    }
+
+    /**
+     * Creates the document of a line of an input file, with its special tags handled. The document is not added to
+     * the system; whether it causes a conflict is left to the caller.
+     *
+     * @param document the line of the input file, which must already have been checked
+     * @return the document of the line
+     */
+    public Document parseDocument(String document) {
+        String[] elements = document.split(DOCUMENTS_ELEMENTS_SEPARATOR);
+        String identifier = elements[DOCUMENT_IDENTIFIER_INDEX];
+        DocumentType documentType = DocumentType.valueOf(elements[DOCUMENT_TYPE_INDEX].toUpperCase().trim());
+        int accessCount = Integer.parseInt(elements[ACCESS_COUNT_INDEX].trim());
+        Set<Tag> documentTags = new HashSet<>();
+
+        for (int i = TAGS_STARTING_INDEX; i < elements.length; i++) {
+            String tagEntry = elements[i];
+            if (tagEntry.contains(TAG_IDENTIFIER_VALUE_SEPARATOR)) {
+                String[] multivaluedTagElements = tagEntry.split(TAG_IDENTIFIER_VALUE_SEPARATOR);
+                String tagIdentifier = multivaluedTagElements[TAG_IDENTIFIER_INDEX];
+                String tagValue = multivaluedTagElements[TAG_VALUE_INDEX];
+
+                documentTags.add(new MultivaluedTag(tagIdentifier, tagValue));
+            } else {
+                documentTags.add(new BinaryTag(tagEntry));
+            }
+        }
+
+        return documentFactory.createDocument(identifier, documentType, accessCount, documentTags);
+    }
+
+    /**
+     * Removes the input file with given entry ID from the system.
+     *
+     * @param entryId entry ID
+     * @return true if the input file was removed, false if it does not exist
+     * @throws IOException if the removal could not be written to the journal
+     * @throws UnconfirmedWriteException if the removal was applied, but could not be confirmed as durable
+     */
+    public boolean unloadInputFile(int entryId) throws IOException {
+        long sequence = NO_SEQUENCE;
+        synchronized (this) {
+            if (entryDoesNotExist(entryId)) {
+                return false;
+            }
+            if (journal != null) {
+                sequence = journal.logUnload(entryId);
+            }
+            InputFile inputFile = inputFiles.remove(entryId);
+            if (residentInputFiles.remove(entryId) != null) {
+                residentFootprint -= inputFile.getFootprint();
+            }
+            if (spillStore != null) {
+                spillStore.delete(entryId);
+            }
+        }
+        awaitDurable(entryId, sequence);
         return true;
     }
 
+    /**
+     * Changes the access count of a document. With a journal, the change is written before it is applied and is
+     * durable once this method returns.
+     *
+     * @param entryId        entry ID of the document
+     * @param document       the document to change
+     * @param newAccessCount the new access count of the document
+     * @return true if the access count was changed, false if the input file was unloaded or the document was removed
+     *         meanwhile
+     * @throws IOException if the change could not be written to the journal
+     * @throws UnconfirmedWriteException if the change was applied, but could not be confirmed as durable
+     */
+    public boolean changeAccessCount(int entryId, Document document, int newAccessCount) throws IOException {
+        long sequence = NO_SEQUENCE;
+        synchronized (this) {
+            if (entryDoesNotExist(entryId)) {
+                return false;
+            }
+            // The input file may have been spilled and restored, or reloaded without the document, since it was found
+            Document currentDocument = findDocument(entryId, document.getIdentifier());
+            if (currentDocument == null) {
+                return false;
+            }
+            if (journal != null) {
+                sequence = journal.logChange(entryId, currentDocument.getIdentifier(), newAccessCount);
+            }
+            currentDocument.setAccessCount(newAccessCount);
+            inputFiles.get(entryId).updateAccessRanking(currentDocument.getIdentifier());
+            inputFiles.get(entryId).markModified();
+        }
+        awaitDurable(entryId, sequence);
+        return true;
+    }
+
+    /**
+     * Changes the access counts of several documents of an input file at once. With a journal, all changes are
+     * written in a single record before any of them is applied and are durable once this method returns.
+     *
+     * @param entryId         entry ID of the documents
+     * @param documents       the documents to change
+     * @param newAccessCounts the new access counts, in the order of the documents
+     * @return true if the access counts were changed, false if the input file was unloaded or one of the documents
+     *         was removed meanwhile
+     * @throws IOException if the changes could not be written to the journal
+     * @throws UnconfirmedWriteException if the changes were applied, but could not be confirmed as durable
+     */
+    public boolean changeAccessCounts(int entryId, List<Document> documents, int[] newAccessCounts)
+            throws IOException {
+        long sequence = NO_SEQUENCE;
+        synchronized (this) {
+            if (entryDoesNotExist(entryId)) {
+                return false;
+            }
+            List<Document> currentDocuments = new ArrayList<>();
+            for (Document document : documents) {
+                Document currentDocument = findDocument(entryId, document.getIdentifier());
+                if (currentDocument == null) {
+                    return false;
+                }
+                currentDocuments.add(currentDocument);
+            }
+            if (journal != null) {
+                sequence = journal.logChanges(entryId, currentDocuments, newAccessCounts);
+            }
+            for (int i = 0; i < currentDocuments.size(); i++) {
+                currentDocuments.get(i).setAccessCount(newAccessCounts[i]);
+                inputFiles.get(entryId).updateAccessRanking(currentDocuments.get(i).getIdentifier());
+            }
+            inputFiles.get(entryId).markModified();
+        }
+        awaitDurable(entryId, sequence);
+        return true;
+    }
+
+    /**
+     * Replaces all input files with the given ones, which were restored from a snapshot.
+     *
+     * @param restoredInputFiles the restored input files by their entry ID
+     * @param restoredIdCounter  the ID counter at the time of the snapshot
+     */
+    public synchronized void restoreInputFiles(Map<Integer, List<Document>> restoredInputFiles, int restoredIdCounter) {
+        inputFiles.clear();
+        residentInputFiles.clear();
+        residentFootprint = 0;
+        for (Map.Entry<Integer, List<Document>> restoredInputFile : restoredInputFiles.entrySet()) {
+            InputFile inputFile = new InputFile(restoredInputFile.getValue());
+            inputFiles.put(restoredInputFile.getKey(), inputFile);
+            makeResident(restoredInputFile.getKey(), inputFile);
+        }
+        idCounter = restoredIdCounter;
+    }
+
+    /**
+     * Limits the estimated heap footprint of the loaded documents. Once the budget is exceeded, the least recently
+     * used input files are spilled to the given store until they are used again.
+     *
+     * @param budget     the memory budget in bytes
+     * @param spillStore the store that keeps the spilled input files
+     */
+    public synchronized void setMemoryBudget(long budget, SpillStore spillStore) {
+        this.memoryBudget = budget;
+        this.spillStore = spillStore;
+        enforceMemoryBudget(null);
+    }
+
+    /**
+     * Returns the limit of the estimated heap footprint of the loaded documents.
+     *
+     * @return the memory budget in bytes, {@link Long#MAX_VALUE} if there is no limit
+     */
+    public synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Sets the journal that makes all further modifications durable.
+     *
+     * @param journal the journal, or {@code null} to keep modifications in memory only
+     */
+    public synchronized void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Checkpoints and closes the journal, if there is one.
+     *
+     * @throws IOException if the journal could not be checkpointed or closed
+     */
+    public synchronized void closeJournal() throws IOException {
+        if (journal != null) {
+            try (Journal closedJournal = journal) {
+                closedJournal.checkpoint(this);
+            } finally {
+                journal = null;
+            }
+        }
+    }
 
     /**
      * Returns the ID counter of the entries.
      *
      * @return the ID counter
      */
-    public int getIdCounter() {
+    public synchronized int getIdCounter() {
         return idCounter;
     }
 
@@ -97,7 +381,7 @@ public int getIdCounter() {
      * @param entryId entry ID
      * @return true if an entry with given entry ID was found, false otherwise
      */
-    public boolean entryDoesNotExist(int entryId) {
+    public synchronized boolean entryDoesNotExist(int entryId) {
         return !inputFiles.containsKey(entryId);
     }
 
@@ -106,35 +390,246 @@ public boolean entryDoesNotExist(int entryId) {
      *
      * @param entryId            entry ID of the needed document
      * @param documentIdentifier identifier of the needed document
-     * @return the needed document with given entry ID and document identifier
+     * @return the needed document with given entry ID and document identifier, or null if no input file has the entry
+     * ID or the input file has no such document
      */
-    public Document findDocument(int entryId, String documentIdentifier) {
-        List<Document> documentsEntry = inputFiles.get(entryId);
+    public synchronized Document findDocument(int entryId, String documentIdentifier) {
+        if (getSpecificInputFile(entryId) == null) {
+            return null;
+        }
+        return inputFiles.get(entryId).findDocument(documentIdentifier);
+    }
 
-        for (Document neededDocument : documentsEntry) {
-            if (neededDocument.getIdentifier().equals(documentIdentifier)) {
-                return neededDocument;
+    /**
+     * Finds the documents of the input file with given entry ID that match a query, through the inverted index of the
+     * input file. The index is built on first use and kept until the documents are replaced or spilled.
+     *
+     * @param entryId entry ID
+     * @param query   the query
+     * @return the matching documents in the order of the input file, or null if no input file has the entry ID
+     */
+    public synchronized List<Document> queryDocuments(int entryId, TagQuery query) {
+        List<Document> documents = getSpecificInputFile(entryId);
+        if (documents == null) {
+            return null;
+        }
+        int[] positions = inputFiles.get(entryId).getInvertedIndex().query(query);
+        List<Document> matchingDocuments = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            matchingDocuments.add(documents.get(position));
+        }
+        return matchingDocuments;
+    }
+
+    /**
+     * Finds the most accessed documents of the input file with given entry ID, through the access ranking of the input
+     * file. The ranking is built on first use and kept up to date by changes of access counts.
+     *
+     * @param entryId entry ID
+     * @param limit   the maximum number of documents to find
+     * @param query   the query the documents have to match, or {@code null} to consider all documents
+     * @return the found documents, most accessed first, or null if no input file has the entry ID
+     */
+    public synchronized List<Document> findTopDocuments(int entryId, int limit, TagQuery query) {
+        List<Document> documents = getSpecificInputFile(entryId);
+        if (documents == null) {
+            return null;
+        }
+        InputFile inputFile = inputFiles.get(entryId);
+        int[] positions = query == null
+                ? inputFile.getAccessRanking().top(limit)
+                : inputFile.getAccessRanking().top(limit, inputFile.getInvertedIndex().query(query));
+        List<Document> topDocuments = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            topDocuments.add(documents.get(position));
+        }
+        return topDocuments;
+    }
+
+    /**
+     * Returns the automatic structuring of the input file with given entry ID. The structuring is cached until the
+     * documents of the input file are modified.
+     *
+     * @param entryId entry ID
+     * @return the automatic structuring of the input file, or null if no input file has the entry ID
+     */
+    public AutomaticStructuring getStructuring(int entryId) {
+        return getStructuring(entryId, StructuringOptions.DEFAULT);
+    }
+
+    /**
+     * Returns the automatic structuring of the input file with given entry ID and options. A cached complete
+     * structuring is returned regardless of a deadline or a sample size, while a truncated or sampled one is never
+     * cached. Options that change the tree neither use nor replace the cached structuring. Without another previous
+     * structuring, the structuring starts from the outdated one of a reloaded input file.
+     *
+     * @param entryId entry ID
+     * @param options the options of the structuring
+     * @return the automatic structuring of the input file, or null if no input file has the entry ID
+     */
+    public AutomaticStructuring getStructuring(int entryId, StructuringOptions options) {
+        InputFile inputFile;
+        List<Document> documents;
+        long modificationCount;
+        StructuringOptions structuringOptions = options;
+        synchronized (this) {
+            documents = getSpecificInputFile(entryId);
+            if (documents == null) {
+                return null;
+            }
+            inputFile = inputFiles.get(entryId);
+            if (inputFile.getStructuring() != null && !options.changesTree()) {
+                return inputFile.getStructuring();
+            }
+            modificationCount = inputFile.getModificationCount();
+            if (options.getPreviousStructuring() == null && inputFile.getOutdatedStructuring() != null) {
+                structuringOptions = options.withPreviousStructuring(inputFile.getOutdatedStructuring());
+            }
+        }
+
+        AutomaticStructuring structuring = new AutomaticStructuring(documents, structuringOptions);
+        if (structuring.isTruncated() || structuring.isSampled() || options.changesTree()) {
+            return structuring;
+        }
+        synchronized (this) {
+            if (inputFiles.get(entryId) == inputFile && inputFile.getModificationCount() == modificationCount) {
+                inputFile.setStructuring(structuring);
             }
         }
-        return null;
+        return structuring;
     }
 
     /**
-     * Returns the map containing all input files loaded into the system.
+     * Returns the estimated number of bytes the documents of the input file with given entry ID occupy on the heap,
+     * whether they are resident or spilled.
      *
-     * @return the map containing all input files loaded into the system
+     * @param entryId entry ID
+     * @return the estimated footprint in bytes, zero if no input file has the entry ID
+     */
+    public synchronized long getFootprint(int entryId) {
+        InputFile inputFile = inputFiles.get(entryId);
+        return inputFile == null ? 0 : inputFile.getFootprint();
+    }
+
+    /**
+     * Returns the cached structuring of the input file with given entry ID, without structuring it.
+     *
+     * @param entryId entry ID
+     * @return the cached complete structuring, or null if the input file was not structured since its last change or
+     * no input file has the entry ID
      */
-    public Map<Integer, List<Document>> getInputFiles() {
-        return new HashMap<>(inputFiles);
+    public synchronized AutomaticStructuring getCachedStructuring(int entryId) {
+        if (getSpecificInputFile(entryId) == null) {
+            return null;
+        }
+        return inputFiles.get(entryId).getStructuring();
     }
 
     /**
-     * Returns the list of documents of the input file with given entry ID.
+     * Returns the materializer that laid out the input file with given entry ID last.
      *
      * @param entryId entry ID
-     * @return the list of documents of the input file with given entry ID
+     * @return the materializer, or null if the input file was not materialized
      */
-    public List<Document> getSpecificInputFile(int entryId) {
-        return this.inputFiles.get(entryId);
+    public synchronized Materializer getMaterializer(int entryId) {
+        InputFile inputFile = inputFiles.get(entryId);
+        return inputFile == null ? null : inputFile.getMaterializer();
+    }
+
+    /**
+     * Remembers the materializer that laid out the input file with given entry ID last, unless the input file was
+     * unloaded meanwhile.
+     *
+     * @param entryId      entry ID
+     * @param materializer the materializer
+     */
+    public synchronized void setMaterializer(int entryId, Materializer materializer) {
+        InputFile inputFile = inputFiles.get(entryId);
+        if (inputFile != null) {
+            inputFile.setMaterializer(materializer);
+        }
+    }
+
+    /**
+     * Returns the entry IDs of all input files loaded into the system in ascending order.
+     *
+     * @return the entry IDs of all loaded input files
+     */
+    public synchronized List<Integer> getEntryIds() {
+        return inputFiles.keySet().stream().sorted().toList();
+    }
+
+    /**
+     * Returns the list of documents of the input file with given entry ID. A spilled input file is read back from the
+     * disk first.
+     *
+     * @param entryId entry ID
+     * @return the list of documents of the input file with given entry ID, or null if no input file has the entry ID,
+     * for example because it was unloaded after the caller checked it
+     * @throws UncheckedIOException if the spilled input file could not be read
+     */
+    public synchronized List<Document> getSpecificInputFile(int entryId) {
+        InputFile inputFile = this.inputFiles.get(entryId);
+        if (inputFile == null) {
+            return null;
+        }
+        if (!inputFile.isResident()) {
+            try {
+                inputFile.restore(spillStore.read(entryId));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        makeResident(entryId, inputFile);
+        return inputFile.getDocuments();
+    }
+
+    private void awaitDurable(int entryId, long sequence) throws UnconfirmedWriteException {
+        Journal currentJournal;
+        synchronized (this) {
+            currentJournal = journal;
+        }
+        if (sequence != NO_SEQUENCE && currentJournal != null) {
+            try {
+                currentJournal.awaitDurable(sequence);
+            } catch (IOException e) {
+                // The modification is applied already, so it cannot be reported as not written
+                throw new UnconfirmedWriteException(entryId, e);
+            }
+        }
+    }
+
+    private void makeResident(int entryId, InputFile inputFile) {
+        if (residentInputFiles.put(entryId, inputFile) == null) {
+            residentFootprint += inputFile.getFootprint();
+            enforceMemoryBudget(entryId);
+        }
+    }
+
+    private void enforceMemoryBudget(Integer usedEntryId) {
+        if (spillStore == null) {
+            return;
+        }
+
+        Iterator<Map.Entry<Integer, InputFile>> leastRecentlyUsed = residentInputFiles.entrySet().iterator();
+        while (residentFootprint > memoryBudget && leastRecentlyUsed.hasNext()) {
+            Map.Entry<Integer, InputFile> idleInputFile = leastRecentlyUsed.next();
+            if (idleInputFile.getKey().equals(usedEntryId)) {
+                continue;
+            }
+
+            InputFile inputFile = idleInputFile.getValue();
+            if (!inputFile.hasCurrentSpilledCopy()) {
+                try {
+                    spillStore.write(idleInputFile.getKey(), inputFile.getDocuments());
+                } catch (IOException e) {
+                    // The input file stays resident, the budget is exceeded until the next attempt
+                    return;
+                }
+            }
+            residentFootprint -= inputFile.getFootprint();
+            inputFile.spill();
+            leastRecentlyUsed.remove();
+        }
     }
 }
@@ -0,0 +1,249 @@
+package filesystemorganization.model;
+
+import filesystemorganization.model.document.Document;
+import filesystemorganization.model.document.IdentifierTrie;
+import filesystemorganization.model.documentorganization.AutomaticStructuring;
+import filesystemorganization.model.documentorganization.Materializer;
+import filesystemorganization.model.query.AccessRanking;
+import filesystemorganization.model.query.InvertedIndex;
+
+import java.util.List;
+
+/**
+ * This class represents a loaded input file. Its documents are either resident on the heap, or spilled to the disk
+ * while the input file is idle.
+ *
+ * @author ujxbs
+ */
+final class InputFile {
+
+    private static final long LIST_FOOTPRINT = 40;
+    private static final long LIST_ELEMENT_FOOTPRINT = 8;
+    private static final int NO_POSITION = -1;
+    private List<Document> documents;
+    private long footprint;
+    private boolean spilledCopyCurrent = false;
+    private long modificationCount = 0;
+    private final IdentifierTrie identifiers = new IdentifierTrie();
+    private boolean documentsIndexed = false;
+    private InvertedIndex invertedIndex;
+    private AccessRanking accessRanking;
+    private AutomaticStructuring structuring;
+    private AutomaticStructuring outdatedStructuring;
+    private Materializer materializer;
+
+    /**
+     * Constructs a resident input file.
+     *
+     * @param documents the documents of the input file
+     */
+    InputFile(List<Document> documents) {
+        restore(documents);
+    }
+
+    /**
+     * Checks if the documents of the input file are on the heap.
+     *
+     * @return true if the documents are on the heap, false if they are spilled to the disk
+     */
+    boolean isResident() {
+        return documents != null;
+    }
+
+    /**
+     * Returns the documents of the resident input file.
+     *
+     * @return the documents, or {@code null} if the input file is spilled
+     */
+    List<Document> getDocuments() {
+        return documents;
+    }
+
+    /**
+     * Finds the document with given identifier through the identifier trie, whose positions are indexed on first use.
+     * Like a scan of the documents, the first document with the identifier is found.
+     *
+     * @param documentIdentifier the identifier of the document
+     * @return the document, or {@code null} if there is none with the identifier
+     */
+    Document findDocument(String documentIdentifier) {
+        int position = findPosition(documentIdentifier);
+        return position == NO_POSITION ? null : documents.get(position);
+    }
+
+    private int findPosition(String documentIdentifier) {
+        if (!documentsIndexed) {
+            identifiers.index(documents);
+            documentsIndexed = true;
+        }
+        return identifiers.find(documentIdentifier);
+    }
+
+    /**
+     * Returns the inverted index of the tags and types of the documents, which is built on first use. Access counts
+     * are not indexed, so the index stays valid when they change.
+     *
+     * @return the inverted index of the documents
+     */
+    InvertedIndex getInvertedIndex() {
+        if (invertedIndex == null) {
+            invertedIndex = new InvertedIndex(documents);
+        }
+        return invertedIndex;
+    }
+
+    /**
+     * Returns the ranking of the documents by their access counts, which is built on first use and kept up to date
+     * by {@link #updateAccessRanking(String)} afterwards.
+     *
+     * @return the access ranking of the documents
+     */
+    AccessRanking getAccessRanking() {
+        if (accessRanking == null) {
+            accessRanking = new AccessRanking(documents);
+        }
+        return accessRanking;
+    }
+
+    /**
+     * Moves a document within the access ranking after its access count was changed, if the ranking was built.
+     *
+     * @param documentIdentifier the identifier of the changed document
+     */
+    void updateAccessRanking(String documentIdentifier) {
+        if (accessRanking != null) {
+            accessRanking.update(findPosition(documentIdentifier));
+        }
+    }
+
+    /**
+     * Returns the cached structuring of the documents.
+     *
+     * @return the cached structuring, or {@code null} if there is none
+     */
+    AutomaticStructuring getStructuring() {
+        return structuring;
+    }
+
+    /**
+     * Caches the structuring of the documents until they are modified.
+     *
+     * @param structuring the structuring of the current documents
+     */
+    void setStructuring(AutomaticStructuring structuring) {
+        this.structuring = structuring;
+        this.outdatedStructuring = null;
+    }
+
+    /**
+     * Returns the last complete structuring from before the documents were replaced, whose subtrees may be taken over
+     * by the next structuring where the documents did not change.
+     *
+     * @return the outdated structuring, or {@code null} if there is none
+     */
+    AutomaticStructuring getOutdatedStructuring() {
+        return outdatedStructuring;
+    }
+
+    /**
+     * Returns the materializer that laid out the documents last.
+     *
+     * @return the materializer, or {@code null} if the documents were not materialized
+     */
+    Materializer getMaterializer() {
+        return materializer;
+    }
+
+    /**
+     * Remembers the materializer that laid out the documents last. Unlike the cached structuring, it is kept when the
+     * documents are modified, as their layout on the disk stays the same.
+     *
+     * @param materializer the materializer
+     */
+    void setMaterializer(Materializer materializer) {
+        this.materializer = materializer;
+    }
+
+    /**
+     * Returns the estimated number of bytes the resident documents occupy on the heap.
+     *
+     * @return the estimated footprint in bytes
+     */
+    long getFootprint() {
+        return footprint;
+    }
+
+    /**
+     * Checks if the spilled copy on the disk still matches the documents, so spilling them again needs no writing.
+     *
+     * @return true if the spilled copy is current, false otherwise
+     */
+    boolean hasCurrentSpilledCopy() {
+        return spilledCopyCurrent;
+    }
+
+    /**
+     * Returns how often the documents were modified, to tell if a structuring computed meanwhile is still current.
+     *
+     * @return the number of modifications
+     */
+    long getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Marks the documents as modified, so that a spilled copy of them is outdated.
+     */
+    void markModified() {
+        modificationCount++;
+        spilledCopyCurrent = false;
+        structuring = null;
+    }
+
+    /**
+     * Replaces the documents with a new version of them. The cached structuring is kept as outdated structuring,
+     * unless an older one is kept already.
+     *
+     * @param newDocuments the new documents of the input file
+     */
+    void replaceDocuments(List<Document> newDocuments) {
+        if (structuring != null) {
+            outdatedStructuring = structuring;
+        }
+        markModified();
+        documentsIndexed = false;
+        invertedIndex = null;
+        accessRanking = null;
+        restore(newDocuments);
+        identifiers.prune(newDocuments);
+    }
+
+    /**
+     * Drops the documents from the heap after they were written to the disk.
+     */
+    void spill() {
+        documents = null;
+        identifiers.clearIndex();
+        documentsIndexed = false;
+        invertedIndex = null;
+        accessRanking = null;
+        structuring = null;
+        outdatedStructuring = null;
+        spilledCopyCurrent = true;
+    }
+
+    /**
+     * Makes the given documents resident again. Their identifiers are added to the identifier trie of the input
+     * file, which the documents of all its versions share.
+     *
+     * @param restoredDocuments the documents of the input file
+     */
+    void restore(List<Document> restoredDocuments) {
+        identifiers.add(restoredDocuments);
+        this.documents = restoredDocuments;
+        this.footprint = LIST_FOOTPRINT;
+        for (Document document : restoredDocuments) {
+            this.footprint += LIST_ELEMENT_FOOTPRINT + document.estimateFootprint();
+        }
+    }
+}
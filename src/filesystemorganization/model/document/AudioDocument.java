@@ -34,6 +34,11 @@ protected AudioDocument(String identifier, int accessCount, Set<Tag> documentsTa
         handleSpecialTags();
     }
 
+    @Override
+    public DocumentType getDocumentType() {
+        return DocumentType.AUDIO;
+    }
+
     @Override
     public void handleSpecialTags() {
         for (Tag tag : getDocumentsTags()) {
@@ -45,6 +50,7 @@ public void handleSpecialTags() {
                     return;
                 }
 
+                keepRawValue(tag.getIdentifier(), lengthValue);
                 tag.setIdentifier(TAG_IDENTIFIER_AUDIO_LENGTH);
 
                 if (lengthValue < SAMPLE_LENGTH_LIMIT) {
@@ -1,9 +1,10 @@
 package filesystemorganization.model.document;
 
-import filesystemorganization.model.tag.MultivaluedTag;
 import filesystemorganization.model.tag.Tag;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -16,10 +17,17 @@ public abstract class Document {
     protected static final String NUMERIC_VALUE_PATTERN = "^-?\\d+$";
     private static final String TAG_VALUE_UNDEFINED = "undefined";
     private static final String TAG_VALUE_EXPLICIT_UNDEFINED = "explicitUndefined!";
+    private static final long DOCUMENT_FOOTPRINT = 32;
+    private static final long STRING_FOOTPRINT = 40;
+    private static final long TAG_SET_FOOTPRINT = 64;
+    private static final long TAG_FOOTPRINT = 24 + 48;
     private final String identifier;
+    private IdentifierTrie.Directory directory;
     private final Set<Tag> documentsTags;
-    private int accessCount;
+    private volatile int accessCount;
     private boolean conflictExists = false;
+    private String rawTagIdentifier;
+    private int rawTagValue;
 
     /**
      * Constructs a document with document identifier, access count and tags.
@@ -40,6 +48,13 @@ protected Document(String identifier, int accessCount, Set<Tag> documentsTags) {
      */
     protected abstract void handleSpecialTags();
 
+    /**
+     * Returns the type of the document.
+     *
+     * @return the type of the document
+     */
+    public abstract DocumentType getDocumentType();
+
     /**
      * Checks if a tag with given tag identifier exists.
      *
@@ -56,20 +71,16 @@ protected boolean tagExists(String tagIdentifier) {
     }
 
     /**
-     * Returns the value of the tag with the given identifier. If the tag doesn't exist, adds the tag with
-     * the tag value "undefined" to the document's tags list.
+     * Returns the value of the tag with the given identifier. If the tag doesn't exist, its value is "undefined".
+     * The document is not modified, so several structurings may read it at once.
      *
      * @param tagIdentifier the identifier of the tag
      * @return the value of the tag with the given identifier
      */
     public String getTagValue(String tagIdentifier) {
-        if (!tagExists(tagIdentifier)) {
-            documentsTags.add(new MultivaluedTag(tagIdentifier, TAG_VALUE_UNDEFINED));
-        } else {
-            for (Tag tag : this.documentsTags) {
-                if (tag.getIdentifier().equalsIgnoreCase(tagIdentifier)) {
-                    return tag.getValue();
-                }
+        for (Tag tag : this.documentsTags) {
+            if (tag.getIdentifier().equalsIgnoreCase(tagIdentifier)) {
+                return tag.getValue();
             }
         }
         return TAG_VALUE_UNDEFINED;
@@ -100,6 +111,33 @@ public String getIdentifier() {
         return identifier;
     }
 
+    /**
+     * Sets the directory of the document in an {@link IdentifierTrie}.
+     *
+     * @param directory the directory of the document
+     */
+    void setDirectory(IdentifierTrie.Directory directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the directory of the document in an {@link IdentifierTrie}.
+     *
+     * @return the directory, or {@code null} if the identifier was not added to a trie
+     */
+    IdentifierTrie.Directory getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the index of the name of the document in its identifier, after the path of its directory.
+     *
+     * @return the index of the name, zero if the identifier was not added to a trie
+     */
+    int getNameIndex() {
+        return directory == null ? 0 : directory.getPath().length();
+    }
+
     /**
      * Returns the access count of the document.
      *
@@ -136,6 +174,58 @@ protected void addTag(Tag newTag) {
         documentsTags.add(newTag);
     }
 
+    /**
+     * Keeps the numeric value of a special tag before the handling replaces it by its category.
+     *
+     * @param tagIdentifier the identifier of the tag before the handling
+     * @param value         the numeric value of the tag
+     */
+    protected void keepRawValue(String tagIdentifier, int value) {
+        this.rawTagIdentifier = tagIdentifier;
+        this.rawTagValue = value;
+    }
+
+    /**
+     * Returns the numeric values of the tags as they were given, by their tag identifiers. Besides the tags whose
+     * value is numeric, this includes the special tag whose numeric value was replaced by its category.
+     *
+     * @return the numeric values of the tags by their identifiers
+     */
+    public Map<String, Long> getNumericTagValues() {
+        Map<String, Long> numericTagValues = new HashMap<>();
+        for (Tag tag : this.documentsTags) {
+            if (tag.getValue().matches(NUMERIC_VALUE_PATTERN)) {
+                try {
+                    numericTagValues.put(tag.getIdentifier(), Long.parseLong(tag.getValue()));
+                } catch (NumberFormatException e) {
+                    // A value beyond the range of long is kept as a string only
+                }
+            }
+        }
+        if (rawTagIdentifier != null) {
+            numericTagValues.put(rawTagIdentifier, (long) rawTagValue);
+        }
+        return numericTagValues;
+    }
+
+    /**
+     * Returns the identifier of the special tag whose numeric value was replaced by its category.
+     *
+     * @return the identifier of the tag before the handling, or {@code null} if no value was replaced
+     */
+    String getRawTagIdentifier() {
+        return rawTagIdentifier;
+    }
+
+    /**
+     * Returns the numeric value of the special tag that was replaced by its category.
+     *
+     * @return the replaced numeric value
+     */
+    int getRawTagValue() {
+        return rawTagValue;
+    }
+
     /**
      * Returns the tag identifiers of all the tags that exist in the document.
      *
@@ -149,6 +239,33 @@ public Set<String> getTagIdentifiers() {
         return tagIdentifiers;
     }
 
+    /**
+     * Replaces all tags of the document with the given, already handled tags. Used when a document is restored from
+     * its persisted form, where the special tags were handled before it was written.
+     *
+     * @param restoredTags the tags the document had when it was persisted
+     */
+    void restoreTags(Set<Tag> restoredTags) {
+        documentsTags.clear();
+        documentsTags.addAll(restoredTags);
+    }
+
+    /**
+     * Estimates the number of bytes the document occupies on the heap, including its identifier and tags.
+     *
+     * @return the estimated footprint of the document in bytes
+     */
+    public long estimateFootprint() {
+        long footprint = DOCUMENT_FOOTPRINT + STRING_FOOTPRINT + identifier.length() + TAG_SET_FOOTPRINT;
+        for (Tag tag : this.documentsTags) {
+            footprint += TAG_FOOTPRINT + 2 * STRING_FOOTPRINT + tag.getIdentifier().length() + tag.getValue().length();
+        }
+        if (rawTagIdentifier != null) {
+            footprint += STRING_FOOTPRINT + rawTagIdentifier.length();
+        }
+        return footprint;
+    }
+
     private void setExplicitUndefinedTags() {
         for (Tag tag : documentsTags) {
             if (tag.getValue().equalsIgnoreCase(TAG_VALUE_UNDEFINED)) {
@@ -165,11 +282,6 @@ private void setExplicitUndefinedTags() {
      * @return true if a tag's value with the given tag identifier in the document is same with given tag value, false otherwise
      */
     public boolean containsTagWithValue(String tagIdentifier, String tagValue) {
-        for (Tag tag : this.documentsTags) {
-            if (tag.getIdentifier().equalsIgnoreCase(tagIdentifier) && tag.getValue().equals(tagValue)) {
-                return true;
-            }
-        }
-        return false;
+        return getTagValue(tagIdentifier).equals(tagValue);
     }
 }
@@ -2,6 +2,7 @@
 
 import filesystemorganization.model.tag.Tag;
 
+import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -42,4 +43,21 @@ public Document createDocument(String identifier, DocumentType documentType, int
             }
         }
     }
+
+    /**
+     * Restores a persisted document. Unlike {@link #createDocument}, the given tags are taken as they are, since the
+     * special tags of a persisted document were already handled when it was first created.
+     *
+     * @param identifier   the identifier of the document
+     * @param documentType the type of the document
+     * @param accessCount  the accessCount of the document
+     * @param documentTags the already handled tags of the document
+     * @return a document instance of the specified type
+     */
+    public Document restoreDocument(String identifier, DocumentType documentType, int accessCount,
+                                    Set<Tag> documentTags) {
+        Document document = createDocument(identifier, documentType, accessCount, new HashSet<>());
+        document.restoreTags(documentTags);
+        return document;
+    }
 }
@@ -0,0 +1,84 @@
+package filesystemorganization.model.document;
+
+import filesystemorganization.model.tag.BinaryTag;
+import filesystemorganization.model.tag.MultivaluedTag;
+import filesystemorganization.model.tag.Tag;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This class writes documents to and reads them from a compact binary form. The tags are written after their special
+ * handling, together with the numeric value the handling replaced, so a read document is restored exactly as it was
+ * written.
+ *
+ * @author ujxbs
+ */
+public class DocumentSerializer {
+
+    private static final DocumentType[] DOCUMENT_TYPES = DocumentType.values();
+    private final DocumentFactory documentFactory = new DocumentFactory();
+
+    /**
+     * Writes a document to the given output.
+     *
+     * @param output   the output to write to
+     * @param document the document to write
+     * @throws IOException if the document could not be written
+     */
+    public void write(DataOutput output, Document document) throws IOException {
+        output.writeUTF(document.getIdentifier());
+        output.writeByte(document.getDocumentType().ordinal());
+        output.writeInt(document.getAccessCount());
+
+        Set<Tag> tags = document.getDocumentsTags();
+        output.writeInt(tags.size());
+        for (Tag tag : tags) {
+            boolean binary = tag instanceof BinaryTag;
+            output.writeBoolean(binary);
+            output.writeUTF(tag.getIdentifier());
+            if (!binary) {
+                output.writeUTF(tag.getValue());
+            }
+        }
+        String rawTagIdentifier = document.getRawTagIdentifier();
+        output.writeBoolean(rawTagIdentifier != null);
+        if (rawTagIdentifier != null) {
+            output.writeUTF(rawTagIdentifier);
+            output.writeInt(document.getRawTagValue());
+        }
+    }
+
+    /**
+     * Reads a document from the given input.
+     *
+     * @param input the input to read from
+     * @return the read document
+     * @throws IOException if the document could not be read
+     */
+    public Document read(DataInput input) throws IOException {
+        String identifier = input.readUTF();
+        DocumentType documentType = DOCUMENT_TYPES[input.readByte()];
+        int accessCount = input.readInt();
+
+        int numberOfTags = input.readInt();
+        Set<Tag> tags = new HashSet<>();
+        for (int i = 0; i < numberOfTags; i++) {
+            boolean binary = input.readBoolean();
+            String tagIdentifier = input.readUTF();
+            if (binary) {
+                tags.add(new BinaryTag(tagIdentifier));
+            } else {
+                tags.add(new MultivaluedTag(tagIdentifier, input.readUTF()));
+            }
+        }
+        Document document = documentFactory.restoreDocument(identifier, documentType, accessCount, tags);
+        if (input.readBoolean()) {
+            document.keepRawValue(input.readUTF(), input.readInt());
+        }
+        return document;
+    }
+}
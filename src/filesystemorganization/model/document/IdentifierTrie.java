@@ -0,0 +1,208 @@
+package filesystemorganization.model.document;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class indexes the identifiers of the documents of an input file as a trie of their directories. A document
+ * keeps its identifier and its directory, and each directory indexes the positions of its documents sorted by their
+ * names, the part of the identifiers after the path of the directory. Documents are found by their identifiers through
+ * the trie, so the index holds neither a copy of an identifier nor a boxed position.
+ *
+ * @author ujxbs
+ */
+public final class IdentifierTrie {
+
+    private static final char PATH_SEPARATOR = '/';
+    private static final String ROOT_PATH = "";
+    private static final int NO_POSITION = -1;
+    private static final int[] NO_POSITIONS = new int[0];
+    private final Directory root = new Directory(ROOT_PATH);
+    private final List<Directory> directories = new ArrayList<>(List.of(root));
+    private List<Document> indexedDocuments;
+
+    /**
+     * Adds the identifiers of documents to the trie. Documents whose identifiers were added before keep their
+     * directories, so documents that were already handed out are not changed.
+     *
+     * @param documents the documents of the input file
+     */
+    public void add(List<Document> documents) {
+        for (Document document : documents) {
+            if (document.getDirectory() == null) {
+                String identifier = document.getIdentifier();
+                document.setDirectory(findDirectory(identifier, identifier.lastIndexOf(PATH_SEPARATOR) + 1, true));
+            }
+        }
+    }
+
+    /**
+     * Indexes the positions of the documents in their directories, replacing the positions indexed before. Like a scan
+     * of the documents, the first document with an identifier is found.
+     *
+     * @param documents the documents of the input file, whose identifiers were added to the trie
+     */
+    public void index(List<Document> documents) {
+        clearIndex();
+        indexedDocuments = documents;
+        for (Document document : documents) {
+            document.getDirectory().size++;
+        }
+        for (int position = 0; position < documents.size(); position++) {
+            Directory directory = documents.get(position).getDirectory();
+            if (directory.positions.length == 0) {
+                directory.positions = new int[directory.size];
+                directory.size = 0;
+            }
+            directory.positions[directory.size++] = position;
+        }
+        Comparator<Integer> byName = (first, second) -> compareNames(documents.get(first).getIdentifier(),
+                documents.get(first).getNameIndex(), documents.get(second).getIdentifier(),
+                documents.get(second).getNameIndex());
+        for (Directory directory : directories) {
+            // The sort is stable, so documents with equal names stay in ascending positions
+            Integer[] positions = Arrays.stream(directory.positions).boxed().toArray(Integer[]::new);
+            Arrays.sort(positions, byName);
+            for (int i = 0; i < positions.length; i++) {
+                directory.positions[i] = positions[i];
+            }
+        }
+    }
+
+    /**
+     * Drops the indexed positions, while the directories stay shared by the documents.
+     */
+    public void clearIndex() {
+        indexedDocuments = null;
+        for (Directory directory : directories) {
+            directory.positions = NO_POSITIONS;
+            directory.size = 0;
+        }
+    }
+
+    /**
+     * Removes the directories that none of the documents is in any more, for example after the input file was
+     * reloaded. Documents that were handed out before keep their removed directories until they are dropped.
+     *
+     * @param documents the documents of the input file, whose identifiers were added to the trie
+     */
+    public void prune(List<Document> documents) {
+        Set<Directory> usedDirectories = new HashSet<>();
+        for (Document document : documents) {
+            usedDirectories.add(document.getDirectory());
+        }
+        directories.clear();
+        keepUsedDirectories(root, usedDirectories);
+    }
+
+    /**
+     * Finds the position of the document with given identifier among the indexed documents.
+     *
+     * @param identifier the identifier of the document
+     * @return the position of the first document with the identifier, or -1 if there is none
+     */
+    public int find(String identifier) {
+        int nameIndex = identifier.lastIndexOf(PATH_SEPARATOR) + 1;
+        Directory directory = findDirectory(identifier, nameIndex, false);
+        if (directory == null) {
+            return NO_POSITION;
+        }
+        int[] positions = directory.positions;
+        int low = 0;
+        int high = positions.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareName(indexedDocuments.get(positions[middle]), identifier, nameIndex) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < positions.length && compareName(indexedDocuments.get(positions[low]), identifier, nameIndex) == 0
+                ? positions[low] : NO_POSITION;
+    }
+
+    /**
+     * Returns the number of directories of the trie, including the root.
+     *
+     * @return the number of directories
+     */
+    int getNumberOfDirectories() {
+        return directories.size();
+    }
+
+    private static int compareName(Document document, String identifier, int nameIndex) {
+        return compareNames(document.getIdentifier(), document.getNameIndex(), identifier, nameIndex);
+    }
+
+    // Compares the names like String.compareTo, without cutting them out of the identifiers
+    private static int compareNames(String first, int firstNameIndex, String second, int secondNameIndex) {
+        int firstLength = first.length() - firstNameIndex;
+        int secondLength = second.length() - secondNameIndex;
+        for (int i = 0; i < Math.min(firstLength, secondLength); i++) {
+            char firstCharacter = first.charAt(firstNameIndex + i);
+            char secondCharacter = second.charAt(secondNameIndex + i);
+            if (firstCharacter != secondCharacter) {
+                return firstCharacter - secondCharacter;
+            }
+        }
+        return firstLength - secondLength;
+    }
+
+    private boolean keepUsedDirectories(Directory directory, Set<Directory> usedDirectories) {
+        directory.children.values().removeIf(child -> !keepUsedDirectories(child, usedDirectories));
+        if (directory != root && directory.children.isEmpty() && !usedDirectories.contains(directory)) {
+            directory.positions = NO_POSITIONS;
+            directory.size = 0;
+            return false;
+        }
+        directories.add(directory);
+        return true;
+    }
+
+    private Directory findDirectory(String identifier, int nameIndex, boolean create) {
+        Directory directory = root;
+        int segmentStart = 0;
+        while (segmentStart < nameIndex) {
+            int segmentEnd = identifier.indexOf(PATH_SEPARATOR, segmentStart) + 1;
+            String segment = identifier.substring(segmentStart, segmentEnd);
+            Directory child = directory.children.get(segment);
+            if (child == null) {
+                if (!create) {
+                    return null;
+                }
+                child = new Directory(directory.path + segment);
+                directory.children.put(segment, child);
+                directories.add(child);
+            }
+            directory = child;
+            segmentStart = segmentEnd;
+        }
+        return directory;
+    }
+
+    /**
+     * A directory of the trie, with its path including the trailing separator and the indexed positions of its
+     * documents.
+     */
+    static final class Directory {
+        private final String path;
+        private final Map<String, Directory> children = new HashMap<>();
+        private int[] positions = NO_POSITIONS;
+        private int size = 0;
+
+        private Directory(String path) {
+            this.path = path;
+        }
+
+        String getPath() {
+            return path;
+        }
+    }
+}
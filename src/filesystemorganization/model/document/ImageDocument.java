@@ -33,6 +33,11 @@ protected ImageDocument(String identifier, int accessCount, Set<Tag> documentsTa
         handleSpecialTags();
     }
 
+    @Override
+    public DocumentType getDocumentType() {
+        return DocumentType.IMAGE;
+    }
+
     @Override
     public void handleSpecialTags() {
         for (Tag tag : getDocumentsTags()) {
@@ -44,6 +49,7 @@ public void handleSpecialTags() {
                     return;
                 }
 
+                keepRawValue(tag.getIdentifier(), sizeValue);
                 tag.setIdentifier(TAG_IDENTIFIER_IMAGE_SIZE);
 
                 if (sizeValue < ICON_SIZE_LIMIT) {
@@ -26,6 +26,11 @@ protected ProgramDocument(String identifier, int accessCount, Set<Tag> documents
         handleSpecialTags();
     }
 
+    @Override
+    public DocumentType getDocumentType() {
+        return DocumentType.PROGRAM;
+    }
+
     @Override
     public void handleSpecialTags() {
         for (Tag tag : getDocumentsTags()) {
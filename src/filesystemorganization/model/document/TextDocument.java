@@ -33,6 +33,11 @@ protected TextDocument(String identifier, int accessCount, Set<Tag> documentsTag
         handleSpecialTags();
     }
 
+    @Override
+    public DocumentType getDocumentType() {
+        return DocumentType.TEXT;
+    }
+
     @Override
     public void handleSpecialTags() {
         for (Tag tag : getDocumentsTags()) {
@@ -44,6 +49,7 @@ public void handleSpecialTags() {
                     return;
                 }
 
+                keepRawValue(tag.getIdentifier(), lengthValue);
                 tag.setIdentifier(TAG_IDENTIFIER_TEXT_LENGTH);
 
                 if (lengthValue < SHORT_LENGTH_LIMIT) {
@@ -35,6 +35,11 @@ protected VideoDocument(String identifier, int accessCount, Set<Tag> documentsTa
         handleSpecialTags();
     }
 
+    @Override
+    public DocumentType getDocumentType() {
+        return DocumentType.VIDEO;
+    }
+
     @Override
     public void handleSpecialTags() {
         for (Tag tag : getDocumentsTags()) {
@@ -46,6 +51,7 @@ public void handleSpecialTags() {
                     return;
                 }
 
+                keepRawValue(tag.getIdentifier(), lengthValue);
                 tag.setIdentifier(TAG_IDENTIFIER_VIDEO_LENGTH);
 
                 if (lengthValue < CLIP_LENGTH_LIMIT) {
@@ -4,12 +4,11 @@
 import filesystemorganization.model.document.Document;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.HashMap;
 
 /**
  * This class represents an automatic structuring for a specific input file.
@@ -18,12 +17,43 @@
  */
 public class AutomaticStructuring {
     private static final String INFORMATION_GAINS_DOCUMENTS_SEPARATOR = "---";
+    private static final String ROOT_PATH = "";
+    private static final String TAG_VALUE_UNDEFINED = "undefined";
+    private static final String TAG_VALUE_EXPLICIT_UNDEFINED = "explicitUndefined!";
+    private static final String GROUPED_VALUES = "(other)";
+    private static final String BIN_RANGE_SEPARATOR = "..";
     private static final int LAST_INDEX_DIFFERENCE = 1;
     private static final int STARTING_COUNT = 0;
-    private static final int DEFAULT_VALUE = 0;
-    private static final double DEFAULT_LOG_BASE = 2;
-    private final List<Document> inputFile = new ArrayList<>();
+    private static final int SEQUENTIAL = 1;
+    private static final int NO_RANGE = -1;
+    private static final double CONFIDENCE_Z_SCORE = 1.96;
+    private static final String UNKNOWN_ENTRY_MESSAGE = "No input file has the entry ID %d.";
+    private final DocumentTable documentTable;
+    private final int[] subsetTotals;
+    private final long[] valueTotals;
+    private final int[] presentValues;
+    private final boolean[] valuesSeen;
+    private final double[] estimatedTotals;
+    private final double[] groupTotals;
+    private final double[] termTotals;
+    private final double[] groupTermSums;
+    private final double[] selectedTotals;
+    private final double[] valueEntropies;
+    private final double[] valueShares;
+    private final SplitCriterion splitCriterion;
+    private final double[] documentTerms;
+    private final WeightedSample sample;
+    private final int maximumNumberOfChildren;
+    private final int numberOfBins;
+    private final StructuringOptions treeOptions;
     private final Tree documentTree;
+    private final boolean startedFromPreviousStructuring;
+    private int cachedFrom = NO_RANGE;
+    private int cachedTo = NO_RANGE;
+    private double cachedTermSum;
+    private int cachedUncertaintyFrom = NO_RANGE;
+    private int cachedUncertaintyTo = NO_RANGE;
+    private double cachedUncertainty;
 
     /**
      * Constructs an automatic structuring with organization model and an entry ID.
@@ -32,183 +62,553 @@ public class AutomaticStructuring {
      * @param entryId entry ID
      */
     public AutomaticStructuring(FileSystemOrganization model, int entryId) {
-        this.inputFile.addAll(model.getSpecificInputFile(entryId));
-        this.documentTree = new Tree();
-        buildDocumentTree();
+        this(model, entryId, StructuringOptions.DEFAULT);
     }
 
     /**
-     * Finds the value of a specified tag for a document.
+     * Constructs an automatic structuring with organization model, an entry ID and options. With a deadline, the tree
+     * is only expanded until the deadline. Unless the sample includes all documents, the information gains are
+     * estimated from a sample weighted by the access counts, and only the gains of the tags that split a branch are
+     * calculated exactly. With a number of bins, numeric tags split into ranges of their values. A split criterion
+     * other than the entropy calculates every gain exactly, with all documents. With a previous structuring, the
+     * unchanged subtrees of its tree are taken over.
      *
-     * @param tagIdentifier      the identifier of the tag
-     * @param documentIdentifier the identifier of the document
-     * @return the value of the tag, or null if the tag was not found
+     * @param model   the model of file system organization
+     * @param entryId entry ID
+     * @param options the options of the structuring
+     * @throws IllegalArgumentException if no input file has the entry ID
      */
-    protected String tagsValueFinder(String tagIdentifier, String documentIdentifier) {
-        for (Document document : this.inputFile) {
-            if (document.getIdentifier().equals(documentIdentifier)) {
-                return document.getTagValue(tagIdentifier);
-            }
+    public AutomaticStructuring(FileSystemOrganization model, int entryId, StructuringOptions options) {
+        this(findDocuments(model, entryId), options);
+    }
+
+    /**
+     * Constructs an automatic structuring of the documents of an input file with options, like the structuring of an
+     * entry ID does.
+     *
+     * @param documents the documents of the input file
+     * @param options   the options of the structuring
+     */
+    public AutomaticStructuring(List<Document> documents, StructuringOptions options) {
+        this(new DocumentTable(documents), options, ROOT_PATH);
+    }
+
+    /**
+     * Constructs the automatic structuring of a branch of a larger tree, whose documents are given directly. All
+     * information gains are calculated exactly.
+     *
+     * @param documents  the documents that reach the branch, in the order of the input file
+     * @param pathPrefix the path of the branch, which every printed path starts with
+     */
+    public AutomaticStructuring(List<Document> documents, String pathPrefix) {
+        this(new DocumentTable(documents), StructuringOptions.DEFAULT, pathPrefix);
+    }
+
+    private AutomaticStructuring(DocumentTable documentTable, StructuringOptions options, String pathPrefix) {
+        this.documentTable = documentTable;
+        int maximumNumberOfValues = documentTable.getMaximumNumberOfValues();
+        this.subsetTotals = new int[maximumNumberOfValues];
+        this.valueTotals = new long[maximumNumberOfValues];
+        this.presentValues = new int[maximumNumberOfValues];
+        this.valuesSeen = new boolean[maximumNumberOfValues];
+        this.estimatedTotals = new double[maximumNumberOfValues];
+        this.groupTotals = new double[maximumNumberOfValues];
+        this.termTotals = new double[maximumNumberOfValues];
+        this.groupTermSums = new double[maximumNumberOfValues];
+        this.selectedTotals = new double[maximumNumberOfValues];
+        this.valueEntropies = new double[maximumNumberOfValues];
+        this.valueShares = new double[maximumNumberOfValues];
+        this.splitCriterion = options.getSplitCriterion();
+        this.documentTerms = splitCriterion == SplitCriterion.ENTROPY
+                ? documentTable.getWeightedLog2Counts()
+                : calculateDocumentTerms(documentTable, splitCriterion);
+        this.maximumNumberOfChildren = options.getMaximumNumberOfChildren();
+        this.numberOfBins = options.getNumberOfBins();
+        SampleSize sampleSize = options.getSampleSize();
+        int numberOfDocuments = documentTable.getNumberOfDocuments();
+        this.sample = sampleSize.isAll() || sampleSize.resolve(numberOfDocuments) == numberOfDocuments
+                || splitCriterion != SplitCriterion.ENTROPY
+                ? null
+                : new WeightedSample(documentTable, sampleSize.resolve(numberOfDocuments));
+        this.treeOptions = options.withPreviousStructuring(null);
+        AutomaticStructuring previous = options.getPreviousStructuring();
+        Tree previousTree = previous != null && sample == null && !previous.isTruncated() && !previous.isSampled()
+                && previous.treeOptions.buildsSameTreeAs(options)
+                ? previous.documentTree
+                : null;
+        this.startedFromPreviousStructuring = previousTree != null;
+        this.documentTree = new Tree();
+        documentTree.buildTree(this, options.getDeadlineNanos(), pathPrefix, previousTree);
+    }
+
+    private static List<Document> findDocuments(FileSystemOrganization model, int entryId) {
+        List<Document> documents = model.getSpecificInputFile(entryId);
+        if (documents == null) {
+            throw new IllegalArgumentException(UNKNOWN_ENTRY_MESSAGE.formatted(entryId));
         }
-        return null;
+        return documents;
     }
 
-    private int accessCountFinder(String documentIdentifier) {
-        for (Document document : this.inputFile) {
-            if (document.getIdentifier().equals(documentIdentifier)) {
-                return document.getAccessCount();
-            }
+    private static double[] calculateDocumentTerms(DocumentTable documentTable, SplitCriterion splitCriterion) {
+        double[] documentTerms = new double[documentTable.getNumberOfDocuments()];
+        for (int document = 0; document < documentTerms.length; document++) {
+            documentTerms[document] = splitCriterion.calculateDocumentTerm(documentTable.getAccessCount(document));
         }
+        return documentTerms;
+    }
 
-        return DEFAULT_VALUE;
+    /**
+     * Returns whether the tree was truncated because its deadline had passed.
+     *
+     * @return true if the tree was truncated, false otherwise
+     */
+    public boolean isTruncated() {
+        return documentTree.isTruncated();
     }
 
     /**
-     * Filters documents by a specific tag and tag value, and then returns a list of these documents.
+     * Returns whether the structuring started from the tree of the previous structuring of its options. A previous
+     * structuring that is truncated, sampled or built with other options that change the tree is not started from.
      *
-     * @param documents     the superset list of documents
-     * @param tagIdentifier the tag identifier
-     * @param tagValue      the tag value
-     * @return a list of filtered subset documents
+     * @return true if the branches were compared with the previous tree, false if the structuring started from scratch
      */
-    protected List<Document> subsetGivenTag(List<Document> documents, String tagIdentifier, String tagValue) {
-        List<Document> wantedSubset = new ArrayList<>();
-        for (Document document : documents) {
-            if (tagsValueFinder(tagIdentifier, document.getIdentifier()).equals(tagValue)) {
-                wantedSubset.add(document);
-            }
-        }
-        return wantedSubset;
+    public boolean isStartedFromPreviousStructuring() {
+        return startedFromPreviousStructuring;
     }
 
-    private double calculateDocumentAccessProbability(String targetDocumentIdentifier, List<Document> subsetList) {
-        int totalSubsetValue = STARTING_COUNT;
-        for (Document document : subsetList) {
-            totalSubsetValue += accessCountFinder(document.getIdentifier());
-        }
-        if (totalSubsetValue == STARTING_COUNT) {
-            return DEFAULT_VALUE;
-        }
-        return (double) accessCountFinder(targetDocumentIdentifier) / totalSubsetValue;
+    /**
+     * Returns whether the information gains were estimated from a sample.
+     *
+     * @return true if the structuring is based on a sample, false otherwise
+     */
+    public boolean isSampled() {
+        return sample != null;
     }
 
-    private double calculateUncertainty(List<Document> documentList) {
-        double totalUncertaintyValue = STARTING_COUNT;
-        for (Document document : documentList) {
-            double probability = calculateDocumentAccessProbability(document.getIdentifier(), documentList);
+    /**
+     * Returns the sample the information gains are estimated from.
+     *
+     * @return the sample, or null if all information gains are calculated exactly
+     */
+    WeightedSample getSample() {
+        return sample;
+    }
 
-            totalUncertaintyValue += probability * (Math.log(probability) / Math.log(DEFAULT_LOG_BASE));
-        }
-        return -totalUncertaintyValue;
+    /**
+     * Returns the maximum number of children of a branch.
+     *
+     * @return the maximum number of children, or {@link StructuringOptions#NO_CHILD_LIMIT}
+     */
+    int getMaximumNumberOfChildren() {
+        return maximumNumberOfChildren;
     }
 
-    private double calculateSubsetProbability(List<Document> documents, String tagIdentifier, String tagValue) {
-        List<Document> subset = subsetGivenTag(documents, tagIdentifier, tagValue);
-        double totalSubsetProbability = STARTING_COUNT;
+    /**
+     * Returns the documents of the input file as table.
+     *
+     * @return the table of the documents
+     */
+    DocumentTable getDocumentTable() {
+        return documentTable;
+    }
 
-        for (Document document : subset) {
-            double documentProbability = calculateDocumentAccessProbability(document.getIdentifier(), documents);
-            totalSubsetProbability += documentProbability;
+    /**
+     * Calculates the uncertainty of a range of documents, weighted by their access counts, as impurity of the split
+     * criterion.
+     *
+     * @param documents the indices of the documents
+     * @param from      the first position of the range, inclusive
+     * @param to        the last position of the range, exclusive
+     * @return the calculated uncertainty
+     */
+    protected double calculateUncertainty(int[] documents, int from, int to) {
+        if (splitCriterion == SplitCriterion.ENTROPY) {
+            return getUncertainty(documents, from, to);
         }
-        return totalSubsetProbability;
+        long totalSubsetValue = EntropyKernels.sum(documents, from, to, documentTable.getAccessCounts());
+        double termSum = EntropyKernels.sum(documents, from, to, documentTerms);
+        return splitCriterion.calculateImpurity(totalSubsetValue, termSum);
     }
 
-    private double calculateRemainingUncertainty(List<Document> documents, String tagIdentifier) {
-        Set<String> uniqueTagValues = new HashSet<>();
-        for (Document document : documents) {
-            String tagValue = tagsValueFinder(tagIdentifier, document.getIdentifier());
-            uniqueTagValues.add(tagValue);
+    /**
+     * Calculates the gain of a specific tag for a range of documents by the split criterion, which is the information
+     * gain unless another criterion was chosen. The values of a binned numeric tag count by their bins. If the tag has
+     * more values than a branch may have children, its values with the lowest access counts count as one value.
+     *
+     * @param documents the indices of the documents
+     * @param from      the first position of the range, inclusive
+     * @param to        the last position of the range, exclusive
+     * @param tag       the index of the tag
+     * @return the calculated information gain
+     */
+    protected double calculateInformationGain(int[] documents, int from, int to, int tag) {
+        int[] valueColumn = documentTable.getValueColumn(tag);
+        int numberOfShards = EntropyKernels.chooseNumberOfShards(to - from, documentTable.getNumberOfValues(tag));
+        int numberOfValues = numberOfShards == SEQUENTIAL
+                ? EntropyKernels.sumPerValue(documents, from, to, documentTable.getAccessCounts(), valueColumn,
+                        valueTotals, presentValues)
+                : EntropyKernels.sumPerValueInShards(documents, from, to, documentTable.getAccessCounts(), valueColumn,
+                        documentTable.getNumberOfValues(tag), valueTotals, presentValues, numberOfShards);
+        for (int i = 0; i < numberOfValues; i++) {
+            groupTotals[i] = valueTotals[presentValues[i]];
+        }
+        if (splitCriterion.dependsOnGroupTermSums()) {
+            EntropyKernels.sumTermsPerValue(documents, from, to, documentTerms, valueColumn, presentValues,
+                    numberOfValues, termTotals);
+            for (int i = 0; i < numberOfValues; i++) {
+                groupTermSums[i] = termTotals[presentValues[i]];
+            }
+        }
+        if (splitCriterion == SplitCriterion.ENTROPY && !isBinned(tag) && numberOfValues <= maximumNumberOfChildren) {
+            return getUncertainty(documents, from, to)
+                    - calculateRemainingUncertainty(documents, from, to, tag, numberOfValues);
+        }
+        int numberOfGroups = isBinned(tag) ? sumPerBin(tag, numberOfValues) : numberOfValues;
+        if (numberOfGroups > maximumNumberOfChildren) {
+            numberOfGroups = mergeSmallestGroups(numberOfGroups);
+        }
+        long totalSubsetValue = STARTING_COUNT;
+        for (int i = 0; i < numberOfGroups; i++) {
+            totalSubsetValue += (long) groupTotals[i];
+        }
+        return splitCriterion.calculateGain(totalSubsetValue, getTermSum(documents, from, to), groupTotals,
+                groupTermSums, numberOfGroups);
+    }
 
+    // The entropies of the values are summed in the order of a hash set of the values, in which the values were
+    // inserted in the order of the documents, as the remaining uncertainty has always been summed
+    private double calculateRemainingUncertainty(int[] documents, int from, int to, int tag, int numberOfValues) {
+        Map<String, Integer> uniqueTagValues = new HashMap<>();
+        long totalSubsetValue = STARTING_COUNT;
+        for (int i = 0; i < numberOfValues; i++) {
+            uniqueTagValues.put(documentTable.getValue(tag, presentValues[i]), presentValues[i]);
+            totalSubsetValue += valueTotals[presentValues[i]];
         }
+        EntropyKernels.sumEntropiesPerValue(documents, from, to, documentTable.getAccessCounts(),
+                documentTable.getValueColumn(tag), valueTotals, totalSubsetValue, presentValues, numberOfValues,
+                valueEntropies, valueShares);
 
         double expectedRemainingUncertainty = STARTING_COUNT;
-        for (String tagValue : uniqueTagValues) {
-            List<Document> subset = subsetGivenTag(documents, tagIdentifier, tagValue);
-            double subsetProbability = calculateSubsetProbability(documents, tagIdentifier, tagValue);
-            double subsetUncertainty = calculateUncertainty(subset);
-
-            expectedRemainingUncertainty += subsetProbability * subsetUncertainty;
+        for (int valueIndex : uniqueTagValues.values()) {
+            expectedRemainingUncertainty += valueShares[valueIndex] * valueEntropies[valueIndex];
         }
         return expectedRemainingUncertainty;
     }
 
-    /**
-     * Calculates the information gain of a specific tag.
-     *
-     * @param documents     the list of documents
-     * @param tagIdentifier the tag identifier
-     * @return the calculated information gain
-     */
-    protected double calculateInformationGain(List<Document> documents, String tagIdentifier) {
-        return calculateUncertainty(documents) - calculateRemainingUncertainty(documents, tagIdentifier);
+    // The groups beyond the last child are merged into it, like the branch is split. Of groups with equal totals, the
+    // earlier ones keep a child of their own.
+    private int mergeSmallestGroups(int numberOfGroups) {
+        int numberOfKeptGroups = maximumNumberOfChildren - 1;
+        System.arraycopy(groupTotals, 0, selectedTotals, 0, numberOfGroups);
+        EntropyKernels.selectLargest(selectedTotals, numberOfGroups, numberOfKeptGroups);
+        double lowestKeptTotal = selectedTotals[0];
+        for (int i = 1; i < numberOfKeptGroups; i++) {
+            lowestKeptTotal = Math.min(lowestKeptTotal, selectedTotals[i]);
+        }
+        int numberOfKeptLowest = STARTING_COUNT;
+        for (int i = 0; i < numberOfKeptGroups; i++) {
+            if (selectedTotals[i] == lowestKeptTotal) {
+                numberOfKeptLowest++;
+            }
+        }
+
+        int numberOfMergedGroups = STARTING_COUNT;
+        double mergedTotal = STARTING_COUNT;
+        double mergedTermSum = STARTING_COUNT;
+        for (int i = 0; i < numberOfGroups; i++) {
+            boolean kept = groupTotals[i] > lowestKeptTotal
+                    || (groupTotals[i] == lowestKeptTotal && numberOfKeptLowest-- > 0);
+            if (kept) {
+                groupTotals[numberOfMergedGroups] = groupTotals[i];
+                groupTermSums[numberOfMergedGroups] = groupTermSums[i];
+                numberOfMergedGroups++;
+            } else {
+                mergedTotal += groupTotals[i];
+                mergedTermSum += groupTermSums[i];
+            }
+        }
+        groupTotals[numberOfMergedGroups] = mergedTotal;
+        groupTermSums[numberOfMergedGroups] = mergedTermSum;
+        return numberOfMergedGroups + 1;
     }
 
     /**
-     * Returns the unique tag identifiers.
+     * Estimates the information gain of a specific tag for the sampled documents of a branch. As every document is a
+     * leaf of its own, the gain of a tag equals the entropy of its values weighted by access counts, which is
+     * estimated from the estimated access counts of the sampled documents. The confidence interval follows from the
+     * variance of the information content of a sampled access. Values are grouped like for the exact gain.
      *
-     * @param documents the list of documents
-     * @return a set of unique tag identifiers
+     * @param sampledDocuments the indices of the sampled documents
+     * @param from             the first position of the range, inclusive
+     * @param to               the last position of the range, exclusive
+     * @param tag              the index of the tag
+     * @return the estimated information gain
      */
-    protected Set<String> getUniqueTags(List<Document> documents) {
-        Set<String> uniqueTagIdentifiers = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
-        for (Document document : documents) {
-            uniqueTagIdentifiers.addAll(document.getTagIdentifiers());
+    protected InformationGainEstimate estimateInformationGain(int[] sampledDocuments, int from, int to, int tag) {
+        double[] estimatedAccessCounts = sample.getEstimatedAccessCounts();
+        int numberOfValues = STARTING_COUNT;
+        double total = STARTING_COUNT;
+        for (int i = from; i < to; i++) {
+            int document = sampledDocuments[i];
+            int valueIndex = documentTable.getValueIndex(tag, document);
+            if (!valuesSeen[valueIndex]) {
+                valuesSeen[valueIndex] = true;
+                estimatedTotals[valueIndex] = STARTING_COUNT;
+                presentValues[numberOfValues++] = valueIndex;
+            }
+            estimatedTotals[valueIndex] += estimatedAccessCounts[document];
+            total += estimatedAccessCounts[document];
+        }
+
+        for (int i = 0; i < numberOfValues; i++) {
+            valuesSeen[presentValues[i]] = false;
+            groupTotals[i] = estimatedTotals[presentValues[i]];
+        }
+        if (isBinned(tag)) {
+            numberOfValues = sumPerBin(tag, numberOfValues);
+        }
+        if (numberOfValues > maximumNumberOfChildren) {
+            EntropyKernels.selectLargest(groupTotals, numberOfValues, maximumNumberOfChildren - 1);
+            double groupedTotal = total;
+            for (int i = 0; i < maximumNumberOfChildren - 1; i++) {
+                groupedTotal -= groupTotals[i];
+            }
+            groupTotals[maximumNumberOfChildren - 1] = groupedTotal;
+            numberOfValues = maximumNumberOfChildren;
+        }
+
+        double entropy = STARTING_COUNT;
+        double secondMoment = STARTING_COUNT;
+        for (int i = 0; i < numberOfValues; i++) {
+            double probability = groupTotals[i] / total;
+            double informationContent = -Math.log(probability) / Math.log(2);
+            entropy += probability * informationContent;
+            secondMoment += probability * informationContent * informationContent;
+        }
+        if (to - from == STARTING_COUNT) {
+            return new InformationGainEstimate(STARTING_COUNT, STARTING_COUNT);
+        }
+        double variance = Math.max(STARTING_COUNT, secondMoment - entropy * entropy) / (to - from);
+        return new InformationGainEstimate(entropy, CONFIDENCE_Z_SCORE * Math.sqrt(variance));
+    }
+
+    private boolean isBinned(int tag) {
+        return numberOfBins != StructuringOptions.NO_BINNING && documentTable.isNumeric(tag);
+    }
+
+    // Replaces the group totals and term sums of the present values by those of their bins, followed by the values
+    // without a number
+    private int sumPerBin(int tag, int numberOfValues) {
+        ValueBins bins = binValues(tag, numberOfValues);
+        double[] binTotals = new double[bins.numberOfGroups()];
+        double[] binTermSums = new double[bins.numberOfGroups()];
+        for (int i = 0; i < numberOfValues; i++) {
+            binTotals[bins.groupOfPosition()[i]] += groupTotals[i];
+            binTermSums[bins.groupOfPosition()[i]] += groupTermSums[i];
         }
-        return uniqueTagIdentifiers;
+        System.arraycopy(binTotals, 0, groupTotals, 0, binTotals.length);
+        System.arraycopy(binTermSums, 0, groupTermSums, 0, binTermSums.length);
+        return binTotals.length;
     }
 
     /**
-     * Returns the input file.
-     *
-     * @return the input file
+     * Bins the present values of a numeric tag by the group totals at their positions. The numbers are sorted, equal
+     * numbers always share a bin, and the bins are the ranges with the highest information gain. Every value without
+     * a number is a group of its own after the bins.
      */
-    protected List<Document> getInputFile() {
-        return new ArrayList<>(inputFile);
+    private ValueBins binValues(int tag, int numberOfValues) {
+        List<Integer> numericPositions = new ArrayList<>();
+        for (int i = 0; i < numberOfValues; i++) {
+            if (documentTable.isNumericValue(tag, presentValues[i])) {
+                numericPositions.add(i);
+            }
+        }
+        numericPositions.sort(Comparator.comparingLong(i -> documentTable.getNumericValue(tag, presentValues[i])));
+
+        double[] pointTotals = new double[numericPositions.size()];
+        long[] pointNumbers = new long[numericPositions.size()];
+        int[] pointOfPosition = new int[numberOfValues];
+        int numberOfPoints = STARTING_COUNT;
+        for (int position : numericPositions) {
+            long number = documentTable.getNumericValue(tag, presentValues[position]);
+            if (numberOfPoints == STARTING_COUNT || pointNumbers[numberOfPoints - 1] != number) {
+                pointNumbers[numberOfPoints++] = number;
+            }
+            pointOfPosition[position] = numberOfPoints - 1;
+            pointTotals[numberOfPoints - 1] += groupTotals[position];
+        }
+
+        int numberOfValueBins = Math.min(numberOfBins, numberOfPoints);
+        int[] binEnds = numberOfValueBins == STARTING_COUNT
+                ? new int[0]
+                : EntropyKernels.findOptimalBins(pointTotals, numberOfPoints, numberOfValueBins);
+        int[] binOfPoint = new int[numberOfPoints];
+        long[] lowerBounds = new long[numberOfValueBins];
+        long[] upperBounds = new long[numberOfValueBins];
+        int binStart = STARTING_COUNT;
+        for (int bin = 0; bin < numberOfValueBins; bin++) {
+            Arrays.fill(binOfPoint, binStart, binEnds[bin], bin);
+            lowerBounds[bin] = pointNumbers[binStart];
+            upperBounds[bin] = pointNumbers[binEnds[bin] - 1];
+            binStart = binEnds[bin];
+        }
+
+        int[] groupOfPosition = new int[numberOfValues];
+        int numberOfGroups = numberOfValueBins;
+        for (int i = 0; i < numberOfValues; i++) {
+            groupOfPosition[i] = documentTable.isNumericValue(tag, presentValues[i])
+                    ? binOfPoint[pointOfPosition[i]]
+                    : numberOfGroups++;
+        }
+        return new ValueBins(groupOfPosition, numberOfGroups, lowerBounds, upperBounds);
     }
 
-    private void buildDocumentTree() {
-        documentTree.buildTree(this);
+    // The tags of a branch are evaluated one after another and the ranges of different branches differ, so the sum
+    // over the documents of a range is calculated once for all tags
+    private double getTermSum(int[] documents, int from, int to) {
+        if (from != cachedFrom || to != cachedTo) {
+            cachedTermSum = EntropyKernels.sum(documents, from, to, documentTerms);
+            cachedFrom = from;
+            cachedTo = to;
+        }
+        return cachedTermSum;
+    }
+
+    private double getUncertainty(int[] documents, int from, int to) {
+        if (from != cachedUncertaintyFrom || to != cachedUncertaintyTo) {
+            long totalSubsetValue = EntropyKernels.sum(documents, from, to, documentTable.getAccessCounts());
+            cachedUncertainty = EntropyKernels.entropyInOrder(documents, from, to, documentTable.getAccessCounts(),
+                    totalSubsetValue);
+            cachedUncertaintyFrom = from;
+            cachedUncertaintyTo = to;
+        }
+        return cachedUncertainty;
     }
 
     /**
-     * Sorts the tag values by their information gains, if equal by their lexicographic order,
-     * and returns a list of these values.
+     * Sorts the values of a tag within a range of documents by their total access counts, if equal by their
+     * lexicographic order.
      *
-     * @param tagIdentifier  tag identifier
-     * @param uniqueValues   set of unique tag identifiers
-     * @param documentSubset the superset list of documents
-     * @return a list of sorted tag values
+     * @param documents the indices of the documents
+     * @param from      the first position of the range, inclusive
+     * @param to        the last position of the range, exclusive
+     * @param tag       the index of the tag
+     * @return the indices of the sorted tag values
      */
-    protected List<String> sortTagValues(String tagIdentifier, Set<String> uniqueValues, List<Document> documentSubset) {
-        Map<String, Integer> tagValueCount = new HashMap<>();
+    protected int[] sortTagValues(int[] documents, int from, int to, int tag) {
+        List<Integer> uniqueValues = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            int valueIndex = documentTable.getValueIndex(tag, documents[i]);
+            if (!valuesSeen[valueIndex]) {
+                valuesSeen[valueIndex] = true;
+                subsetTotals[valueIndex] = STARTING_COUNT;
+                uniqueValues.add(valueIndex);
+            }
+        }
 
-        for (String tagValue : uniqueValues) {
-            int totalCount = STARTING_COUNT;
-            for (Document document : documentSubset) {
-                if (document.containsTagWithValue(tagIdentifier, tagValue)) {
-                    totalCount += document.getAccessCount();
-                }
+        // Like the documents, the access counts of a value are the documents' own, not looked up by identifier
+        for (int i = from; i < to; i++) {
+            int directValueIndex = documentTable.getDirectValueIndex(tag, documents[i]);
+            if (valuesSeen[directValueIndex]) {
+                subsetTotals[directValueIndex] += documentTable.getDirectAccessCount(documents[i]);
             }
-            tagValueCount.put(tagValue, totalCount);
+        }
+        for (int valueIndex : uniqueValues) {
+            valuesSeen[valueIndex] = false;
         }
 
-        List<Map.Entry<String, Integer>> sortedEntries = new ArrayList<>(tagValueCount.entrySet());
-        sortedEntries.sort((entry1, entry2) -> {
-            int countCompare = entry2.getValue().compareTo(entry1.getValue());
+        uniqueValues.sort((value1, value2) -> {
+            int countCompare = Integer.compare(subsetTotals[value2], subsetTotals[value1]);
             if (countCompare == STARTING_COUNT) {
-                return entry1.getKey().compareTo(entry2.getKey());
+                return documentTable.getValue(tag, value1).compareTo(documentTable.getValue(tag, value2));
             }
             return countCompare;
         });
 
-        List<String> sortedTagValues = new ArrayList<>();
-        for (Map.Entry<String, Integer> entry : sortedEntries) {
-            sortedTagValues.add(entry.getKey());
+        int[] sortedTagValues = new int[uniqueValues.size()];
+        for (int i = 0; i < sortedTagValues.length; i++) {
+            sortedTagValues[i] = uniqueValues.get(i);
         }
-
         return sortedTagValues;
     }
 
+    /**
+     * Splits a range of documents by a tag. Every value gets a child of its own, or a binned numeric tag gets a child
+     * per bin and per value without a number. The children are sorted by their total access counts, if equal by their
+     * values, and the children beyond the maximum number of children share the last one.
+     *
+     * @param documents the indices of the documents
+     * @param from      the first position of the range, inclusive
+     * @param to        the last position of the range, exclusive
+     * @param tag       the index of the tag
+     * @return the split of the range
+     */
+    protected TagSplit splitTag(int[] documents, int from, int to, int tag) {
+        int[] groupOfValue = new int[documentTable.getNumberOfValues(tag)];
+        String[] groupValues;
+        if (isBinned(tag)) {
+            // Like their information gain, the bins follow the access counts looked up by identifier
+            int numberOfValues = EntropyKernels.sumPerValue(documents, from, to, documentTable.getAccessCounts(),
+                    documentTable.getValueColumn(tag), valueTotals, presentValues);
+            for (int i = 0; i < numberOfValues; i++) {
+                groupTotals[i] = valueTotals[presentValues[i]];
+            }
+            ValueBins bins = binValues(tag, numberOfValues);
+            double[] binTotals = new double[bins.numberOfGroups()];
+            String[] binValues = new String[bins.numberOfGroups()];
+            Integer[] sortedGroups = new Integer[bins.numberOfGroups()];
+            for (int i = 0; i < numberOfValues; i++) {
+                int group = bins.groupOfPosition()[i];
+                binTotals[group] += groupTotals[i];
+                binValues[group] = group < bins.lowerBounds().length
+                        ? formatBin(bins.lowerBounds()[group], bins.upperBounds()[group])
+                        : displayValue(documentTable.getValue(tag, presentValues[i]));
+                sortedGroups[group] = group;
+            }
+            Arrays.sort(sortedGroups, Comparator.comparingDouble((Integer group) -> binTotals[group]).reversed()
+                    .thenComparingInt(group -> group));
+
+            int[] rankOfGroup = new int[sortedGroups.length];
+            groupValues = new String[sortedGroups.length];
+            for (int rank = 0; rank < sortedGroups.length; rank++) {
+                rankOfGroup[sortedGroups[rank]] = rank;
+                groupValues[rank] = binValues[sortedGroups[rank]];
+            }
+            for (int i = 0; i < numberOfValues; i++) {
+                groupOfValue[presentValues[i]] = rankOfGroup[bins.groupOfPosition()[i]];
+            }
+        } else {
+            int[] sortedValues = sortTagValues(documents, from, to, tag);
+            groupValues = new String[sortedValues.length];
+            for (int i = 0; i < sortedValues.length; i++) {
+                groupOfValue[sortedValues[i]] = i;
+                groupValues[i] = displayValue(documentTable.getValue(tag, sortedValues[i]));
+            }
+        }
+
+        // The groups beyond the maximum number of children have the lowest access counts and share the last child
+        int numberOfChildren = Math.min(groupValues.length, maximumNumberOfChildren);
+        int[] partOfValue = new int[groupOfValue.length];
+        for (int valueIndex = 0; valueIndex < groupOfValue.length; valueIndex++) {
+            partOfValue[valueIndex] = Math.min(groupOfValue[valueIndex], numberOfChildren - 1);
+        }
+        String[] partValues = Arrays.copyOf(groupValues, numberOfChildren);
+        if (numberOfChildren < groupValues.length) {
+            partValues[numberOfChildren - 1] = GROUPED_VALUES;
+        }
+        return new TagSplit(partOfValue, partValues);
+    }
+
+    private String displayValue(String value) {
+        return value.equalsIgnoreCase(TAG_VALUE_EXPLICIT_UNDEFINED) ? TAG_VALUE_UNDEFINED : value;
+    }
+
+    private String formatBin(long lowerBound, long upperBound) {
+        return lowerBound == upperBound
+                ? Long.toString(lowerBound)
+                : lowerBound + BIN_RANGE_SEPARATOR + upperBound;
+    }
+
     private String printList(List<String> givenList) {
         StringBuilder documentsDisplay = new StringBuilder();
         String lineSeparator = System.lineSeparator();
@@ -222,6 +622,24 @@ private String printList(List<String> givenList) {
         return documentsDisplay.toString();
     }
 
+    /**
+     * Returns the lines that list the information gains of the tags, branch by branch.
+     *
+     * @return the lines of the information gains
+     */
+    public List<String> getSortedInformationGains() {
+        return documentTree.getSortedTagsInformationGains();
+    }
+
+    /**
+     * Returns the lines that list the paths of the documents, leaf by leaf.
+     *
+     * @return the lines of the documents
+     */
+    public List<String> getSortedDocuments() {
+        return documentTree.getSortedDocuments();
+    }
+
     @Override
     public String toString() {
         StringBuilder documentsDisplay = new StringBuilder();
@@ -240,5 +658,11 @@ public String toString() {
 
         return documentsDisplay.toString();
     }
-}
 
+    /**
+     * The bins of the present values of a numeric tag, with the group of every present value. The bins come first in
+     * the order of their numbers, followed by one group per value without a number.
+     */
+    private record ValueBins(int[] groupOfPosition, int numberOfGroups, long[] lowerBounds, long[] upperBounds) {
+    }
+}
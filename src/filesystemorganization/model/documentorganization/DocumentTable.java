@@ -0,0 +1,452 @@
+package filesystemorganization.model.documentorganization;
+
+import filesystemorganization.model.document.Document;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * This class holds the documents of an input file column by column, so that a structuring refers to documents and tag
+ * values by their indices. Every tag is a column of value indices into the distinct values of the tag.
+ * <p>
+ * A document whose identifier occurs earlier in the input file is represented by the earlier document when its
+ * access count or tag values are looked up by identifier, like the structuring always did. The direct columns keep the
+ * document's own values.
+ * <p>
+ * A tag whose defined values are all integers is numeric, and its values are kept as numbers as well.
+ * <p>
+ * The content of a document, as far as a structuring depends on it, can be compared with a document of another
+ * table, by a hash first and exactly afterwards.
+ *
+ * @author ujxbs
+ */
+final class DocumentTable {
+
+    private static final String TAG_VALUE_UNDEFINED = "undefined";
+    private static final String TAG_VALUE_EXPLICIT_UNDEFINED = "explicitUndefined!";
+    private static final String NUMERIC_VALUE_PATTERN = "^-?\\d+$";
+    private static final long HASH_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long HASH_PRIME = 0x100000001B3L;
+    private static final long MIX_MULTIPLIER_1 = 0xBF58476D1CE4E5B9L;
+    private static final long MIX_MULTIPLIER_2 = 0x94D049BB133111EBL;
+    private static final int MIX_SHIFT_1 = 30;
+    private static final int MIX_SHIFT_2 = 27;
+    private static final int MIX_SHIFT_3 = 31;
+    private final List<Document> documents;
+    private final String[] tagIdentifiers;
+    private final Map<String, Integer> tagIndices = new HashMap<>();
+    private final int[] accessCounts;
+    private final int[] directAccessCounts;
+    private final double[] weightedLog2Counts;
+    private final int[][] valueIndices;
+    private final int[][] directValueIndices;
+    private final String[][] values;
+    private final long[][] numericValues;
+    private final int[] documentsByIdentifier;
+    private final int[] identifierRanks;
+    private volatile long[] contentHashes;
+
+    /**
+     * Constructs the table of the given documents.
+     *
+     * @param documents the documents in the order of the input file
+     */
+    DocumentTable(List<Document> documents) {
+        this.documents = documents;
+        int numberOfDocuments = documents.size();
+
+        Set<String> uniqueTagIdentifiers = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (Document document : documents) {
+            uniqueTagIdentifiers.addAll(document.getTagIdentifiers());
+        }
+        this.tagIdentifiers = uniqueTagIdentifiers.toArray(new String[0]);
+        for (int tag = 0; tag < tagIdentifiers.length; tag++) {
+            tagIndices.put(tagIdentifiers[tag].toLowerCase(), tag);
+        }
+
+        // Documents with the same identifier are represented by the first of them
+        String[] identifiers = new String[numberOfDocuments];
+        int[] representatives = new int[numberOfDocuments];
+        Map<String, Integer> firstOccurrences = new HashMap<>();
+        boolean duplicatesExist = false;
+        for (int document = 0; document < numberOfDocuments; document++) {
+            identifiers[document] = documents.get(document).getIdentifier();
+            Integer firstOccurrence = firstOccurrences.putIfAbsent(identifiers[document], document);
+            representatives[document] = firstOccurrence == null ? document : firstOccurrence;
+            duplicatesExist |= firstOccurrence != null;
+        }
+
+        this.directAccessCounts = new int[numberOfDocuments];
+        this.directValueIndices = new int[tagIdentifiers.length][numberOfDocuments];
+        List<Map<String, Integer>> valueDictionaries = new ArrayList<>();
+        for (int tag = 0; tag < tagIdentifiers.length; tag++) {
+            Map<String, Integer> dictionary = new HashMap<>();
+            dictionary.put(TAG_VALUE_UNDEFINED, 0);
+            valueDictionaries.add(dictionary);
+        }
+        for (int document = 0; document < numberOfDocuments; document++) {
+            Document currentDocument = documents.get(document);
+            directAccessCounts[document] = currentDocument.getAccessCount();
+            for (String tagIdentifier : currentDocument.getTagIdentifiers()) {
+                int tag = tagIndices.get(tagIdentifier.toLowerCase());
+                Map<String, Integer> dictionary = valueDictionaries.get(tag);
+                String value = currentDocument.getTagValue(tagIdentifier);
+                Integer valueIndex = dictionary.putIfAbsent(value, dictionary.size());
+                directValueIndices[tag][document] = valueIndex == null ? dictionary.size() - 1 : valueIndex;
+            }
+        }
+
+        this.values = new String[tagIdentifiers.length][];
+        for (int tag = 0; tag < tagIdentifiers.length; tag++) {
+            values[tag] = new String[valueDictionaries.get(tag).size()];
+            for (Map.Entry<String, Integer> entry : valueDictionaries.get(tag).entrySet()) {
+                values[tag][entry.getValue()] = entry.getKey();
+            }
+        }
+
+        this.numericValues = new long[tagIdentifiers.length][];
+        for (int tag = 0; tag < tagIdentifiers.length; tag++) {
+            numericValues[tag] = parseNumericValues(values[tag]);
+        }
+
+        if (duplicatesExist) {
+            this.accessCounts = new int[numberOfDocuments];
+            this.valueIndices = new int[tagIdentifiers.length][numberOfDocuments];
+            for (int document = 0; document < numberOfDocuments; document++) {
+                accessCounts[document] = directAccessCounts[representatives[document]];
+                for (int tag = 0; tag < tagIdentifiers.length; tag++) {
+                    valueIndices[tag][document] = directValueIndices[tag][representatives[document]];
+                }
+            }
+        } else {
+            this.accessCounts = directAccessCounts;
+            this.valueIndices = directValueIndices;
+        }
+
+        this.weightedLog2Counts = new double[numberOfDocuments];
+        for (int document = 0; document < numberOfDocuments; document++) {
+            weightedLog2Counts[document] = EntropyKernels.weightedLog2(accessCounts[document]);
+        }
+
+        Integer[] sortedDocuments = new Integer[numberOfDocuments];
+        for (int document = 0; document < numberOfDocuments; document++) {
+            sortedDocuments[document] = document;
+        }
+        Arrays.sort(sortedDocuments, Comparator.comparing(document -> identifiers[document]));
+        this.documentsByIdentifier = new int[numberOfDocuments];
+        this.identifierRanks = new int[numberOfDocuments];
+        for (int rank = 0; rank < numberOfDocuments; rank++) {
+            documentsByIdentifier[rank] = sortedDocuments[rank];
+            identifierRanks[sortedDocuments[rank]] = rank;
+        }
+    }
+
+    // A tag is numeric if it has a defined value and every defined value is an integer that fits into a long
+    private static long[] parseNumericValues(String[] tagValues) {
+        long[] parsedValues = new long[tagValues.length];
+        boolean definedValueExists = false;
+        for (int valueIndex = 0; valueIndex < tagValues.length; valueIndex++) {
+            String value = tagValues[valueIndex];
+            if (value.equals(TAG_VALUE_UNDEFINED) || value.equalsIgnoreCase(TAG_VALUE_EXPLICIT_UNDEFINED)) {
+                continue;
+            }
+            if (!value.matches(NUMERIC_VALUE_PATTERN)) {
+                return null;
+            }
+            try {
+                parsedValues[valueIndex] = Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            definedValueExists = true;
+        }
+        return definedValueExists ? parsedValues : null;
+    }
+
+    /**
+     * Returns the number of documents.
+     *
+     * @return the number of documents
+     */
+    int getNumberOfDocuments() {
+        return documents.size();
+    }
+
+    /**
+     * Returns the number of tags, which are indexed in case-insensitive order of their identifiers.
+     *
+     * @return the number of tags
+     */
+    int getNumberOfTags() {
+        return tagIdentifiers.length;
+    }
+
+    /**
+     * Returns the identifier of a tag.
+     *
+     * @param tag the index of the tag
+     * @return the identifier of the tag
+     */
+    String getTagIdentifier(int tag) {
+        return tagIdentifiers[tag];
+    }
+
+    /**
+     * Returns the identifier of a document.
+     *
+     * @param document the index of the document
+     * @return the identifier of the document
+     */
+    String getDocumentIdentifier(int document) {
+        return documents.get(document).getIdentifier();
+    }
+
+    /**
+     * Returns the access count of the first document with the identifier of the given document.
+     *
+     * @param document the index of the document
+     * @return the access count looked up by identifier
+     */
+    int getAccessCount(int document) {
+        return accessCounts[document];
+    }
+
+    /**
+     * Returns the access counts of all documents, looked up by identifier. The array must not be modified.
+     *
+     * @return the access counts by document index
+     */
+    int[] getAccessCounts() {
+        return accessCounts;
+    }
+
+    /**
+     * Returns {@code count · log2(count)} of the access counts of all documents, looked up by identifier. The array
+     * must not be modified.
+     *
+     * @return the weighted logarithms of the access counts by document index
+     */
+    double[] getWeightedLog2Counts() {
+        return weightedLog2Counts;
+    }
+
+    /**
+     * Returns the access count of the given document itself.
+     *
+     * @param document the index of the document
+     * @return the access count of the document
+     */
+    int getDirectAccessCount(int document) {
+        return directAccessCounts[document];
+    }
+
+    /**
+     * Returns the value of a tag for the first document with the identifier of the given document.
+     *
+     * @param tag      the index of the tag
+     * @param document the index of the document
+     * @return the index of the value looked up by identifier
+     */
+    int getValueIndex(int tag, int document) {
+        return valueIndices[tag][document];
+    }
+
+    /**
+     * Returns the values of a tag for all documents, looked up by identifier. The array must not be modified.
+     *
+     * @param tag the index of the tag
+     * @return the value indices by document index
+     */
+    int[] getValueColumn(int tag) {
+        return valueIndices[tag];
+    }
+
+    /**
+     * Returns the value of a tag for the given document itself.
+     *
+     * @param tag      the index of the tag
+     * @param document the index of the document
+     * @return the index of the value of the document
+     */
+    int getDirectValueIndex(int tag, int document) {
+        return directValueIndices[tag][document];
+    }
+
+    /**
+     * Returns the number of distinct values of a tag in all documents, including "undefined".
+     *
+     * @param tag the index of the tag
+     * @return the number of distinct values
+     */
+    int getNumberOfValues(int tag) {
+        return values[tag].length;
+    }
+
+    /**
+     * Returns a value of a tag.
+     *
+     * @param tag        the index of the tag
+     * @param valueIndex the index of the value
+     * @return the value
+     */
+    String getValue(int tag, int valueIndex) {
+        return values[tag][valueIndex];
+    }
+
+    /**
+     * Returns whether a tag is numeric, that is whether all its defined values are integers.
+     *
+     * @param tag the index of the tag
+     * @return true if the tag is numeric, false otherwise
+     */
+    boolean isNumeric(int tag) {
+        return numericValues[tag] != null;
+    }
+
+    /**
+     * Returns whether a value of a numeric tag is a number, rather than "undefined" or "explicitUndefined!".
+     *
+     * @param tag        the index of the numeric tag
+     * @param valueIndex the index of the value
+     * @return true if the value is a number, false otherwise
+     */
+    boolean isNumericValue(int tag, int valueIndex) {
+        String value = values[tag][valueIndex];
+        return !value.equals(TAG_VALUE_UNDEFINED) && !value.equalsIgnoreCase(TAG_VALUE_EXPLICIT_UNDEFINED);
+    }
+
+    /**
+     * Returns a value of a numeric tag as number.
+     *
+     * @param tag        the index of the numeric tag
+     * @param valueIndex the index of a value that is a number
+     * @return the value as number
+     */
+    long getNumericValue(int tag, int valueIndex) {
+        return numericValues[tag][valueIndex];
+    }
+
+    /**
+     * Returns the rank of a document among all documents sorted by identifier.
+     *
+     * @param document the index of the document
+     * @return the rank of the document
+     */
+    int getIdentifierRank(int document) {
+        return identifierRanks[document];
+    }
+
+    /**
+     * Returns the document with the given rank among all documents sorted by identifier.
+     *
+     * @param rank the rank of the document
+     * @return the index of the document with given rank
+     */
+    int getDocumentByIdentifierRank(int rank) {
+        return documentsByIdentifier[rank];
+    }
+
+    /**
+     * Returns a hash of the content of a document that does not depend on the other documents of the table: its
+     * identifier, its access counts and its values of all tags, both looked up by identifier and its own. Documents
+     * with the same content in different tables have the same hash.
+     *
+     * @param document the index of the document
+     * @return the hash of the content of the document
+     */
+    long getContentHash(int document) {
+        long[] hashes = contentHashes;
+        if (hashes == null) {
+            hashes = new long[documents.size()];
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = calculateContentHash(i);
+            }
+            contentHashes = hashes;
+        }
+        return hashes[document];
+    }
+
+    // The tags are in case-insensitive order, so that every table hashes the defined values in the same order
+    private long calculateContentHash(int document) {
+        long hash = hash(HASH_OFFSET_BASIS, getDocumentIdentifier(document));
+        hash = hash(hash, Integer.toString(accessCounts[document]));
+        hash = hash(hash, Integer.toString(directAccessCounts[document]));
+        for (int tag = 0; tag < tagIdentifiers.length; tag++) {
+            if (valueIndices[tag][document] != 0 || directValueIndices[tag][document] != 0) {
+                hash = hash(hash, tagIdentifiers[tag].toLowerCase());
+                hash = hash(hash, values[tag][valueIndices[tag][document]]);
+                hash = hash(hash, values[tag][directValueIndices[tag][document]]);
+            }
+        }
+        hash ^= hash >>> MIX_SHIFT_1;
+        hash *= MIX_MULTIPLIER_1;
+        hash ^= hash >>> MIX_SHIFT_2;
+        hash *= MIX_MULTIPLIER_2;
+        return hash ^ (hash >>> MIX_SHIFT_3);
+    }
+
+    // Every string is terminated by a character that no string contains, so that adjacent strings cannot shift
+    private static long hash(long hash, String string) {
+        long result = hash;
+        for (int i = 0; i < string.length(); i++) {
+            result = (result ^ string.charAt(i)) * HASH_PRIME;
+        }
+        return (result ^ Character.MAX_VALUE) * HASH_PRIME;
+    }
+
+    /**
+     * Checks whether a document has the same content as a document of another table, like the content hash would
+     * suggest.
+     *
+     * @param document      the index of the document
+     * @param other         the other table
+     * @param otherDocument the index of the document in the other table
+     * @return true if both documents have the same content, false otherwise
+     */
+    boolean hasSameContent(int document, DocumentTable other, int otherDocument) {
+        if (!getDocumentIdentifier(document).equals(other.getDocumentIdentifier(otherDocument))
+                || accessCounts[document] != other.accessCounts[otherDocument]
+                || directAccessCounts[document] != other.directAccessCounts[otherDocument]) {
+            return false;
+        }
+        return hasValuesOf(document, other, otherDocument) && other.hasValuesOf(otherDocument, this, document);
+    }
+
+    // Every tag of this table has the same values in the other table, where a missing tag is undefined
+    private boolean hasValuesOf(int document, DocumentTable other, int otherDocument) {
+        for (int tag = 0; tag < tagIdentifiers.length; tag++) {
+            Integer otherTag = other.tagIndices.get(tagIdentifiers[tag].toLowerCase());
+            String value = values[tag][valueIndices[tag][document]];
+            String directValue = values[tag][directValueIndices[tag][document]];
+            String otherValue = otherTag == null
+                    ? TAG_VALUE_UNDEFINED
+                    : other.values[otherTag][other.valueIndices[otherTag][otherDocument]];
+            String otherDirectValue = otherTag == null
+                    ? TAG_VALUE_UNDEFINED
+                    : other.values[otherTag][other.directValueIndices[otherTag][otherDocument]];
+            if (!value.equals(otherValue) || !directValue.equals(otherDirectValue)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the highest number of distinct values of any tag.
+     *
+     * @return the highest number of distinct values
+     */
+    int getMaximumNumberOfValues() {
+        int maximum = 0;
+        for (String[] tagValues : values) {
+            maximum = Math.max(maximum, tagValues.length);
+        }
+        return maximum;
+    }
+}
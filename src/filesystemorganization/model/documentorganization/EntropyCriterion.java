@@ -0,0 +1,42 @@
+package filesystemorganization.model.documentorganization;
+
+/**
+ * This class represents the Shannon entropy as split criterion. The terms of the documents cancel out of the remaining
+ * entropy of the children, so the gain only depends on their totals:
+ * {@code IG = H - (sum(total · log2(total)) - sum(count · log2(count))) / total}.
+ *
+ * @author ujxbs
+ */
+final class EntropyCriterion implements SplitCriterion {
+
+    private static final double STARTING_SUM = 0;
+
+    @Override
+    public double calculateDocumentTerm(int accessCount) {
+        return EntropyKernels.weightedLog2(accessCount);
+    }
+
+    @Override
+    public double calculateImpurity(long total, double termSum) {
+        return EntropyKernels.entropy(total, termSum);
+    }
+
+    @Override
+    public boolean dependsOnGroupTermSums() {
+        return false;
+    }
+
+    @Override
+    public double calculateGain(long total, double termSum, double[] groupTotals, double[] groupTermSums,
+                                int numberOfGroups) {
+        double weightedLog2GroupSum = STARTING_SUM;
+        for (int i = 0; i < numberOfGroups; i++) {
+            weightedLog2GroupSum += EntropyKernels.weightedLog2((long) groupTotals[i]);
+        }
+
+        // The remaining uncertainty sums up the uncertainty of every group, weighted by its probability
+        double uncertainty = EntropyKernels.entropy(total, termSum);
+        double remainingUncertainty = (weightedLog2GroupSum - termSum) / total;
+        return uncertainty - remainingUncertainty;
+    }
+}
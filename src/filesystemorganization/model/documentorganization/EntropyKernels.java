@@ -0,0 +1,404 @@
+package filesystemorganization.model.documentorganization;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * This class provides the primitive loops that information gains are calculated with. Access counts are summed as
+ * integers, and every document contributes its precomputed term {@code count · log2(count)}, so that an entropy needs
+ * a single logarithm and division at the end:
+ * {@code H = log2(total) - sum(count · log2(count)) / total}. The plain information gain of a tag is summed term by
+ * term instead, so that ties between tags are decided as they always were.
+ *
+ * @author ujxbs
+ */
+final class EntropyKernels {
+
+    private static final String UTILITY_CLASS_CONSTRUCTOR_MESSAGE = "Utility classes cannot be instantiated";
+    private static final double NATURAL_LOG_OF_TWO = Math.log(2);
+    private static final long UNSEEN_TOTAL = -1;
+    private static final int MINIMUM_SHARD_SIZE = 1 << 15;
+    private static final int SEQUENTIAL = 1;
+
+    private EntropyKernels() {
+        throw new UnsupportedOperationException(UTILITY_CLASS_CONSTRUCTOR_MESSAGE);
+    }
+
+    /**
+     * Calculates {@code count · log2(count)}. Like the probability term {@code 0 · log2(0)}, it is not a number for
+     * a count of zero, so that an entropy involving a document without accesses is not a number either.
+     *
+     * @param count the count
+     * @return the weighted logarithm of the count
+     */
+    static double weightedLog2(long count) {
+        return count * (Math.log(count) / NATURAL_LOG_OF_TWO);
+    }
+
+    /**
+     * Calculates the logarithm to base two.
+     *
+     * @param value the value
+     * @return the binary logarithm of the value
+     */
+    static double log2(double value) {
+        return Math.log(value) / NATURAL_LOG_OF_TWO;
+    }
+
+    /**
+     * Calculates the entropy of a distribution from its total and the sum of the weighted logarithms of its parts.
+     *
+     * @param total           the total of all parts
+     * @param weightedLog2Sum the sum of {@code part · log2(part)} over all parts
+     * @return the entropy in bits
+     */
+    static double entropy(long total, double weightedLog2Sum) {
+        return Math.log(total) / NATURAL_LOG_OF_TWO - weightedLog2Sum / total;
+    }
+
+    /**
+     * Sums the values of a range of documents.
+     *
+     * @param documents the indices of the documents
+     * @param from      the first position of the range, inclusive
+     * @param to        the last position of the range, exclusive
+     * @param values    the values of all documents
+     * @return the sum of the values
+     */
+    static long sum(int[] documents, int from, int to, int[] values) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[documents[i]];
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the values of a range of documents.
+     *
+     * @param documents the indices of the documents
+     * @param from      the first position of the range, inclusive
+     * @param to        the last position of the range, exclusive
+     * @param values    the values of all documents
+     * @return the sum of the values
+     */
+    static double sum(int[] documents, int from, int to, double[] values) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[documents[i]];
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the access counts of a range of documents per value of a tag.
+     *
+     * @param documents     the indices of the documents
+     * @param from          the first position of the range, inclusive
+     * @param to            the last position of the range, exclusive
+     * @param accessCounts  the access counts of all documents
+     * @param valueColumn   the value indices of the tag for all documents
+     * @param valueTotals   receives the total access count per value index
+     * @param presentValues receives the value indices that occur in the range, in order of their first occurrence
+     * @return the number of values that occur in the range
+     */
+    static int sumPerValue(int[] documents, int from, int to, int[] accessCounts, int[] valueColumn,
+                           long[] valueTotals, int[] presentValues) {
+        for (int i = from; i < to; i++) {
+            valueTotals[valueColumn[documents[i]]] = UNSEEN_TOTAL;
+        }
+        int numberOfValues = 0;
+        for (int i = from; i < to; i++) {
+            int document = documents[i];
+            int valueIndex = valueColumn[document];
+            if (valueTotals[valueIndex] == UNSEEN_TOTAL) {
+                valueTotals[valueIndex] = 0;
+                presentValues[numberOfValues++] = valueIndex;
+            }
+            valueTotals[valueIndex] += accessCounts[document];
+        }
+        return numberOfValues;
+    }
+
+    /**
+     * Sums the terms of a range of documents per value of a tag, for the values that {@link #sumPerValue} found.
+     *
+     * @param documents      the indices of the documents
+     * @param from           the first position of the range, inclusive
+     * @param to             the last position of the range, exclusive
+     * @param terms          the terms of all documents
+     * @param valueColumn    the value indices of the tag for all documents
+     * @param presentValues  the value indices that occur in the range
+     * @param numberOfValues the number of values that occur in the range
+     * @param termTotals     receives the sum of the terms per value index
+     */
+    static void sumTermsPerValue(int[] documents, int from, int to, double[] terms, int[] valueColumn,
+                                 int[] presentValues, int numberOfValues, double[] termTotals) {
+        for (int i = 0; i < numberOfValues; i++) {
+            termTotals[presentValues[i]] = 0;
+        }
+        for (int i = from; i < to; i++) {
+            int document = documents[i];
+            termTotals[valueColumn[document]] += terms[document];
+        }
+    }
+
+    /**
+     * Calculates the entropy of a range of documents term by term, {@code -sum(p · log2(p))} with
+     * {@code p = count / total} summed in the order of the documents. Unlike {@link #entropy}, the rounding is that of
+     * the information gains the tree has always been built with, which decides between tags of almost equal gains.
+     *
+     * @param documents    the indices of the documents
+     * @param from         the first position of the range, inclusive
+     * @param to           the last position of the range, exclusive
+     * @param accessCounts the access counts of all documents
+     * @param total        the total access count of the range
+     * @return the entropy in bits
+     */
+    static double entropyInOrder(int[] documents, int from, int to, int[] accessCounts, long total) {
+        double weightedLog2Sum = 0;
+        for (int i = from; i < to; i++) {
+            weightedLog2Sum += weightedLog2Probability(accessCounts[documents[i]], total);
+        }
+        return -weightedLog2Sum;
+    }
+
+    /**
+     * Calculates the entropy of every value of a tag within a range of documents and the share of the range's
+     * accesses every value has, term by term in the order of the documents like {@link #entropyInOrder}.
+     *
+     * @param documents      the indices of the documents
+     * @param from           the first position of the range, inclusive
+     * @param to             the last position of the range, exclusive
+     * @param accessCounts   the access counts of all documents
+     * @param valueColumn    the value indices of the tag for all documents
+     * @param valueTotals    the total access count per value index, as summed by {@link #sumPerValue}
+     * @param total          the total access count of the range
+     * @param presentValues  the value indices that occur in the range
+     * @param numberOfValues the number of values that occur in the range
+     * @param valueEntropies receives the entropy per value index
+     * @param valueShares    receives the share of the accesses per value index
+     */
+    static void sumEntropiesPerValue(int[] documents, int from, int to, int[] accessCounts, int[] valueColumn,
+                                     long[] valueTotals, long total, int[] presentValues, int numberOfValues,
+                                     double[] valueEntropies, double[] valueShares) {
+        for (int i = 0; i < numberOfValues; i++) {
+            valueEntropies[presentValues[i]] = 0;
+            valueShares[presentValues[i]] = 0;
+        }
+        for (int i = from; i < to; i++) {
+            int document = documents[i];
+            int valueIndex = valueColumn[document];
+            valueEntropies[valueIndex] += weightedLog2Probability(accessCounts[document], valueTotals[valueIndex]);
+            valueShares[valueIndex] += probability(accessCounts[document], total);
+        }
+        for (int i = 0; i < numberOfValues; i++) {
+            valueEntropies[presentValues[i]] = -valueEntropies[presentValues[i]];
+        }
+    }
+
+    /**
+     * Calculates the probability of a part of a total, which is zero if the total is zero.
+     *
+     * @param count the count of the part
+     * @param total the total of all parts
+     * @return the probability of the part
+     */
+    static double probability(long count, long total) {
+        return total == 0 ? 0 : (double) count / total;
+    }
+
+    /**
+     * Calculates {@code p · log2(p)} of the probability of a part of a total. It is not a number for a count of zero.
+     *
+     * @param count the count of the part
+     * @param total the total of all parts
+     * @return the weighted logarithm of the probability
+     */
+    static double weightedLog2Probability(long count, long total) {
+        double probability = probability(count, total);
+        return probability * log2(probability);
+    }
+
+    /**
+     * Decides into how many shards the documents of a range are split to sum their access counts per value in
+     * parallel. Sharding pays off once every processor gets a large shard and merging the partial sums is cheap
+     * compared to summing them.
+     *
+     * @param numberOfDocuments the number of documents in the range
+     * @param numberOfValues    the number of distinct values of the tag
+     * @return the number of shards, one if the range is summed sequentially
+     */
+    static int chooseNumberOfShards(int numberOfDocuments, int numberOfValues) {
+        int numberOfShards = Math.min(Runtime.getRuntime().availableProcessors(),
+                numberOfDocuments / MINIMUM_SHARD_SIZE);
+        if (numberOfShards <= SEQUENTIAL || (long) numberOfShards * numberOfValues > numberOfDocuments) {
+            return SEQUENTIAL;
+        }
+        return numberOfShards;
+    }
+
+    /**
+     * Sums the access counts of a range of documents per value of a tag in parallel. Every shard of the range is
+     * summed into its own partial totals, which are merged in the order of the shards. As integer sums, the result is
+     * the same as that of {@link #sumPerValue}, including the order of the present values.
+     *
+     * @param documents      the indices of the documents
+     * @param from           the first position of the range, inclusive
+     * @param to             the last position of the range, exclusive
+     * @param accessCounts   the access counts of all documents
+     * @param valueColumn    the value indices of the tag for all documents
+     * @param numberOfValues the number of distinct values of the tag
+     * @param valueTotals    receives the total access count per value index
+     * @param presentValues  receives the value indices that occur in the range, in order of their first occurrence
+     * @param numberOfShards the number of shards to split the range into
+     * @return the number of values that occur in the range
+     */
+    static int sumPerValueInShards(int[] documents, int from, int to, int[] accessCounts, int[] valueColumn,
+                                   int numberOfValues, long[] valueTotals, int[] presentValues, int numberOfShards) {
+        int length = to - from;
+        List<PartialTotals> partials = IntStream.range(0, numberOfShards).parallel()
+                .mapToObj(shard -> {
+                    int shardFrom = from + (int) ((long) length * shard / numberOfShards);
+                    int shardTo = from + (int) ((long) length * (shard + 1) / numberOfShards);
+                    long[] shardTotals = new long[numberOfValues];
+                    int[] shardValues = new int[Math.min(numberOfValues, shardTo - shardFrom)];
+                    int numberOfShardValues = sumPerValue(documents, shardFrom, shardTo, accessCounts, valueColumn,
+                            shardTotals, shardValues);
+                    return new PartialTotals(shardTotals, shardValues, numberOfShardValues);
+                })
+                .toList();
+
+        for (PartialTotals partial : partials) {
+            for (int i = 0; i < partial.numberOfValues(); i++) {
+                valueTotals[partial.values()[i]] = UNSEEN_TOTAL;
+            }
+        }
+        int numberOfPresentValues = 0;
+        for (PartialTotals partial : partials) {
+            for (int i = 0; i < partial.numberOfValues(); i++) {
+                int valueIndex = partial.values()[i];
+                if (valueTotals[valueIndex] == UNSEEN_TOTAL) {
+                    valueTotals[valueIndex] = 0;
+                    presentValues[numberOfPresentValues++] = valueIndex;
+                }
+                valueTotals[valueIndex] += partial.totals()[valueIndex];
+            }
+        }
+        return numberOfPresentValues;
+    }
+
+    /**
+     * Reorders values so that the given number of largest values come first, in linear time on average. The order
+     * within both parts is unspecified.
+     *
+     * @param values the values
+     * @param length the number of values to consider, from the start of the array
+     * @param count  the number of largest values to move to the start
+     */
+    static void selectLargest(double[] values, int length, int count) {
+        int left = 0;
+        int right = length - 1;
+        int position = count - 1;
+        while (left < right) {
+            double pivot = values[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] > pivot) {
+                    i++;
+                }
+                while (values[j] < pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double value = values[i];
+                    values[i++] = values[j];
+                    values[j--] = value;
+                }
+            }
+            if (position <= j) {
+                right = j;
+            } else if (position >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Splits a sequence of totals into contiguous bins such that {@code sum(total · log2(total))} over the bins is
+     * minimal, which maximizes the entropy of the bins and thereby the information gain of a split at their
+     * thresholds. As {@code x · log2(x)} is convex, the best start of the last bin moves right with its end, so every
+     * number of bins is solved by divide and conquer over the ends in {@code O(n log n)}.
+     *
+     * @param totals       the totals in the order of the sequence
+     * @param length       the number of totals to consider, from the start of the array
+     * @param numberOfBins the number of bins, at least one and at most the length
+     * @return the exclusive end of every bin
+     */
+    static int[] findOptimalBins(double[] totals, int length, int numberOfBins) {
+        if (numberOfBins == length) {
+            int[] binEnds = new int[numberOfBins];
+            for (int bin = 0; bin < numberOfBins; bin++) {
+                binEnds[bin] = bin + 1;
+            }
+            return binEnds;
+        }
+        double[] prefixSums = new double[length + 1];
+        for (int i = 0; i < length; i++) {
+            prefixSums[i + 1] = prefixSums[i] + totals[i];
+        }
+        double[] previousCosts = new double[length + 1];
+        double[] costs = new double[length + 1];
+        int[][] binStarts = new int[numberOfBins][length + 1];
+        for (int end = 1; end <= length; end++) {
+            previousCosts[end] = binCost(prefixSums[end]);
+        }
+        for (int bin = 1; bin < numberOfBins; bin++) {
+            solveBins(prefixSums, previousCosts, costs, binStarts[bin], bin + 1, length, bin, length - 1);
+            double[] swap = previousCosts;
+            previousCosts = costs;
+            costs = swap;
+        }
+
+        int[] binEnds = new int[numberOfBins];
+        int end = length;
+        for (int bin = numberOfBins - 1; bin >= 0; bin--) {
+            binEnds[bin] = end;
+            end = binStarts[bin][end];
+        }
+        return binEnds;
+    }
+
+    // Finds the best start of the last bin for every end in a range, knowing the range the best starts lie in
+    private static void solveBins(double[] prefixSums, double[] previousCosts, double[] costs, int[] binStarts,
+                                  int fromEnd, int toEnd, int fromStart, int toStart) {
+        if (fromEnd > toEnd) {
+            return;
+        }
+        int end = (fromEnd + toEnd) >>> 1;
+        int bestStart = fromStart;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (int start = fromStart; start <= Math.min(toStart, end - 1); start++) {
+            double cost = previousCosts[start] + binCost(prefixSums[end] - prefixSums[start]);
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestStart = start;
+            }
+        }
+        costs[end] = bestCost;
+        binStarts[end] = bestStart;
+        solveBins(prefixSums, previousCosts, costs, binStarts, fromEnd, end - 1, fromStart, bestStart);
+        solveBins(prefixSums, previousCosts, costs, binStarts, end + 1, toEnd, bestStart, toStart);
+    }
+
+    // Bins without accesses cost nothing, so that the search stays defined where the entropy is not
+    private static double binCost(double total) {
+        return total > 0 ? total * (Math.log(total) / NATURAL_LOG_OF_TWO) : 0;
+    }
+
+    private record PartialTotals(long[] totals, int[] values, int numberOfValues) {
+    }
+}
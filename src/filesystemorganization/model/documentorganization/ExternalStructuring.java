@@ -0,0 +1,318 @@
+package filesystemorganization.model.documentorganization;
+
+import filesystemorganization.model.document.Document;
+import filesystemorganization.model.document.DocumentSerializer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
+
+/**
+ * This class structures documents that do not fit into memory at once. The documents are written to a partition file
+ * as they are added. A partition whose documents exceed the memory budget is split by the tag with the highest
+ * information gain into one partition file per value, each of which is structured on its own, while a partition within
+ * the budget is read back and structured in memory like a loaded input file. The gains of a partition over the budget
+ * take two passes over its file.
+ * <p>
+ * The output equals that of an {@link AutomaticStructuring} of all documents, as long as no identifier occurs twice.
+ * The information gains are written as they are calculated, while the documents are collected in a file of their own
+ * and written after them.
+ *
+ * @author ujxbs
+ */
+public final class ExternalStructuring implements Closeable {
+
+    private static final String PARTITION_FILE_FORMAT = "partition-%d.bin";
+    private static final String DOCUMENTS_FILE = "documents.txt";
+    private static final String INFORMATION_GAINS_DOCUMENTS_SEPARATOR = "---";
+    private static final String ROOT_PATH = "";
+    private static final String TAG_SEPARATOR = "/";
+    private static final String TAG_VALUE_SEPARATOR = "=";
+    private static final String TAG_VALUE_UNDEFINED = "undefined";
+    private static final String TAG_VALUE_EXPLICIT_UNDEFINED = "explicitUndefined!";
+    private static final char DOCUMENT_IDENTIFIER_AFFIX = '"';
+    private static final long HEAP_SHARE = 4;
+    private static final long IDENTIFIER_FOOTPRINT = 48;
+    private static final int MAXIMUM_OPEN_PARTITIONS = 256;
+    private final DocumentSerializer serializer = new DocumentSerializer();
+    private final Path workingDirectory;
+    private final long memoryBudget;
+    private final Partition root;
+    private DataOutputStream rootOutput;
+    private int numberOfPartitionFiles = 0;
+
+    /**
+     * Constructs an external structuring without documents.
+     *
+     * @param workingDirectory the directory for the partition files, which is deleted when the structuring is closed
+     * @param memoryBudget     the highest estimated footprint of the documents that are structured in memory at once,
+     *                         which is further limited to a share of the heap
+     * @throws IOException if the first partition file could not be created
+     */
+    public ExternalStructuring(Path workingDirectory, long memoryBudget) throws IOException {
+        this.workingDirectory = Files.createDirectories(workingDirectory);
+        this.memoryBudget = Math.min(memoryBudget, Runtime.getRuntime().maxMemory() / HEAP_SHARE);
+        this.root = new Partition(nextPartitionFile());
+        this.rootOutput = openPartition(root.file);
+    }
+
+    /**
+     * Adds a document to be structured. The document is written to the disk and not kept.
+     *
+     * @param document the document in the order of the input file
+     * @throws IOException if the document could not be written
+     */
+    public void addDocument(Document document) throws IOException {
+        serializer.write(rootOutput, document);
+        root.add(document);
+    }
+
+    /**
+     * Structures all added documents and writes the structuring to the given file, in the format of
+     * {@link AutomaticStructuring#toString()}.
+     *
+     * @param outputFile the file to write the structuring to
+     * @throws IOException           if a partition file or the output file could not be accessed
+     * @throws CancellationException if the structuring thread was interrupted
+     */
+    public void writeStructuring(Path outputFile) throws IOException {
+        rootOutput.close();
+        rootOutput = null;
+        Path documentsFile = workingDirectory.resolve(DOCUMENTS_FILE);
+        try (BufferedWriter output = Files.newBufferedWriter(outputFile)) {
+            try (BufferedWriter documentsOutput = Files.newBufferedWriter(documentsFile)) {
+                structure(root, ROOT_PATH, output, documentsOutput);
+            }
+            output.write(INFORMATION_GAINS_DOCUMENTS_SEPARATOR);
+            output.newLine();
+            try (BufferedReader documentsInput = Files.newBufferedReader(documentsFile)) {
+                documentsInput.transferTo(output);
+            }
+        } finally {
+            Files.deleteIfExists(documentsFile);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (rootOutput != null) {
+            rootOutput.close();
+        }
+        try (Stream<Path> files = Files.list(workingDirectory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(workingDirectory);
+    }
+
+    private void structure(Partition partition, String pathPrefix, BufferedWriter output,
+                           BufferedWriter documentsOutput) throws IOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+        if (partition.numberOfDocuments == 0) {
+            Files.delete(partition.file);
+            return;
+        }
+        if (partition.footprint <= memoryBudget) {
+            AutomaticStructuring structuring = new AutomaticStructuring(readPartition(partition), pathPrefix);
+            Files.delete(partition.file);
+            writeLines(output, structuring.getSortedInformationGains());
+            writeLines(documentsOutput, structuring.getSortedDocuments());
+            return;
+        }
+
+        TagRanking tagRanking = new TagRanking();
+        try (DataInputStream input = openPartitionForReading(partition.file)) {
+            for (long i = 0; i < partition.numberOfDocuments; i++) {
+                tagRanking.addDocument(serializer.read(input));
+            }
+        }
+        try (DataInputStream input = openPartitionForReading(partition.file)) {
+            for (long i = 0; i < partition.numberOfDocuments; i++) {
+                tagRanking.addDocumentShare(serializer.read(input));
+            }
+        }
+        writeLines(output, tagRanking.getSortedInformationGains(pathPrefix));
+        String tagWithHighestIG = tagRanking.getTagWithHighestInformationGain();
+        if (tagWithHighestIG == null) {
+            writeLeaf(partition, pathPrefix, documentsOutput);
+            return;
+        }
+
+        List<String> sortedValues = tagRanking.getSortedValues(tagWithHighestIG);
+        List<Partition> children = split(partition, tagWithHighestIG, sortedValues);
+        Files.delete(partition.file);
+        String tagIdentifier = tagWithHighestIG.toLowerCase();
+        for (int i = 0; i < children.size(); i++) {
+            String value = sortedValues.get(i);
+            String tagValue = value.equalsIgnoreCase(TAG_VALUE_EXPLICIT_UNDEFINED) ? TAG_VALUE_UNDEFINED : value;
+            structure(children.get(i), pathPrefix + TAG_SEPARATOR + tagIdentifier + TAG_VALUE_SEPARATOR + tagValue,
+                    output, documentsOutput);
+        }
+    }
+
+    // Every pass over the partition writes a limited number of child partitions, so that few files are open at once
+    private List<Partition> split(Partition partition, String tagIdentifier, List<String> sortedValues)
+            throws IOException {
+        List<Partition> children = new ArrayList<>();
+        for (int first = 0; first < sortedValues.size(); first += MAXIMUM_OPEN_PARTITIONS) {
+            List<String> passValues = sortedValues.subList(first,
+                    Math.min(sortedValues.size(), first + MAXIMUM_OPEN_PARTITIONS));
+            Map<String, Integer> partOfValue = new HashMap<>();
+            List<Partition> passChildren = new ArrayList<>();
+            List<DataOutputStream> passOutputs = new ArrayList<>();
+            try {
+                for (int i = 0; i < passValues.size(); i++) {
+                    partOfValue.put(passValues.get(i), i);
+                    Partition child = new Partition(nextPartitionFile());
+                    passChildren.add(child);
+                    passOutputs.add(openPartition(child.file));
+                }
+                try (DataInputStream input = openPartitionForReading(partition.file)) {
+                    for (long i = 0; i < partition.numberOfDocuments; i++) {
+                        Document document = serializer.read(input);
+                        Integer part = partOfValue.get(document.getTagValue(tagIdentifier));
+                        if (part != null) {
+                            serializer.write(passOutputs.get(part), document);
+                            passChildren.get(part).add(document);
+                        }
+                    }
+                }
+            } finally {
+                for (DataOutputStream passOutput : passOutputs) {
+                    passOutput.close();
+                }
+            }
+            children.addAll(passChildren);
+        }
+        return children;
+    }
+
+    // The identifiers are sorted in runs that fit into the memory budget, which are merged afterwards
+    private void writeLeaf(Partition partition, String pathPrefix, BufferedWriter documentsOutput)
+            throws IOException {
+        List<Path> runs = new ArrayList<>();
+        try (DataInputStream input = openPartitionForReading(partition.file)) {
+            List<String> identifiers = new ArrayList<>();
+            long footprint = 0;
+            for (long i = 0; i < partition.numberOfDocuments; i++) {
+                String identifier = serializer.read(input).getIdentifier();
+                identifiers.add(identifier);
+                footprint += IDENTIFIER_FOOTPRINT + identifier.length();
+                if (footprint > memoryBudget || i == partition.numberOfDocuments - 1) {
+                    identifiers.sort(Comparator.naturalOrder());
+                    Path run = nextPartitionFile();
+                    try (DataOutputStream runOutput = openPartition(run)) {
+                        runOutput.writeInt(identifiers.size());
+                        for (String sortedIdentifier : identifiers) {
+                            runOutput.writeUTF(sortedIdentifier);
+                        }
+                    }
+                    runs.add(run);
+                    identifiers.clear();
+                    footprint = 0;
+                }
+            }
+        }
+        Files.delete(partition.file);
+
+        // Equal identifiers are taken from the earlier run first, so the merge is stable like a sort in memory
+        List<DataInputStream> runInputs = new ArrayList<>();
+        int[] remaining = new int[runs.size()];
+        PriorityQueue<RunHead> heads = new PriorityQueue<>(Comparator.comparing(RunHead::identifier)
+                .thenComparingInt(RunHead::run));
+        try {
+            for (int run = 0; run < runs.size(); run++) {
+                DataInputStream runInput = openPartitionForReading(runs.get(run));
+                runInputs.add(runInput);
+                remaining[run] = runInput.readInt();
+                if (remaining[run]-- > 0) {
+                    heads.add(new RunHead(runInput.readUTF(), run));
+                }
+            }
+            while (!heads.isEmpty()) {
+                RunHead head = heads.poll();
+                documentsOutput.write(pathPrefix + TAG_SEPARATOR
+                        + DOCUMENT_IDENTIFIER_AFFIX + head.identifier() + DOCUMENT_IDENTIFIER_AFFIX);
+                documentsOutput.newLine();
+                if (remaining[head.run()]-- > 0) {
+                    heads.add(new RunHead(runInputs.get(head.run()).readUTF(), head.run()));
+                }
+            }
+        } finally {
+            for (DataInputStream runInput : runInputs) {
+                runInput.close();
+            }
+        }
+        for (Path run : runs) {
+            Files.delete(run);
+        }
+    }
+
+    private List<Document> readPartition(Partition partition) throws IOException {
+        List<Document> documents = new ArrayList<>();
+        try (DataInputStream input = openPartitionForReading(partition.file)) {
+            for (long i = 0; i < partition.numberOfDocuments; i++) {
+                documents.add(serializer.read(input));
+            }
+        }
+        return documents;
+    }
+
+    private void writeLines(BufferedWriter writer, List<String> lines) throws IOException {
+        for (String line : lines) {
+            writer.write(line);
+            writer.newLine();
+        }
+    }
+
+    private Path nextPartitionFile() {
+        return workingDirectory.resolve(PARTITION_FILE_FORMAT.formatted(numberOfPartitionFiles++));
+    }
+
+    private DataOutputStream openPartition(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+    }
+
+    private DataInputStream openPartitionForReading(Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+    }
+
+    /**
+     * A partition file with the number and the estimated footprint of its documents.
+     */
+    private static final class Partition {
+        private final Path file;
+        private long numberOfDocuments = 0;
+        private long footprint = 0;
+
+        private Partition(Path file) {
+            this.file = file;
+        }
+
+        private void add(Document document) {
+            numberOfDocuments++;
+            footprint += document.estimateFootprint();
+        }
+    }
+
+    private record RunHead(String identifier, int run) {
+    }
+}
@@ -0,0 +1,41 @@
+package filesystemorganization.model.documentorganization;
+
+/**
+ * This class represents the gain ratio as split criterion. As every document is a class of its own, the information
+ * gain of a split equals the entropy of its children, and so does the usual split information. The information gain
+ * is therefore divided by the highest entropy of as many children instead, {@code log2(numberOfChildren)}, which
+ * favors tags that split a branch evenly into few children.
+ *
+ * @author ujxbs
+ */
+final class GainRatioCriterion implements SplitCriterion {
+
+    private static final double NO_GAIN = 0;
+    private static final int SINGLE_GROUP = 1;
+
+    @Override
+    public double calculateDocumentTerm(int accessCount) {
+        return SplitCriterion.ENTROPY.calculateDocumentTerm(accessCount);
+    }
+
+    @Override
+    public double calculateImpurity(long total, double termSum) {
+        return SplitCriterion.ENTROPY.calculateImpurity(total, termSum);
+    }
+
+    @Override
+    public boolean dependsOnGroupTermSums() {
+        return false;
+    }
+
+    @Override
+    public double calculateGain(long total, double termSum, double[] groupTotals, double[] groupTermSums,
+                                int numberOfGroups) {
+        if (numberOfGroups <= SINGLE_GROUP) {
+            return NO_GAIN;
+        }
+        double informationGain = SplitCriterion.ENTROPY.calculateGain(total, termSum, groupTotals, groupTermSums,
+                numberOfGroups);
+        return informationGain / EntropyKernels.log2(numberOfGroups);
+    }
+}
@@ -0,0 +1,11 @@
+package filesystemorganization.model.documentorganization;
+
+/**
+ * This class represents an information gain estimated from a sample, with the half width of its confidence interval.
+ *
+ * @param informationGain the estimated information gain
+ * @param halfWidth       the half width of the 95% confidence interval around the estimate
+ * @author ujxbs
+ */
+record InformationGainEstimate(double informationGain, double halfWidth) {
+}
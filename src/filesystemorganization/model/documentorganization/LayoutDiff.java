@@ -0,0 +1,129 @@
+package filesystemorganization.model.documentorganization;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents the operations that turn the directories of a materialized structuring into those of another
+ * structuring of the same documents. Directories are created first, then whole directories and single documents are
+ * moved, and finally the directories that are left empty are removed. All paths are relative to the target directory
+ * of the materialization.
+ *
+ * @author ujxbs
+ */
+public final class LayoutDiff {
+
+    private static final String CREATE_FORMAT = "create /%s";
+    private static final String MOVE_FORMAT = "move /%s /%s";
+    private static final String REMOVE_FORMAT = "remove /%s";
+    private final Materializer.Layout layout;
+    private final List<String> createdDirectories;
+    private final List<Move> directoryMoves;
+    private final List<Move> documentMoves;
+    private final List<String> removedDirectories;
+
+    /**
+     * Constructs a diff.
+     *
+     * @param layout             the layout the diff leads to
+     * @param createdDirectories the directories to create, with their parents
+     * @param directoryMoves     the directories to move with all their contents
+     * @param documentMoves      the links of documents to move on their own
+     * @param removedDirectories the directories to remove, with their empty subdirectories
+     */
+    LayoutDiff(Materializer.Layout layout, List<String> createdDirectories, List<Move> directoryMoves,
+               List<Move> documentMoves, List<String> removedDirectories) {
+        this.layout = layout;
+        this.createdDirectories = createdDirectories;
+        this.directoryMoves = directoryMoves;
+        this.documentMoves = documentMoves;
+        this.removedDirectories = removedDirectories;
+    }
+
+    /**
+     * Returns the operations in the order they are applied, one line per operation.
+     *
+     * @return the lines of the operations
+     */
+    public List<String> getOperations() {
+        List<String> operations = new ArrayList<>();
+        for (String directory : createdDirectories) {
+            operations.add(CREATE_FORMAT.formatted(directory));
+        }
+        for (Move move : directoryMoves) {
+            operations.add(MOVE_FORMAT.formatted(move.from(), move.to()));
+        }
+        for (Move move : documentMoves) {
+            operations.add(MOVE_FORMAT.formatted(move.from(), move.to()));
+        }
+        for (String directory : removedDirectories) {
+            operations.add(REMOVE_FORMAT.formatted(directory));
+        }
+        return operations;
+    }
+
+    /**
+     * Returns the number of directories to create.
+     *
+     * @return the number of directories to create
+     */
+    public int getNumberOfCreatedDirectories() {
+        return createdDirectories.size();
+    }
+
+    /**
+     * Returns the number of directories to move with all their contents.
+     *
+     * @return the number of directories to move
+     */
+    public int getNumberOfDirectoryMoves() {
+        return directoryMoves.size();
+    }
+
+    /**
+     * Returns the number of documents to move on their own.
+     *
+     * @return the number of documents to move
+     */
+    public int getNumberOfDocumentMoves() {
+        return documentMoves.size();
+    }
+
+    /**
+     * Returns the number of directories to remove.
+     *
+     * @return the number of directories to remove
+     */
+    public int getNumberOfRemovedDirectories() {
+        return removedDirectories.size();
+    }
+
+    Materializer.Layout getLayout() {
+        return layout;
+    }
+
+    List<String> getCreatedDirectories() {
+        return createdDirectories;
+    }
+
+    List<Move> getDirectoryMoves() {
+        return directoryMoves;
+    }
+
+    List<Move> getDocumentMoves() {
+        return documentMoves;
+    }
+
+    List<String> getRemovedDirectories() {
+        return removedDirectories;
+    }
+
+    /**
+     * A move of a directory or link from one path to another.
+     *
+     * @param from the path before the move
+     * @param to   the path after the move
+     */
+    record Move(String from, String to) {
+    }
+}
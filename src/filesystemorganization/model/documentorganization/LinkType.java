@@ -0,0 +1,17 @@
+package filesystemorganization.model.documentorganization;
+
+/**
+ * This enum represents the kinds of file system links a {@link Materializer} places the documents with.
+ *
+ * @author ujxbs
+ */
+public enum LinkType {
+    /**
+     * A hard link, which shares the file of the document and requires it to exist on the same file system.
+     */
+    HARD,
+    /**
+     * A symbolic link to the absolute path of the document, which may dangle if the document does not exist.
+     */
+    SYMBOLIC
+}
@@ -0,0 +1,442 @@
+package filesystemorganization.model.documentorganization;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class turns a structuring into directories on the file system. Every leaf of the tree becomes a directory below
+ * the target directory, named by the path of the leaf, and every document is linked into its leaf by its identifier,
+ * which is resolved against the source directory.
+ * <p>
+ * The directories are created and the documents are linked in parallel batches. Links that already point to their
+ * documents are kept and other links at their paths are replaced, so materializing the same structuring again changes
+ * nothing. Files that do not belong to the structuring are left alone.
+ * <p>
+ * The materializer remembers the paths of the links it placed last, so that a later structuring of the same documents
+ * can be laid out by moving only the directories and documents whose paths changed.
+ *
+ * @author ujxbs
+ */
+public final class Materializer {
+
+    private static final String DOCUMENT_SEPARATOR = "/\"";
+    private static final int ROOT_PATH_OFFSET = 1;
+    private static final int IDENTIFIER_AFFIX_LENGTH = 1;
+    private static final int BATCH_SIZE = 2048;
+    private static final int THREADS_PER_PROCESSOR = 4;
+    private static final String PATH_SEPARATOR = "/";
+    private static final char PATH_SEPARATOR_CHARACTER = '/';
+    private static final String SUBTREE_END = "0";
+    private static final String ROOT_DIRECTORY = "";
+    private static final String PARENT_DIRECTORY = "..";
+    private static final String OUTSIDE_LEAF_FORMAT = "Document %s would be linked outside of its directory!";
+    private final Path targetDirectory;
+    private final Path sourceDirectory;
+    private final LinkType linkType;
+    private volatile Layout layout;
+
+    /**
+     * Constructs a materializer.
+     *
+     * @param targetDirectory the directory to create the tree in
+     * @param sourceDirectory the directory the identifiers of the documents are relative to
+     * @param linkType        the kind of links to place the documents with
+     */
+    public Materializer(Path targetDirectory, Path sourceDirectory, LinkType linkType) {
+        this.targetDirectory = targetDirectory.toAbsolutePath().normalize();
+        this.sourceDirectory = sourceDirectory.toAbsolutePath().normalize();
+        this.linkType = linkType;
+    }
+
+    /**
+     * Creates the directories of a structuring and links its documents into them. All identifiers are checked before
+     * anything is created. Afterwards, the materializer remembers the layout of the structuring.
+     *
+     * @param structuring the structuring
+     * @return the numbers of linked documents, of their directories and of the links that were already in place
+     * @throws IOException           if an identifier leaves its directory, or a directory or link could not be created
+     * @throws CancellationException if the materializing thread was interrupted
+     */
+    public Materialization materialize(AutomaticStructuring structuring) throws IOException {
+        Layout newLayout = computeLayout(structuring);
+        String[] paths = newLayout.paths();
+        String[] identifiers = newLayout.identifiers();
+        Set<String> directories = new LinkedHashSet<>();
+        for (String path : paths) {
+            directories.add(getParent(path));
+        }
+
+        ExecutorService executor = newExecutor();
+        try {
+            List<String> parentDirectories = new ArrayList<>(directories);
+            runInBatches(executor, parentDirectories.size(), (from, to) -> {
+                for (String directory : parentDirectories.subList(from, to)) {
+                    Files.createDirectories(targetDirectory.resolve(directory));
+                }
+                return 0;
+            });
+            int unchangedLinks = runInBatches(executor, paths.length, (from, to) -> {
+                int unchanged = 0;
+                for (int i = from; i < to; i++) {
+                    if (!link(targetDirectory.resolve(paths[i]), sourceDirectory.resolve(identifiers[i]).normalize())) {
+                        unchanged++;
+                    }
+                }
+                return unchanged;
+            });
+            this.layout = newLayout;
+            return new Materialization(paths.length, newLayout.numberOfLeaves(), unchangedLinks);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Calculates the operations that turn the current layout into that of another structuring of the same documents.
+     * A directory whose documents all keep their paths relative to it is moved as a whole, if its new path is not in
+     * use yet, and only the other documents whose paths change are moved on their own.
+     *
+     * @param newStructuring the other structuring
+     * @return the operations
+     * @throws IOException if an identifier of the other structuring leaves its directory
+     */
+    public LayoutDiff diff(AutomaticStructuring newStructuring) throws IOException {
+        // Sorted paths list every directory as one range, as all paths below it share its path as prefix
+        Layout oldLayout = layout;
+        String[] sortedOldPaths = oldLayout.paths();
+        String[] identifiers = oldLayout.identifiers();
+        Set<String> oldDirectories = new HashSet<>();
+        for (String path : sortedOldPaths) {
+            addDirectories(path, oldDirectories);
+        }
+
+        Layout newLayout = computeLayout(newStructuring);
+        String[] newPaths = newLayout.paths();
+        Map<String, String> newPathOf = new HashMap<>();
+        Set<String> newDirectories = new HashSet<>();
+        for (int i = 0; i < newPaths.length; i++) {
+            newPathOf.put(newLayout.identifiers()[i], newPaths[i]);
+            addDirectories(newPaths[i], newDirectories);
+        }
+
+        // Outer directories are tried first, so that a moved directory takes all of its subdirectories along
+        List<String> vanishingDirectories = new ArrayList<>(oldDirectories);
+        vanishingDirectories.removeAll(newDirectories);
+        vanishingDirectories.sort(Comparator.comparingInt(Materializer::getDepth)
+                .thenComparing(Comparator.naturalOrder()));
+        boolean[] moved = new boolean[sortedOldPaths.length];
+        Set<String> movedDirectories = new HashSet<>();
+        Set<String> destinations = new HashSet<>();
+        List<LayoutDiff.Move> directoryMoves = new ArrayList<>();
+        for (String directory : vanishingDirectories) {
+            int from = lowerBound(sortedOldPaths, directory + PATH_SEPARATOR);
+            int to = lowerBound(sortedOldPaths, directory + SUBTREE_END);
+            if (moved[from]) {
+                continue;
+            }
+            String destination = findDestination(directory, from, to, sortedOldPaths, identifiers, newPathOf,
+                    newPaths, oldDirectories);
+            if (destination != null) {
+                Arrays.fill(moved, from, to, true);
+                movedDirectories.add(directory);
+                destinations.add(destination);
+                directoryMoves.add(new LayoutDiff.Move(directory, destination));
+            }
+        }
+
+        List<LayoutDiff.Move> documentMoves = new ArrayList<>();
+        for (int i = 0; i < sortedOldPaths.length; i++) {
+            String newPath = newPathOf.get(identifiers[i]);
+            if (!moved[i] && newPath != null && !newPath.equals(sortedOldPaths[i])) {
+                documentMoves.add(new LayoutDiff.Move(sortedOldPaths[i], newPath));
+            }
+        }
+
+        // Only the innermost missing directories are created, as their parents are created along with them
+        TreeSet<String> missingDirectories = new TreeSet<>();
+        for (List<LayoutDiff.Move> moves : List.of(directoryMoves, documentMoves)) {
+            for (LayoutDiff.Move move : moves) {
+                String parent = getParent(move.to());
+                if (!parent.isEmpty() && !oldDirectories.contains(parent) && !isWithin(parent, destinations)) {
+                    missingDirectories.add(parent);
+                }
+            }
+        }
+        List<String> createdDirectories = new ArrayList<>();
+        for (String directory : missingDirectories) {
+            String next = missingDirectories.higher(directory + PATH_SEPARATOR);
+            if (next == null || !next.startsWith(directory + PATH_SEPARATOR)) {
+                createdDirectories.add(directory);
+            }
+        }
+
+        Set<String> emptiedDirectories = new HashSet<>();
+        for (String directory : vanishingDirectories) {
+            if (!isWithin(directory, movedDirectories)) {
+                emptiedDirectories.add(directory);
+            }
+        }
+        List<String> removedDirectories = new ArrayList<>();
+        for (String directory : emptiedDirectories) {
+            if (!emptiedDirectories.contains(getParent(directory))) {
+                removedDirectories.add(directory);
+            }
+        }
+        removedDirectories.sort(Comparator.naturalOrder());
+        return new LayoutDiff(newLayout, createdDirectories, directoryMoves, documentMoves, removedDirectories);
+    }
+
+    /**
+     * Applies the operations of a diff of the current layout. Afterwards, the materializer remembers the layout the
+     * diff leads to.
+     *
+     * @param diff the diff of the current layout
+     * @throws IOException           if an operation failed, for example as a directory to remove is not empty
+     * @throws CancellationException if the materializing thread was interrupted
+     */
+    public void apply(LayoutDiff diff) throws IOException {
+        for (String directory : diff.getCreatedDirectories()) {
+            Files.createDirectories(targetDirectory.resolve(directory));
+        }
+        for (LayoutDiff.Move move : diff.getDirectoryMoves()) {
+            Files.move(targetDirectory.resolve(move.from()), targetDirectory.resolve(move.to()));
+        }
+        List<LayoutDiff.Move> documentMoves = diff.getDocumentMoves();
+        ExecutorService executor = newExecutor();
+        try {
+            runInBatches(executor, documentMoves.size(), (from, to) -> {
+                for (LayoutDiff.Move move : documentMoves.subList(from, to)) {
+                    Files.move(targetDirectory.resolve(move.from()), targetDirectory.resolve(move.to()),
+                            LinkOption.NOFOLLOW_LINKS);
+                }
+                return 0;
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+        for (String directory : diff.getRemovedDirectories()) {
+            Files.walkFileTree(targetDirectory.resolve(directory), new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult postVisitDirectory(Path visitedDirectory, IOException e) throws IOException {
+                    if (e != null) {
+                        throw e;
+                    }
+                    Files.delete(visitedDirectory);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        this.layout = diff.getLayout();
+    }
+
+    // A document whose identifier occurs twice is listed twice in the same leaf, but linked once
+    private static Layout computeLayout(AutomaticStructuring structuring) throws IOException {
+        List<String> sortedDocuments = structuring.getSortedDocuments();
+        List<String> paths = new ArrayList<>(sortedDocuments.size());
+        Map<String, String> identifierOfPath = new HashMap<>();
+        Set<String> leaves = new HashSet<>();
+        String previousLine = null;
+        for (String line : sortedDocuments) {
+            if (line.equals(previousLine)) {
+                continue;
+            }
+            previousLine = line;
+            int separator = line.indexOf(DOCUMENT_SEPARATOR);
+            String leafPath = line.substring(0, separator);
+            String identifier = line.substring(separator + DOCUMENT_SEPARATOR.length(),
+                    line.length() - IDENTIFIER_AFFIX_LENGTH);
+            Path relativeLink = Path.of(identifier).normalize();
+            if (relativeLink.isAbsolute() || relativeLink.startsWith(PARENT_DIRECTORY)
+                    || relativeLink.toString().isEmpty()) {
+                throw new IOException(OUTSIDE_LEAF_FORMAT.formatted(identifier));
+            }
+            leaves.add(leafPath);
+            String path = leafPath.isEmpty() ? relativeLink.toString()
+                    : leafPath.substring(ROOT_PATH_OFFSET) + PATH_SEPARATOR + relativeLink;
+            paths.add(path);
+            identifierOfPath.put(path, identifier);
+        }
+
+        String[] sortedPaths = paths.toArray(new String[0]);
+        Arrays.sort(sortedPaths);
+        String[] identifiers = new String[sortedPaths.length];
+        for (int i = 0; i < sortedPaths.length; i++) {
+            identifiers[i] = identifierOfPath.get(sortedPaths[i]);
+        }
+        return new Layout(sortedPaths, identifiers, leaves.size());
+    }
+
+    // The other directory holds exactly the documents of the directory, at the same paths relative to it
+    private static String findDestination(String directory, int from, int to, String[] sortedOldPaths,
+                                          String[] identifiers, Map<String, String> newPathOf, String[] newPaths,
+                                          Set<String> oldDirectories) {
+        String firstRelativePath = sortedOldPaths[from].substring(directory.length() + PATH_SEPARATOR.length());
+        String firstNewPath = newPathOf.get(identifiers[from]);
+        if (firstNewPath == null || !firstNewPath.endsWith(PATH_SEPARATOR + firstRelativePath)) {
+            return null;
+        }
+        String destination = firstNewPath.substring(0,
+                firstNewPath.length() - firstRelativePath.length() - PATH_SEPARATOR.length());
+        if (oldDirectories.contains(destination)) {
+            return null;
+        }
+        for (int i = from; i < to; i++) {
+            String relativePath = sortedOldPaths[i].substring(directory.length() + PATH_SEPARATOR.length());
+            if (!(destination + PATH_SEPARATOR + relativePath).equals(newPathOf.get(identifiers[i]))) {
+                return null;
+            }
+        }
+        int numberOfDestinationDocuments = lowerBound(newPaths, destination + SUBTREE_END)
+                - lowerBound(newPaths, destination + PATH_SEPARATOR);
+        return numberOfDestinationDocuments == to - from ? destination : null;
+    }
+
+    private static void addDirectories(String path, Set<String> directories) {
+        // Once a directory is known, so are all of its parents
+        String directory = getParent(path);
+        while (!directory.isEmpty() && directories.add(directory)) {
+            directory = getParent(directory);
+        }
+    }
+
+    private static boolean isWithin(String path, Set<String> directories) {
+        for (String directory = path; !directory.isEmpty(); directory = getParent(directory)) {
+            if (directories.contains(directory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getParent(String path) {
+        int separator = path.lastIndexOf(PATH_SEPARATOR_CHARACTER);
+        return separator < 0 ? ROOT_DIRECTORY : path.substring(0, separator);
+    }
+
+    private static int getDepth(String path) {
+        int depth = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == PATH_SEPARATOR_CHARACTER) {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    private static int lowerBound(String[] sortedPaths, String path) {
+        int position = Arrays.binarySearch(sortedPaths, path);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    // Linking mostly waits for the file system, so there are more threads than processors
+    private static ExecutorService newExecutor() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * THREADS_PER_PROCESSOR);
+    }
+
+    // Returns false if the link already points to the document
+    private boolean link(Path link, Path document) throws IOException {
+        if (Files.isSymbolicLink(link)) {
+            if (linkType == LinkType.SYMBOLIC && Files.readSymbolicLink(link).equals(document)) {
+                return false;
+            }
+            Files.delete(link);
+        } else if (Files.exists(link, LinkOption.NOFOLLOW_LINKS)) {
+            // A file of the document is a hard link of an earlier materialization, unlike any other file
+            boolean linksDocument = Files.exists(document) && Files.isSameFile(link, document);
+            if (linkType == LinkType.HARD && linksDocument) {
+                return false;
+            }
+            if (linkType == LinkType.HARD || linksDocument) {
+                Files.delete(link);
+            }
+        }
+
+        if (linkType == LinkType.HARD) {
+            Files.createLink(link, document);
+        } else {
+            Files.createSymbolicLink(link, document);
+        }
+        return true;
+    }
+
+    // Once the materializing thread is interrupted, the pool is shut down and the remaining batches are dropped
+    private int runInBatches(ExecutorService executor, int size, Batch batch) throws IOException {
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int from = 0; from < size; from += BATCH_SIZE) {
+            int batchFrom = from;
+            int batchTo = Math.min(size, from + BATCH_SIZE);
+            results.add(executor.submit(() -> {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException();
+                }
+                return batch.run(batchFrom, batchTo);
+            }));
+        }
+
+        int sum = 0;
+        try {
+            for (Future<Integer> result : results) {
+                sum += result.get();
+            }
+        } catch (InterruptedException e) {
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException exception) {
+                throw exception;
+            }
+            if (e.getCause() instanceof RuntimeException exception) {
+                throw exception;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return sum;
+    }
+
+    /**
+     * The result of a materialization.
+     *
+     * @param numberOfDocuments      the number of linked documents
+     * @param numberOfDirectories    the number of leaf directories the documents were linked into
+     * @param numberOfUnchangedLinks the number of links that already pointed to their documents
+     */
+    public record Materialization(int numberOfDocuments, int numberOfDirectories, int numberOfUnchangedLinks) {
+    }
+
+    /**
+     * The paths of the links of a structuring relative to the target directory in lexicographic order, with the
+     * identifiers of their documents.
+     *
+     * @param paths          the sorted paths of the links
+     * @param identifiers    the identifier of the document at every path
+     * @param numberOfLeaves the number of leaf directories
+     */
+    record Layout(String[] paths, String[] identifiers, int numberOfLeaves) {
+    }
+
+    /**
+     * A batch of the items at the positions of a range.
+     */
+    @FunctionalInterface
+    private interface Batch {
+        int run(int from, int to) throws IOException;
+    }
+}
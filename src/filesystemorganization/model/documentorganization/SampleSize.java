@@ -0,0 +1,63 @@
+package filesystemorganization.model.documentorganization;
+
+/**
+ * This class represents the size of the sample a structuring estimates its information gains from, either as fraction
+ * of the documents or as number of documents.
+ *
+ * @author ujxbs
+ */
+public final class SampleSize {
+
+    /**
+     * The size of a structuring that uses all documents and calculates every information gain exactly.
+     */
+    public static final SampleSize ALL = new SampleSize(1, 0);
+    private static final int MINIMUM_SAMPLE_SIZE = 1;
+    private final double fraction;
+    private final int count;
+
+    private SampleSize(double fraction, int count) {
+        this.fraction = fraction;
+        this.count = count;
+    }
+
+    /**
+     * Creates a sample size as fraction of the documents.
+     *
+     * @param fraction the fraction of the documents, greater than zero
+     * @return the sample size
+     */
+    public static SampleSize ofFraction(double fraction) {
+        return new SampleSize(fraction, 0);
+    }
+
+    /**
+     * Creates a sample size as number of documents.
+     *
+     * @param count the number of documents, greater than zero
+     * @return the sample size
+     */
+    public static SampleSize ofCount(int count) {
+        return new SampleSize(0, count);
+    }
+
+    /**
+     * Returns whether all documents are used.
+     *
+     * @return true if all documents are used, false otherwise
+     */
+    public boolean isAll() {
+        return this == ALL;
+    }
+
+    /**
+     * Returns the number of documents to sample from an input file.
+     *
+     * @param numberOfDocuments the number of documents in the input file
+     * @return the number of documents to sample, at least one and at most all
+     */
+    int resolve(int numberOfDocuments) {
+        int sampleSize = count > 0 ? count : (int) Math.ceil(fraction * numberOfDocuments);
+        return Math.min(numberOfDocuments, Math.max(MINIMUM_SAMPLE_SIZE, sampleSize));
+    }
+}
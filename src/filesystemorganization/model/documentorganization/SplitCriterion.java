@@ -0,0 +1,66 @@
+package filesystemorganization.model.documentorganization;
+
+/**
+ * This interface represents the criterion that a branch is split by. A criterion measures the impurity of a set of
+ * documents, where every document is a class of its own weighted by its access count, and the gain of a tag is the
+ * impurity of a branch minus the impurity that remains in its children.
+ * <p>
+ * The impurity of a set of documents depends on its total access count and on the sum of a term that every document
+ * contributes, so that the term is calculated once per document.
+ *
+ * @author ujxbs
+ */
+public interface SplitCriterion {
+
+    /**
+     * The Shannon entropy in bits, whose gain is the information gain.
+     */
+    SplitCriterion ENTROPY = new EntropyCriterion();
+    /**
+     * The Gini impurity, the probability that two accesses hit different documents, which needs no logarithms.
+     */
+    SplitCriterion GINI_IMPURITY = new GiniImpurityCriterion();
+    /**
+     * The information gain divided by the highest information gain of a split into as many children, which penalizes
+     * tags with many values.
+     */
+    SplitCriterion GAIN_RATIO = new GainRatioCriterion();
+
+    /**
+     * Calculates the term that a document contributes to the impurity of every set it is part of.
+     *
+     * @param accessCount the access count of the document
+     * @return the term of the document
+     */
+    double calculateDocumentTerm(int accessCount);
+
+    /**
+     * Calculates the impurity of a set of documents, which is an upper bound of the gain of any split of the set.
+     *
+     * @param total   the total access count of the documents
+     * @param termSum the sum of the terms of the documents
+     * @return the impurity
+     */
+    double calculateImpurity(long total, double termSum);
+
+    /**
+     * Returns whether the gain depends on the sums of the document terms per child. Otherwise, the sums of the
+     * children are not calculated.
+     *
+     * @return true if the gain depends on the term sums of the children, false otherwise
+     */
+    boolean dependsOnGroupTermSums();
+
+    /**
+     * Calculates the gain of splitting a set of documents into groups.
+     *
+     * @param total          the total access count of the documents
+     * @param termSum        the sum of the terms of the documents
+     * @param groupTotals    the total access count per group
+     * @param groupTermSums  the sum of the terms per group, if the gain depends on them
+     * @param numberOfGroups the number of groups, from the start of the arrays
+     * @return the gain
+     */
+    double calculateGain(long total, double termSum, double[] groupTotals, double[] groupTermSums,
+                         int numberOfGroups);
+}
@@ -0,0 +1,190 @@
+package filesystemorganization.model.documentorganization;
+
+/**
+ * This class represents the options of an automatic structuring. The options are immutable; every change returns new
+ * options.
+ *
+ * @author ujxbs
+ */
+public final class StructuringOptions {
+
+    /**
+     * The maximum number of children of a branch that is not limited.
+     */
+    public static final int NO_CHILD_LIMIT = Integer.MAX_VALUE;
+    /**
+     * The number of bins of numeric tags whose values are not binned.
+     */
+    public static final int NO_BINNING = 0;
+    /**
+     * The options of a complete structuring that calculates every information gain exactly.
+     */
+    public static final StructuringOptions DEFAULT = new StructuringOptions(Tree.NO_DEADLINE, SampleSize.ALL,
+            NO_CHILD_LIMIT, NO_BINNING, SplitCriterion.ENTROPY, null);
+    private final long deadlineNanos;
+    private final SampleSize sampleSize;
+    private final int maximumNumberOfChildren;
+    private final int numberOfBins;
+    private final SplitCriterion splitCriterion;
+    private final AutomaticStructuring previousStructuring;
+
+    private StructuringOptions(long deadlineNanos, SampleSize sampleSize, int maximumNumberOfChildren,
+                               int numberOfBins, SplitCriterion splitCriterion,
+                               AutomaticStructuring previousStructuring) {
+        this.deadlineNanos = deadlineNanos;
+        this.sampleSize = sampleSize;
+        this.maximumNumberOfChildren = maximumNumberOfChildren;
+        this.numberOfBins = numberOfBins;
+        this.splitCriterion = splitCriterion;
+        this.previousStructuring = previousStructuring;
+    }
+
+    /**
+     * Returns these options with a deadline, after which the tree is not expanded further.
+     *
+     * @param deadlineNanos the {@link System#nanoTime()} of the deadline, or {@link Tree#NO_DEADLINE}
+     * @return the changed options
+     */
+    public StructuringOptions withDeadline(long deadlineNanos) {
+        return new StructuringOptions(deadlineNanos, sampleSize, maximumNumberOfChildren, numberOfBins,
+                splitCriterion, previousStructuring);
+    }
+
+    /**
+     * Returns these options with the size of the sample the information gains are estimated from.
+     *
+     * @param sampleSize the size of the sample, or {@link SampleSize#ALL}
+     * @return the changed options
+     */
+    public StructuringOptions withSampleSize(SampleSize sampleSize) {
+        return new StructuringOptions(deadlineNanos, sampleSize, maximumNumberOfChildren, numberOfBins,
+                splitCriterion, previousStructuring);
+    }
+
+    /**
+     * Returns these options with a maximum number of children per branch. A tag with more values groups its values
+     * with the lowest access counts into one branch.
+     *
+     * @param maximumNumberOfChildren the maximum number of children, at least two, or {@link #NO_CHILD_LIMIT}
+     * @return the changed options
+     */
+    public StructuringOptions withMaximumNumberOfChildren(int maximumNumberOfChildren) {
+        return new StructuringOptions(deadlineNanos, sampleSize, maximumNumberOfChildren, numberOfBins,
+                splitCriterion, previousStructuring);
+    }
+
+    /**
+     * Returns these options with a number of bins for numeric tags. The values of a tag whose defined values are all
+     * integers are split at the thresholds with the highest information gain into at most this many ranges, rather
+     * than into one branch per value.
+     *
+     * @param numberOfBins the number of bins, at least two, or {@link #NO_BINNING}
+     * @return the changed options
+     */
+    public StructuringOptions withNumberOfBins(int numberOfBins) {
+        return new StructuringOptions(deadlineNanos, sampleSize, maximumNumberOfChildren, numberOfBins,
+                splitCriterion, previousStructuring);
+    }
+
+    /**
+     * Returns these options with the criterion that branches are split by. Gains by a criterion other than the
+     * entropy cannot be estimated from a sample, so they are always calculated exactly and the sample size of these
+     * options is not used. The run command rejects a sample size together with such a criterion.
+     *
+     * @param splitCriterion the split criterion, {@link SplitCriterion#ENTROPY} by default
+     * @return the changed options
+     */
+    public StructuringOptions withSplitCriterion(SplitCriterion splitCriterion) {
+        return new StructuringOptions(deadlineNanos, sampleSize, maximumNumberOfChildren, numberOfBins,
+                splitCriterion, previousStructuring);
+    }
+
+    /**
+     * Returns these options with a previous structuring to start from. The branches whose documents did not change
+     * since the previous structuring take over its subtrees, which yields the same tree faster. The previous
+     * structuring is only used if it is complete, calculated exactly and with the same options that change the tree.
+     *
+     * @param previousStructuring the previous structuring, or null
+     * @return the changed options
+     */
+    public StructuringOptions withPreviousStructuring(AutomaticStructuring previousStructuring) {
+        return new StructuringOptions(deadlineNanos, sampleSize, maximumNumberOfChildren, numberOfBins,
+                splitCriterion, previousStructuring);
+    }
+
+    /**
+     * Returns the deadline after which the tree is not expanded further.
+     *
+     * @return the {@link System#nanoTime()} of the deadline, or {@link Tree#NO_DEADLINE}
+     */
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /**
+     * Returns the size of the sample the information gains are estimated from.
+     *
+     * @return the size of the sample, or {@link SampleSize#ALL}
+     */
+    public SampleSize getSampleSize() {
+        return sampleSize;
+    }
+
+    /**
+     * Returns the maximum number of children per branch.
+     *
+     * @return the maximum number of children, or {@link #NO_CHILD_LIMIT}
+     */
+    public int getMaximumNumberOfChildren() {
+        return maximumNumberOfChildren;
+    }
+
+    /**
+     * Returns the number of bins of numeric tags.
+     *
+     * @return the number of bins, or {@link #NO_BINNING}
+     */
+    public int getNumberOfBins() {
+        return numberOfBins;
+    }
+
+    /**
+     * Returns the criterion that branches are split by.
+     *
+     * @return the split criterion
+     */
+    public SplitCriterion getSplitCriterion() {
+        return splitCriterion;
+    }
+
+    /**
+     * Returns the previous structuring to start from.
+     *
+     * @return the previous structuring, or null
+     */
+    public AutomaticStructuring getPreviousStructuring() {
+        return previousStructuring;
+    }
+
+    /**
+     * Returns whether the options that change the tree are the same as those of other options.
+     *
+     * @param other the other options
+     * @return true if both options build the same complete tree, false otherwise
+     */
+    public boolean buildsSameTreeAs(StructuringOptions other) {
+        return maximumNumberOfChildren == other.maximumNumberOfChildren && numberOfBins == other.numberOfBins
+                && splitCriterion == other.splitCriterion;
+    }
+
+    /**
+     * Returns whether a complete structuring with these options differs from one with the default options. A deadline
+     * or a sample only approximate the default structuring, so a cached default structuring may stand in for them.
+     *
+     * @return true if the options change the tree, false otherwise
+     */
+    public boolean changesTree() {
+        return maximumNumberOfChildren != NO_CHILD_LIMIT || numberOfBins != NO_BINNING
+                || splitCriterion != SplitCriterion.ENTROPY;
+    }
+}
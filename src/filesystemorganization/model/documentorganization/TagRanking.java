@@ -0,0 +1,197 @@
+package filesystemorganization.model.documentorganization;
+
+import filesystemorganization.model.document.Document;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class ranks the tags of an input file, or of the documents that reach a branch, by their information gains,
+ * while the documents are streamed through it one by one. Only the total access count and the entropy of every value
+ * of every tag are kept, so its memory grows with the number of distinct tag values instead of the number of
+ * documents. The documents are streamed twice: first to sum the totals, then to add the share of every document.
+ * <p>
+ * The gains are calculated like those of a branch of an {@link AutomaticStructuring}, in the same order. Unlike there,
+ * every document counts on its own even if an earlier document has the same identifier.
+ *
+ * @author ujxbs
+ */
+public final class TagRanking {
+
+    private static final String TAG_VALUE_UNDEFINED = "undefined";
+    private static final String ROOT_PATH = "";
+    private static final String TAG_VALUE_SEPARATOR = "=";
+    private static final String TAG_SEPARATOR = "/";
+    private static final String LAST_TWO_DIGIT_FORMAT = "%.2f";
+    private static final long STARTING_COUNT = 0;
+    private static final String UNKNOWN_VALUE_MESSAGE = "The document was not added before!";
+    private final Map<String, Map<String, ValueStatistics>> valuesByTag = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private long totalAccessCount = STARTING_COUNT;
+    private double weightedLog2Sum = STARTING_COUNT;
+
+    /**
+     * Adds the access count of a document to the totals of its tag values. Tags the document does not have count as
+     * "undefined", including tags that first occur in later documents.
+     *
+     * @param document the document
+     */
+    public void addDocument(Document document) {
+        for (String tagIdentifier : document.getTagIdentifiers()) {
+            valuesByTag.computeIfAbsent(tagIdentifier, newTag -> {
+                // All documents so far did not have the new tag
+                Map<String, ValueStatistics> values = new LinkedHashMap<>();
+                if (totalAccessCount > STARTING_COUNT) {
+                    values.put(TAG_VALUE_UNDEFINED, new ValueStatistics(totalAccessCount));
+                }
+                return values;
+            });
+        }
+
+        int accessCount = document.getAccessCount();
+        for (Map.Entry<String, Map<String, ValueStatistics>> entry : valuesByTag.entrySet()) {
+            entry.getValue().computeIfAbsent(document.getTagValue(entry.getKey()),
+                    newValue -> new ValueStatistics(STARTING_COUNT)).total += accessCount;
+        }
+        totalAccessCount += accessCount;
+    }
+
+    /**
+     * Adds the share of a document in the accesses of all documents and of its tag values. Once all documents were
+     * added, every document is added a second time by this method, in the same order.
+     *
+     * @param document the document
+     * @throws IllegalArgumentException if a tag value of the document was not added before
+     */
+    public void addDocumentShare(Document document) {
+        int accessCount = document.getAccessCount();
+        for (Map.Entry<String, Map<String, ValueStatistics>> entry : valuesByTag.entrySet()) {
+            ValueStatistics value = entry.getValue().get(document.getTagValue(entry.getKey()));
+            if (value == null) {
+                throw new IllegalArgumentException(UNKNOWN_VALUE_MESSAGE);
+            }
+            value.weightedLog2Sum += EntropyKernels.weightedLog2Probability(accessCount, value.total);
+            value.share += EntropyKernels.probability(accessCount, totalAccessCount);
+        }
+        weightedLog2Sum += EntropyKernels.weightedLog2Probability(accessCount, totalAccessCount);
+    }
+
+    /**
+     * Returns the tags whose information gains reach the limit, sorted by their information gains, if equal by their
+     * identifiers, in the format of the first lines of a structuring.
+     *
+     * @return the tags with their information gains
+     */
+    public List<String> getSortedInformationGains() {
+        return getSortedInformationGains(ROOT_PATH);
+    }
+
+    /**
+     * Returns the tags whose information gains reach the limit, sorted by their information gains, if equal by their
+     * identifiers, in the format of the lines of a structuring for the branch with the given path.
+     *
+     * @param pathPrefix the path of the branch the documents reach
+     * @return the tags with their information gains
+     */
+    public List<String> getSortedInformationGains(String pathPrefix) {
+        List<Map.Entry<String, Double>> informationGains = new ArrayList<>(calculateInformationGains().entrySet());
+        informationGains.sort((entry1, entry2) -> {
+            int valueComparison = entry2.getValue().compareTo(entry1.getValue());
+            if (valueComparison == 0) {
+                return entry1.getKey().compareToIgnoreCase(entry2.getKey());
+            }
+            return valueComparison;
+        });
+
+        List<String> sortedTags = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : informationGains) {
+            sortedTags.add(pathPrefix + TAG_SEPARATOR + entry.getKey().toLowerCase() + TAG_VALUE_SEPARATOR
+                    + String.format(LAST_TWO_DIGIT_FORMAT, entry.getValue()));
+        }
+        return sortedTags;
+    }
+
+    /**
+     * Returns the tag a structuring splits the documents by, the first tag in case-insensitive order with the highest
+     * information gain.
+     *
+     * @return the identifier of the tag, or null if no tag reaches the limit
+     */
+    public String getTagWithHighestInformationGain() {
+        String tagWithHighestIG = null;
+        double highestInformationGain = STARTING_COUNT;
+        for (Map.Entry<String, Double> entry : calculateInformationGains().entrySet()) {
+            if (entry.getValue() > highestInformationGain) {
+                highestInformationGain = entry.getValue();
+                tagWithHighestIG = entry.getKey();
+            }
+        }
+        return tagWithHighestIG;
+    }
+
+    /**
+     * Returns the values of a tag sorted by their total access counts, if equal by their lexicographic order, which is
+     * the order of the branches a structuring splits the documents into.
+     *
+     * @param tagIdentifier the identifier of the tag
+     * @return the sorted values of the tag
+     */
+    public List<String> getSortedValues(String tagIdentifier) {
+        Map<String, ValueStatistics> values = valuesByTag.get(tagIdentifier);
+        List<String> sortedValues = new ArrayList<>(values.keySet());
+        sortedValues.sort((value1, value2) -> {
+            int countCompare = Long.compare(values.get(value2).total, values.get(value1).total);
+            if (countCompare == 0) {
+                return value1.compareTo(value2);
+            }
+            return countCompare;
+        });
+        return sortedValues;
+    }
+
+    // Only tags whose gains reach the limit are kept, in case-insensitive order of their identifiers
+    private Map<String, Double> calculateInformationGains() {
+        Map<String, Double> informationGains = new LinkedHashMap<>();
+        double uncertainty = -weightedLog2Sum;
+        if (uncertainty < Tree.INFORMATION_GAIN_LIMIT) {
+            return informationGains;
+        }
+        for (Map.Entry<String, Map<String, ValueStatistics>> entry : valuesByTag.entrySet()) {
+            double informationGain = calculateInformationGain(uncertainty, entry.getValue());
+            if (informationGain >= Tree.INFORMATION_GAIN_LIMIT) {
+                informationGains.put(entry.getKey(), informationGain);
+            }
+        }
+        return informationGains;
+    }
+
+    // Like in a structuring, the values are summed up in the order of a hash set, in which they were inserted in the
+    // order of their first occurrence
+    private double calculateInformationGain(double uncertainty, Map<String, ValueStatistics> values) {
+        Map<String, ValueStatistics> uniqueTagValues = new HashMap<>();
+        for (Map.Entry<String, ValueStatistics> value : values.entrySet()) {
+            uniqueTagValues.put(value.getKey(), value.getValue());
+        }
+        double remainingUncertainty = STARTING_COUNT;
+        for (ValueStatistics value : uniqueTagValues.values()) {
+            remainingUncertainty += value.share * -value.weightedLog2Sum;
+        }
+        return uncertainty - remainingUncertainty;
+    }
+
+    /**
+     * The total access count of a tag value, and the sums of the shares of its documents.
+     */
+    private static final class ValueStatistics {
+        private long total;
+        private double weightedLog2Sum = STARTING_COUNT;
+        private double share = STARTING_COUNT;
+
+        private ValueStatistics(long total) {
+            this.total = total;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package filesystemorganization.model.documentorganization;
+
+/**
+ * This class represents how a tag splits a branch into children, each of which is named by a value of the tag and
+ * receives one or more of its values.
+ *
+ * @param partOfValue the child of every value index of the tag, in the order of the children
+ * @param partValues  the displayed value of every child
+ * @author ujxbs
+ */
+record TagSplit(int[] partOfValue, String[] partValues) {
+}
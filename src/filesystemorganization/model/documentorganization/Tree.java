@@ -1,13 +1,13 @@
 package filesystemorganization.model.documentorganization;
 
-import filesystemorganization.model.document.Document;
-
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
 
 /**
  * This class represents a tree that organizes, sorts and calculates the documents and their tags with their information gains.
@@ -15,87 +15,383 @@
  * @author ujxbs
  */
 public class Tree {
+
+    /**
+     * The deadline of a tree that is always built completely.
+     */
+    public static final long NO_DEADLINE = Long.MIN_VALUE;
+    /**
+     * The lowest information gain of a tag that is listed and may split a branch.
+     */
+    static final double INFORMATION_GAIN_LIMIT = 0.001;
     private static final String TAG_VALUE_SEPARATOR = "=";
     private static final String TAG_SEPARATOR = "/";
-    private static final String STARTING_TAG_IDENTIFIER = "";
     private static final double STARTING_INFORMATION_GAIN = 0;
-    private static final double INFORMATION_GAIN_LIMIT = 0.001;
     private static final char DOCUMENT_IDENTIFIER_AFFIX = '"';
     private static final String LAST_TWO_DIGIT_FORMAT = "%.2f";
-    private static final String TAG_VALUE_UNDEFINED = "undefined";
-    private static final String TAG_VALUE_EXPLICIT_UNDEFINED = "explicitUndefined!";
+    private static final String CONFIDENCE_INTERVAL_FORMAT = "+-%.2f";
+    private static final String TRUNCATION_MARK = "...";
+    private static final int NO_TAG = -1;
     private final Map<String, Double> tagsInformationGainList = new HashMap<>();
+    private final Map<String, Double> tagsConfidenceList = new HashMap<>();
     private final List<String> sortedTagsInformationGains = new ArrayList<>();
     private final List<String> sortedDocuments = new ArrayList<>();
+    private int[] documents;
+    private int[] partitionBuffer;
+    private int[] sampledDocuments;
+    private int[] samplePartitionBuffer;
+    private boolean truncated = false;
+    private DocumentTable documentTable;
+    private Branch root;
+    private Tree previousTree;
+
+    /**
+     * Builds a tree structure that organizes the documents and their tags, breadth-first with the most promising
+     * branch first. Once the deadline has passed, no further branches are expanded and their documents are listed
+     * below a truncation mark. Without truncation, the tree is the same as without a deadline.
+     * <p>
+     * If the structuring is based on a sample, the sampled documents are partitioned along with all documents, and
+     * every branch estimates its information gains from the sampled documents that reach it.
+     * <p>
+     * With a previous tree, every branch is paired with the branch of the previous tree at the same path. A branch
+     * whose documents have the same content as those of its pair is not expanded, and the lines of the previous
+     * subtree are taken over, as they would be calculated the same way.
+     *
+     * @param structuring   automatic structuring for a specific input file of the file organisation system
+     * @param deadlineNanos the {@link System#nanoTime()} after which no branch is expanded, or {@link #NO_DEADLINE}
+     * @param pathPrefix    the path of the root, empty unless the documents are a branch of a larger tree
+     * @param previousTree  a complete tree built with the same options for other documents, or null
+     * @throws CancellationException if the building thread was interrupted
+     */
+    protected void buildTree(AutomaticStructuring structuring, long deadlineNanos, String pathPrefix,
+                             Tree previousTree) {
+        DocumentTable documentTable = structuring.getDocumentTable();
+        this.documentTable = documentTable;
+        this.previousTree = previousTree;
+        int numberOfDocuments = documentTable.getNumberOfDocuments();
+        this.documents = new int[numberOfDocuments];
+        this.partitionBuffer = new int[numberOfDocuments];
+        for (int document = 0; document < numberOfDocuments; document++) {
+            documents[document] = document;
+        }
+        WeightedSample sample = structuring.getSample();
+        this.sampledDocuments = sample == null ? new int[0] : sample.getDocuments();
+        this.samplePartitionBuffer = new int[sampledDocuments.length];
+        int[] allTags = new int[documentTable.getNumberOfTags()];
+        for (int tag = 0; tag < allTags.length; tag++) {
+            allTags[tag] = tag;
+        }
+
+        this.root = new Branch(0, numberOfDocuments, 0, sampledDocuments.length, pathPrefix, allTags);
+        root.previous = previousTree != null && previousTree.root.tagSoFar.equals(pathPrefix)
+                ? previousTree.root
+                : null;
+        PriorityQueue<Branch> pendingBranches = new PriorityQueue<>(
+                Comparator.comparingDouble(Branch::getPriority).reversed());
+        pendingBranches.add(root);
+
+        while (!pendingBranches.isEmpty()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            if (deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos > 0) {
+                for (Branch branch : pendingBranches) {
+                    branch.truncated = true;
+                }
+                truncated = true;
+                break;
+            }
+            Branch branch = pendingBranches.poll();
+            if (branch.previous != null && hasSameDocuments(branch, branch.previous)) {
+                branch.reused = true;
+                continue;
+            }
+            branchTree(branch, structuring);
+            pairChildren(branch);
+            for (Branch child : branch.children) {
+                child.priority = deadlineNanos == NO_DEADLINE
+                        ? STARTING_INFORMATION_GAIN
+                        : estimateGainBound(documentTable, child);
+                pendingBranches.add(child);
+            }
+        }
+        emitBranch(root, documentTable);
+        this.partitionBuffer = null;
+        this.samplePartitionBuffer = null;
+        this.previousTree = null;
+    }
 
     /**
-     * Builds a tree structure that organizes the documents and their tags.
+     * Returns whether some branches were not expanded because the deadline had passed.
      *
-     * @param structuring automatic structuring for a specific input file of the file organisation system
+     * @return true if the tree was truncated, false otherwise
      */
-    protected void buildTree(AutomaticStructuring structuring) {
-        branchTree(structuring.getInputFile(), structuring, STARTING_TAG_IDENTIFIER);
+    protected boolean isTruncated() {
+        return truncated;
     }
 
-    private void branchTree(List<Document> documents, AutomaticStructuring structuring, String tagSoFar) {
-        if (documents.isEmpty()) {
+    private void branchTree(Branch branch, AutomaticStructuring structuring) {
+        if (branch.from == branch.to) {
             return;
         }
 
-        Set<String> tags = structuring.getUniqueTags(documents);
-        String tagWithHighestIG = STARTING_TAG_IDENTIFIER;
-        double highestInformationGain = STARTING_INFORMATION_GAIN;
+        DocumentTable documentTable = structuring.getDocumentTable();
+        int[] tags = findCandidateTags(branch, structuring);
+        int tagWithHighestIG = structuring.isSampled()
+                ? findBestTagBySample(branch, structuring, tags)
+                : findBestTag(branch, structuring, tags);
+
+        List<String> sortedIGList = sortInformationGains(this.tagsInformationGainList);
+        for (String igValue : sortedIGList) {
+            branch.informationGains.add(branch.tagSoFar + TAG_SEPARATOR + igValue);
+        }
 
-        // Information gains get calculated
-        for (String tag : tags) {
-            double informationGain = structuring.calculateInformationGain(documents, tag);
+        this.tagsInformationGainList.clear();
+        this.tagsConfidenceList.clear();
+        if (tagWithHighestIG == NO_TAG) {
+            return;
+        }
+
+        TagSplit split = structuring.splitTag(documents, branch.from, branch.to, tagWithHighestIG);
+        int numberOfChildren = split.partValues().length;
+        int[] subsetBounds = partition(documentTable, documents, partitionBuffer, branch.from, branch.to,
+                tagWithHighestIG, split.partOfValue(), numberOfChildren);
+        int[] sampleBounds = partition(documentTable, sampledDocuments, samplePartitionBuffer, branch.sampleFrom,
+                branch.sampleTo, tagWithHighestIG, split.partOfValue(), numberOfChildren);
+        int[] childCandidateTags = new int[tags.length - 1];
+        int childTag = 0;
+        for (int tag : tags) {
+            if (tag != tagWithHighestIG) {
+                childCandidateTags[childTag++] = tag;
+            }
+        }
+
+        // New branches for each unique tag value get created, to be expanded later
+        String tagIdentifier = documentTable.getTagIdentifier(tagWithHighestIG).toLowerCase();
+        for (int i = 0; i < numberOfChildren; i++) {
+            Node childNode = new Node(tagIdentifier + TAG_VALUE_SEPARATOR + split.partValues()[i]);
+            branch.children.add(new Branch(subsetBounds[i], subsetBounds[i + 1], sampleBounds[i], sampleBounds[i + 1],
+                    branch.tagSoFar + TAG_SEPARATOR + childNode.nodeIdentifier(), childCandidateTags));
+        }
+    }
+
+    // Information gains get calculated, and the tag with the highest gain splits the branch
+    private int findBestTag(Branch branch, AutomaticStructuring structuring, int[] tags) {
+        DocumentTable documentTable = structuring.getDocumentTable();
+        int tagWithHighestIG = NO_TAG;
+        double highestInformationGain = STARTING_INFORMATION_GAIN;
+        for (int tag : tags) {
+            double informationGain = structuring.calculateInformationGain(documents, branch.from, branch.to, tag);
             if (informationGain >= INFORMATION_GAIN_LIMIT) {
-                this.tagsInformationGainList.put(tag, informationGain);
+                this.tagsInformationGainList.put(documentTable.getTagIdentifier(tag), informationGain);
                 if (informationGain > highestInformationGain) {
                     highestInformationGain = informationGain;
                     tagWithHighestIG = tag;
                 }
             }
         }
+        return tagWithHighestIG;
+    }
 
-        List<String> sortedIGList = sortInformationGains(this.tagsInformationGainList);
-        for (String igValue : sortedIGList) {
-            this.sortedTagsInformationGains.add(tagSoFar + TAG_SEPARATOR + igValue);
+    // Information gains get estimated, and only the gain of the tag with the highest estimate is calculated exactly
+    private int findBestTagBySample(Branch branch, AutomaticStructuring structuring, int[] tags) {
+        DocumentTable documentTable = structuring.getDocumentTable();
+        int tagWithHighestIG = NO_TAG;
+        double highestInformationGain = STARTING_INFORMATION_GAIN;
+        for (int tag : tags) {
+            InformationGainEstimate estimate = structuring.estimateInformationGain(sampledDocuments,
+                    branch.sampleFrom, branch.sampleTo, tag);
+            if (estimate.informationGain() >= INFORMATION_GAIN_LIMIT) {
+                this.tagsInformationGainList.put(documentTable.getTagIdentifier(tag), estimate.informationGain());
+                this.tagsConfidenceList.put(documentTable.getTagIdentifier(tag), estimate.halfWidth());
+                if (estimate.informationGain() > highestInformationGain) {
+                    highestInformationGain = estimate.informationGain();
+                    tagWithHighestIG = tag;
+                }
+            }
+        }
+        if (tagWithHighestIG == NO_TAG) {
+            return NO_TAG;
         }
 
-        this.tagsInformationGainList.clear();
-        if (highestInformationGain < INFORMATION_GAIN_LIMIT) {
-            List<String> documentIdentifiers = documents.stream()
-                    .map(Document::getIdentifier)
-                    .sorted()
-                    .toList();
-
-            for (String identifier : documentIdentifiers) {
-                this.sortedDocuments.add(tagSoFar + TAG_SEPARATOR
-                        + DOCUMENT_IDENTIFIER_AFFIX + identifier + DOCUMENT_IDENTIFIER_AFFIX);
+        String tagIdentifier = documentTable.getTagIdentifier(tagWithHighestIG);
+        double informationGain = structuring.calculateInformationGain(documents, branch.from, branch.to,
+                tagWithHighestIG);
+        this.tagsConfidenceList.remove(tagIdentifier);
+        if (!(informationGain >= INFORMATION_GAIN_LIMIT)) {
+            this.tagsInformationGainList.remove(tagIdentifier);
+            return NO_TAG;
+        }
+        this.tagsInformationGainList.put(tagIdentifier, informationGain);
+        return tagWithHighestIG;
+    }
+
+    /**
+     * Partitions a range of documents in place, stable and in the order of the parts of their values of the tag, like
+     * a quicksort partition with one part per value.
+     *
+     * @return the bounds of the parts, where part i ranges from bound i to bound i + 1
+     */
+    private int[] partition(DocumentTable documentTable, int[] rangeDocuments, int[] buffer, int from, int to, int tag,
+                            int[] partOfValue, int numberOfParts) {
+        int[] subsetBounds = new int[numberOfParts + 1];
+        for (int i = from; i < to; i++) {
+            subsetBounds[partOfValue[documentTable.getValueIndex(tag, rangeDocuments[i])] + 1]++;
+        }
+        subsetBounds[0] = from;
+        for (int i = 1; i < subsetBounds.length; i++) {
+            subsetBounds[i] += subsetBounds[i - 1];
+        }
+
+        int[] nextPositions = Arrays.copyOf(subsetBounds, numberOfParts);
+        for (int i = from; i < to; i++) {
+            int part = partOfValue[documentTable.getValueIndex(tag, rangeDocuments[i])];
+            buffer[nextPositions[part]++] = rangeDocuments[i];
+        }
+        System.arraycopy(buffer, from, rangeDocuments, from, to - from);
+        return subsetBounds;
+    }
+
+    private void pairChildren(Branch branch) {
+        if (branch.previous == null || branch.previous.children.isEmpty()) {
+            return;
+        }
+        Map<String, Branch> previousChildren = new HashMap<>();
+        for (Branch previousChild : branch.previous.children) {
+            previousChildren.put(previousChild.tagSoFar, previousChild);
+        }
+        for (Branch child : branch.children) {
+            child.previous = previousChildren.get(child.tagSoFar);
+        }
+    }
+
+    /**
+     * Checks whether a branch has documents with the same content as a branch of the previous tree. The sums of the
+     * content hashes are compared first, and only if they are equal are the documents compared one by one, in the
+     * order of their identifiers.
+     */
+    private boolean hasSameDocuments(Branch branch, Branch previousBranch) {
+        if (branch.to - branch.from != previousBranch.to - previousBranch.from) {
+            return false;
+        }
+        DocumentTable previousTable = previousTree.documentTable;
+        long hashSum = 0;
+        long previousHashSum = 0;
+        for (int i = 0; i < branch.to - branch.from; i++) {
+            hashSum += documentTable.getContentHash(documents[branch.from + i]);
+            previousHashSum += previousTable.getContentHash(previousTree.documents[previousBranch.from + i]);
+        }
+        if (hashSum != previousHashSum) {
+            return false;
+        }
+
+        int[] identifierRanks = new int[branch.to - branch.from];
+        int[] previousIdentifierRanks = new int[identifierRanks.length];
+        for (int i = 0; i < identifierRanks.length; i++) {
+            identifierRanks[i] = documentTable.getIdentifierRank(documents[branch.from + i]);
+            previousIdentifierRanks[i] = previousTable.getIdentifierRank(
+                    previousTree.documents[previousBranch.from + i]);
+        }
+        Arrays.sort(identifierRanks);
+        Arrays.sort(previousIdentifierRanks);
+        for (int i = 0; i < identifierRanks.length; i++) {
+            if (!documentTable.hasSameContent(documentTable.getDocumentByIdentifierRank(identifierRanks[i]),
+                    previousTable, previousTable.getDocumentByIdentifierRank(previousIdentifierRanks[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Shrinks the candidate tags of a branch to those that may reach the information gain limit. The gain of a tag
+     * never exceeds the uncertainty of the branch, and a tag with a single value within the branch gains nothing, in
+     * this branch as in all of its descendants.
+     */
+    private int[] findCandidateTags(Branch branch, AutomaticStructuring structuring) {
+        if (structuring.calculateUncertainty(documents, branch.from, branch.to) < INFORMATION_GAIN_LIMIT) {
+            return new int[0];
+        }
+        DocumentTable documentTable = structuring.getDocumentTable();
+        int[] candidateTags = new int[branch.candidateTags.length];
+        int numberOfCandidates = 0;
+        for (int tag : branch.candidateTags) {
+            if (hasSeveralValues(documentTable, branch, tag)) {
+                candidateTags[numberOfCandidates++] = tag;
+            }
+        }
+        return Arrays.copyOf(candidateTags, numberOfCandidates);
+    }
+
+    private boolean hasSeveralValues(DocumentTable documentTable, Branch branch, int tag) {
+        int firstValue = documentTable.getValueIndex(tag, documents[branch.from]);
+        for (int i = branch.from + 1; i < branch.to; i++) {
+            if (documentTable.getValueIndex(tag, documents[i]) != firstValue) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Every branch remembers which lines its subtree emitted, so that a later tree can take them over
+    private void emitBranch(Branch branch, DocumentTable documentTable) {
+        branch.firstInformationGain = this.sortedTagsInformationGains.size();
+        branch.firstDocument = this.sortedDocuments.size();
+        emitSubtree(branch, documentTable);
+        branch.endInformationGain = this.sortedTagsInformationGains.size();
+        branch.endDocument = this.sortedDocuments.size();
+        branch.informationGains.clear();
+    }
+
+    private void emitSubtree(Branch branch, DocumentTable documentTable) {
+        if (branch.reused) {
+            Branch previousBranch = branch.previous;
+            this.sortedTagsInformationGains.addAll(previousTree.sortedTagsInformationGains.subList(
+                    previousBranch.firstInformationGain, previousBranch.endInformationGain));
+            this.sortedDocuments.addAll(previousTree.sortedDocuments.subList(
+                    previousBranch.firstDocument, previousBranch.endDocument));
+            branch.previous = null;
+            return;
+        }
+        branch.previous = null;
+        this.sortedTagsInformationGains.addAll(branch.informationGains);
+        if (!branch.children.isEmpty()) {
+            for (Branch child : branch.children) {
+                emitBranch(child, documentTable);
             }
             return;
         }
 
-        Set<String> uniqueValues = new HashSet<>();
-        for (Document document : documents) {
-            String value = structuring.tagsValueFinder(tagWithHighestIG, document.getIdentifier());
-            uniqueValues.add(value);
+        // The documents are sorted by their ranks in the identifier order of all documents
+        String leafPath = branch.truncated ? branch.tagSoFar + TAG_SEPARATOR + TRUNCATION_MARK : branch.tagSoFar;
+        int[] identifierRanks = new int[branch.to - branch.from];
+        for (int i = branch.from; i < branch.to; i++) {
+            identifierRanks[i - branch.from] = documentTable.getIdentifierRank(documents[i]);
         }
-        List<String> sortedValues = structuring.sortTagValues(tagWithHighestIG, uniqueValues, documents);
+        Arrays.sort(identifierRanks);
 
-        // New branches for each unique tag value get created recursively
-        for (String value : sortedValues) {
-            String tagValue;
-            if (value.equalsIgnoreCase(TAG_VALUE_EXPLICIT_UNDEFINED)) {
-                tagValue = TAG_VALUE_UNDEFINED;
-            } else {
-                tagValue = value;
+        for (int rank : identifierRanks) {
+            String identifier = documentTable.getDocumentIdentifier(documentTable.getDocumentByIdentifierRank(rank));
+            this.sortedDocuments.add(leafPath + TAG_SEPARATOR
+                    + DOCUMENT_IDENTIFIER_AFFIX + identifier + DOCUMENT_IDENTIFIER_AFFIX);
+        }
+    }
+
+    // The information gain of any split is at most the weighted entropy of the branch, weighted by its access share
+    private double estimateGainBound(DocumentTable documentTable, Branch branch) {
+        double totalAccessCount = STARTING_INFORMATION_GAIN;
+        double weightedLogSum = STARTING_INFORMATION_GAIN;
+        for (int i = branch.from; i < branch.to; i++) {
+            int accessCount = documentTable.getAccessCount(documents[i]);
+            if (accessCount > 0) {
+                totalAccessCount += accessCount;
+                weightedLogSum += accessCount * Math.log(accessCount);
             }
-            Node childNode = new Node(tagWithHighestIG.toLowerCase() + TAG_VALUE_SEPARATOR + tagValue);
-            List<Document> subset = structuring.subsetGivenTag(documents, tagWithHighestIG, value);
-            branchTree(subset, structuring, tagSoFar + TAG_SEPARATOR + childNode.nodeIdentifier());
         }
+        if (totalAccessCount == STARTING_INFORMATION_GAIN) {
+            return STARTING_INFORMATION_GAIN;
+        }
+        return totalAccessCount * Math.log(totalAccessCount) - weightedLogSum;
     }
 
     private List<String> sortInformationGains(Map<String, Double> tagsIGList) {
@@ -111,6 +407,9 @@ private List<String> sortInformationGains(Map<String, Double> tagsIGList) {
         List<String> sortedTags = new ArrayList<>();
         for (Map.Entry<String, Double> tag : sortedInformationGains) {
             String formattedValue = String.format(LAST_TWO_DIGIT_FORMAT, tag.getValue());
+            if (this.tagsConfidenceList.containsKey(tag.getKey())) {
+                formattedValue += String.format(CONFIDENCE_INTERVAL_FORMAT, this.tagsConfidenceList.get(tag.getKey()));
+            }
             String tagsDisplay = tag.getKey().toLowerCase() + TAG_VALUE_SEPARATOR + formattedValue;
             sortedTags.add(tagsDisplay);
         }
@@ -134,4 +433,41 @@ protected List<String> getSortedTagsInformationGains() {
     protected List<String> getSortedDocuments() {
         return new ArrayList<>(this.sortedDocuments);
     }
+
+    /**
+     * A branch of the tree with the range of documents that reach it, and the range of sampled documents among them.
+     * It is expanded into children, stays a leaf, or takes over the subtree of its pair in the previous tree. Once
+     * emitted, it knows the range of the lines of its subtree.
+     */
+    private static final class Branch {
+        private final int from;
+        private final int to;
+        private final int sampleFrom;
+        private final int sampleTo;
+        private final String tagSoFar;
+        private final int[] candidateTags;
+        private final List<String> informationGains = new ArrayList<>();
+        private final List<Branch> children = new ArrayList<>();
+        private double priority;
+        private boolean truncated = false;
+        private Branch previous;
+        private boolean reused = false;
+        private int firstInformationGain;
+        private int endInformationGain;
+        private int firstDocument;
+        private int endDocument;
+
+        private Branch(int from, int to, int sampleFrom, int sampleTo, String tagSoFar, int[] candidateTags) {
+            this.from = from;
+            this.to = to;
+            this.sampleFrom = sampleFrom;
+            this.sampleTo = sampleTo;
+            this.tagSoFar = tagSoFar;
+            this.candidateTags = candidateTags;
+        }
+
+        private double getPriority() {
+            return priority;
+        }
+    }
 }
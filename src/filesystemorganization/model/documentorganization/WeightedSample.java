@@ -0,0 +1,79 @@
+package filesystemorganization.model.documentorganization;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * This class draws a sample of documents weighted by their access counts, in one pass like a reservoir. Every document
+ * gets the priority {@code accessCount / u} for a uniform random {@code u}, and the documents with the highest
+ * priorities are kept. A sampled document stands for {@code max(accessCount, threshold)} accesses, where the threshold
+ * is the highest priority that was not kept, so that the access count of any set of documents is estimated without
+ * bias by the sampled documents in it. Documents without accesses are never sampled.
+ * <p>
+ * The random numbers have a fixed seed, so that the same input file always gets the same sample.
+ *
+ * @author ujxbs
+ */
+final class WeightedSample {
+
+    private static final long SAMPLE_SEED = 0x5EED;
+    private static final double NO_THRESHOLD = 0;
+    private final int[] documents;
+    private final double[] estimatedAccessCounts;
+
+    /**
+     * Draws a sample of the documents of a table.
+     *
+     * @param documentTable the table of the documents
+     * @param sampleSize    the highest number of documents to sample
+     */
+    WeightedSample(DocumentTable documentTable, int sampleSize) {
+        int numberOfDocuments = documentTable.getNumberOfDocuments();
+        double[] priorities = new double[numberOfDocuments];
+        PriorityQueue<Integer> reservoir = new PriorityQueue<>(sampleSize + 1,
+                (document1, document2) -> Double.compare(priorities[document1], priorities[document2]));
+        Random random = new Random(SAMPLE_SEED);
+        for (int document = 0; document < numberOfDocuments; document++) {
+            int accessCount = documentTable.getAccessCount(document);
+            if (accessCount <= 0) {
+                continue;
+            }
+            priorities[document] = accessCount / (1 - random.nextDouble());
+            reservoir.add(document);
+            if (reservoir.size() > sampleSize + 1) {
+                reservoir.poll();
+            }
+        }
+
+        double threshold = reservoir.size() > sampleSize ? priorities[reservoir.poll()] : NO_THRESHOLD;
+        this.documents = new int[reservoir.size()];
+        this.estimatedAccessCounts = new double[numberOfDocuments];
+        int position = 0;
+        for (int document : reservoir) {
+            documents[position++] = document;
+            estimatedAccessCounts[document] = Math.max(documentTable.getAccessCount(document), threshold);
+        }
+        Arrays.sort(documents);
+    }
+
+    /**
+     * Returns the indices of the sampled documents in the order of the input file. The array is owned by the caller,
+     * who may reorder it.
+     *
+     * @return the indices of the sampled documents
+     */
+    int[] getDocuments() {
+        return documents.clone();
+    }
+
+    /**
+     * Returns the estimated access counts of all documents, which are zero for documents that were not sampled. The
+     * array must not be modified.
+     *
+     * @return the estimated access counts by document index
+     */
+    double[] getEstimatedAccessCounts() {
+        return estimatedAccessCounts;
+    }
+}
@@ -0,0 +1,433 @@
+package filesystemorganization.model.persistence;
+
+import filesystemorganization.model.FileSystemOrganization;
+import filesystemorganization.model.document.Document;
+import filesystemorganization.model.document.DocumentSerializer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class makes the loaded input files, their reloads and their access count changes durable. Every modification
+ * is written to a {@link WriteAheadLog write-ahead log} before it is applied, and acknowledged once the log record is
+ * durable. A checkpoint writes a snapshot of all input files and clears the log; on startup, the log is replayed on
+ * top of the last snapshot.
+ *
+ * @author ujxbs
+ */
+public final class Journal implements AutoCloseable {
+
+    private static final String SNAPSHOT_FILE_NAME = "snapshot";
+    private static final String SNAPSHOT_TEMPORARY_FILE_NAME = "snapshot.tmp";
+    private static final String LOG_FILE_NAME = "log";
+    private static final int SNAPSHOT_MAGIC = 0x46534f32;
+    private static final String RECORD_SEPARATOR = " ";
+    private static final String LOAD_RECORD = "LOAD";
+    private static final String CHANGE_RECORD = "CHANGE";
+    private static final String UNLOAD_RECORD = "UNLOAD";
+    private static final String BATCH_RECORD = "BATCH";
+    private static final String RELOAD_RECORD = "RELOAD";
+    private static final String LOAD_RECORD_FORMAT = "LOAD %d %d";
+    private static final String CHANGE_RECORD_FORMAT = "CHANGE %d %s %d";
+    private static final String UNLOAD_RECORD_FORMAT = "UNLOAD %d";
+    private static final String BATCH_RECORD_FORMAT = "BATCH %d %d";
+    private static final String RELOAD_RECORD_FORMAT = "RELOAD %d %d";
+    private static final String BATCH_LINE_SEPARATOR = ",";
+    private static final char NEW_LINE_MARKER = '+';
+    private static final String KEPT_RANGE_FORMAT = "=%d,%d";
+    private static final String BATCH_LINE_PATTERN = ".*,\\d+";
+    private static final String KEPT_RANGE_PATTERN = "=\\d+,\\d+";
+    private static final String CORRUPT_SNAPSHOT = "The snapshot %s is corrupt!";
+    private static final String INCONSISTENT_LOG = "The log %s does not match its snapshot!";
+    private static final char LINE_TERMINATOR = '\n';
+    private static final int SEQUENCE_INDEX = 0;
+    private static final int TYPE_INDEX = 1;
+    private static final int ENTRY_ID_INDEX = 2;
+    private static final int LINE_COUNT_INDEX = 3;
+    private static final int DOCUMENT_IDENTIFIER_INDEX = 3;
+    private static final int ACCESS_COUNT_INDEX = 4;
+    private static final int MULTI_LINE_RECORD_ELEMENTS = 4;
+    private static final int CHANGE_RECORD_ELEMENTS = 5;
+    private static final int UNMULTI_LINE_RECORD_ELEMENTS = 3;
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final DocumentSerializer serializer = new DocumentSerializer();
+    private WriteAheadLog writeAheadLog;
+
+    private Journal(Path directory) {
+        this.snapshotFile = directory.resolve(SNAPSHOT_FILE_NAME);
+        this.logFile = directory.resolve(LOG_FILE_NAME);
+    }
+
+    /**
+     * Opens the journal in the given directory and recovers its input files into the given model. The recovered state
+     * is checkpointed right away, so the next start does not replay the same log again.
+     *
+     * @param directory  the directory of the journal, created if it does not exist
+     * @param syncPolicy the policy that decides when log records are forced to the disk
+     * @param model      the empty model to recover the input files into
+     * @return the opened journal
+     * @throws IOException if the journal could not be read or opened
+     */
+    public static Journal open(Path directory, SyncPolicy syncPolicy, FileSystemOrganization model) throws IOException {
+        Files.createDirectories(directory);
+        Journal journal = new Journal(directory);
+        long lastSequence = journal.readSnapshot(model);
+        RecoveredLog recoveredLog = journal.replayLog(model, lastSequence);
+        journal.writeAheadLog = new WriteAheadLog(journal.logFile, syncPolicy, recoveredLog.validLength(),
+                recoveredLog.lastSequence() + 1);
+        journal.checkpoint(model);
+        return journal;
+    }
+
+    /**
+     * Writes the loading of an input file to the log.
+     *
+     * @param entryId   the entry ID the input file gets
+     * @param documents the lines of the input file
+     * @return the sequence number of the record
+     * @throws IOException if the record could not be written
+     */
+    public long logLoad(int entryId, List<String> documents) throws IOException {
+        StringBuilder record = new StringBuilder(LOAD_RECORD_FORMAT.formatted(entryId, documents.size()));
+        for (String document : documents) {
+            record.append(LINE_TERMINATOR).append(document);
+        }
+        return writeAheadLog.write(record.toString());
+    }
+
+    /**
+     * Writes the change of an access count to the log.
+     *
+     * @param entryId            the entry ID of the document
+     * @param documentIdentifier the identifier of the document
+     * @param newAccessCount     the new access count of the document
+     * @return the sequence number of the record
+     * @throws IOException if the record could not be written
+     */
+    public long logChange(int entryId, String documentIdentifier, int newAccessCount) throws IOException {
+        return writeAheadLog.write(CHANGE_RECORD_FORMAT.formatted(entryId, documentIdentifier, newAccessCount));
+    }
+
+    /**
+     * Writes the changes of several access counts to the log as a single record.
+     *
+     * @param entryId         the entry ID of the documents
+     * @param documents       the changed documents
+     * @param newAccessCounts the new access counts, in the order of the documents
+     * @return the sequence number of the record
+     * @throws IOException if the record could not be written
+     */
+    public long logChanges(int entryId, List<Document> documents, int[] newAccessCounts) throws IOException {
+        StringBuilder record = new StringBuilder(BATCH_RECORD_FORMAT.formatted(entryId, documents.size()));
+        for (int i = 0; i < documents.size(); i++) {
+            record.append(LINE_TERMINATOR).append(documents.get(i).getIdentifier())
+                    .append(BATCH_LINE_SEPARATOR).append(newAccessCounts[i]);
+        }
+        return writeAheadLog.write(record.toString());
+    }
+
+    /**
+     * Writes the reloading of an input file to the log as a single record. Consecutive kept documents are written as
+     * one range of their positions, and only the new lines are written in full.
+     *
+     * @param entryId       the entry ID of the input file
+     * @param lines         the lines of the new version of the input file
+     * @param keptPositions for every line, the position of the document it keeps, or
+     *                      {@link FileSystemOrganization#NEW_DOCUMENT}
+     * @return the sequence number of the record
+     * @throws IOException if the record could not be written
+     */
+    public long logReload(int entryId, List<String> lines, int[] keptPositions) throws IOException {
+        List<String> recordLines = new ArrayList<>();
+        int i = 0;
+        while (i < lines.size()) {
+            if (keptPositions[i] == FileSystemOrganization.NEW_DOCUMENT) {
+                recordLines.add(NEW_LINE_MARKER + lines.get(i));
+                i++;
+                continue;
+            }
+            int rangeStart = i;
+            while (i + 1 < lines.size() && keptPositions[i + 1] != FileSystemOrganization.NEW_DOCUMENT
+                    && keptPositions[i + 1] == keptPositions[i] + 1) {
+                i++;
+            }
+            recordLines.add(KEPT_RANGE_FORMAT.formatted(keptPositions[rangeStart], i - rangeStart + 1));
+            i++;
+        }
+
+        StringBuilder record = new StringBuilder(RELOAD_RECORD_FORMAT.formatted(entryId, recordLines.size()));
+        for (String recordLine : recordLines) {
+            record.append(LINE_TERMINATOR).append(recordLine);
+        }
+        return writeAheadLog.write(record.toString());
+    }
+
+    /**
+     * Writes the removal of an input file to the log.
+     *
+     * @param entryId the entry ID of the removed input file
+     * @return the sequence number of the record
+     * @throws IOException if the record could not be written
+     */
+    public long logUnload(int entryId) throws IOException {
+        return writeAheadLog.write(UNLOAD_RECORD_FORMAT.formatted(entryId));
+    }
+
+    /**
+     * Waits until the record with given sequence number is durable.
+     *
+     * @param sequence the sequence number of a logged record
+     * @throws IOException if the log could not be forced to the disk
+     */
+    public void awaitDurable(long sequence) throws IOException {
+        writeAheadLog.awaitDurable(sequence);
+    }
+
+    /**
+     * Writes a snapshot of all input files of the model and clears the log. Must only be called while no other
+     * modification is logged.
+     *
+     * @param model the model to take the snapshot of
+     * @throws IOException if the snapshot could not be written
+     */
+    public void checkpoint(FileSystemOrganization model) throws IOException {
+        Path temporaryFile = snapshotFile.resolveSibling(SNAPSHOT_TEMPORARY_FILE_NAME);
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            // No entry may be unloaded between listing the entries and writing their documents
+            synchronized (model) {
+                List<Integer> entryIds = model.getEntryIds();
+                output.writeInt(SNAPSHOT_MAGIC);
+                output.writeLong(writeAheadLog.getLastSequence());
+                output.writeInt(model.getIdCounter());
+                output.writeInt(entryIds.size());
+                for (int entryId : entryIds) {
+                    List<Document> documents = model.getSpecificInputFile(entryId);
+                    output.writeInt(entryId);
+                    output.writeInt(documents.size());
+                    for (Document document : documents) {
+                        serializer.write(output, document);
+                    }
+                }
+            }
+            output.flush();
+            channel.force(true);
+        }
+        Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writeAheadLog.clear();
+    }
+
+    private long readSnapshot(FileSystemOrganization model) throws IOException {
+        if (!Files.exists(snapshotFile)) {
+            return 0;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (input.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException(CORRUPT_SNAPSHOT.formatted(snapshotFile));
+            }
+            long lastSequence = input.readLong();
+            int idCounter = input.readInt();
+            int numberOfInputFiles = input.readInt();
+            Map<Integer, List<Document>> inputFiles = new HashMap<>();
+            for (int i = 0; i < numberOfInputFiles; i++) {
+                int entryId = input.readInt();
+                int numberOfDocuments = input.readInt();
+                List<Document> documents = new ArrayList<>(numberOfDocuments);
+                for (int j = 0; j < numberOfDocuments; j++) {
+                    documents.add(serializer.read(input));
+                }
+                inputFiles.put(entryId, documents);
+            }
+            model.restoreInputFiles(inputFiles, idCounter);
+            return lastSequence;
+        }
+    }
+
+    private RecoveredLog replayLog(FileSystemOrganization model, long snapshotSequence) throws IOException {
+        if (!Files.exists(logFile)) {
+            return new RecoveredLog(0, snapshotSequence);
+        }
+
+        byte[] content = Files.readAllBytes(logFile);
+        int position = 0;
+        long lastSequence = snapshotSequence;
+        while (position < content.length) {
+            int headerEnd = indexOfLineTerminator(content, position);
+            if (headerEnd < 0) {
+                break;
+            }
+            String[] header = new String(content, position, headerEnd - position, StandardCharsets.UTF_8)
+                    .split(RECORD_SEPARATOR);
+            if (!isWellFormed(header)) {
+                // A corrupt header cannot be told apart from a torn one, so the log is taken to end before it
+                break;
+            }
+            int recordEnd = headerEnd;
+            List<String> lines = new ArrayList<>();
+            if (header.length == MULTI_LINE_RECORD_ELEMENTS
+                    && (header[TYPE_INDEX].equals(LOAD_RECORD) || header[TYPE_INDEX].equals(BATCH_RECORD)
+                    || header[TYPE_INDEX].equals(RELOAD_RECORD))) {
+                int numberOfLines = Integer.parseInt(header[LINE_COUNT_INDEX]);
+                for (int i = 0; i < numberOfLines && recordEnd >= 0; i++) {
+                    int lineStart = recordEnd + 1;
+                    recordEnd = indexOfLineTerminator(content, lineStart);
+                    if (recordEnd >= 0) {
+                        lines.add(new String(content, lineStart, recordEnd - lineStart, StandardCharsets.UTF_8));
+                    }
+                }
+            } else if (!(header.length == CHANGE_RECORD_ELEMENTS && header[TYPE_INDEX].equals(CHANGE_RECORD))
+                    && !(header.length == UNMULTI_LINE_RECORD_ELEMENTS && header[TYPE_INDEX].equals(UNLOAD_RECORD))) {
+                break;
+            }
+            if (recordEnd < 0) {
+                // The last record was torn by a crash and was never acknowledged
+                break;
+            }
+
+            long sequence = Long.parseLong(header[SEQUENCE_INDEX]);
+            if (sequence > snapshotSequence) {
+                try {
+                    applyRecord(model, header, lines);
+                } catch (NumberFormatException e) {
+                    throw new IOException(INCONSISTENT_LOG.formatted(logFile), e);
+                }
+            }
+            lastSequence = Math.max(lastSequence, sequence);
+            position = recordEnd + 1;
+        }
+        return new RecoveredLog(position, lastSequence);
+    }
+
+    private static boolean isWellFormed(String[] header) {
+        if (header.length <= ENTRY_ID_INDEX) {
+            return false;
+        }
+        try {
+            Long.parseLong(header[SEQUENCE_INDEX]);
+            Integer.parseInt(header[ENTRY_ID_INDEX]);
+            if (header.length == MULTI_LINE_RECORD_ELEMENTS) {
+                Integer.parseInt(header[LINE_COUNT_INDEX]);
+            } else if (header.length == CHANGE_RECORD_ELEMENTS) {
+                Integer.parseInt(header[ACCESS_COUNT_INDEX]);
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        return true;
+    }
+
+    private void applyRecord(FileSystemOrganization model, String[] header, List<String> lines) throws IOException {
+        int entryId = Integer.parseInt(header[ENTRY_ID_INDEX]);
+        if (header[TYPE_INDEX].equals(LOAD_RECORD)) {
+            if (entryId != model.getIdCounter() || model.loadDocuments(lines) != entryId) {
+                throw new IOException(INCONSISTENT_LOG.formatted(logFile));
+            }
+            return;
+        }
+        if (header[TYPE_INDEX].equals(BATCH_RECORD)) {
+            applyBatch(model, entryId, lines);
+            return;
+        }
+        if (header[TYPE_INDEX].equals(RELOAD_RECORD)) {
+            applyReload(model, entryId, lines);
+            return;
+        }
+        if (header[TYPE_INDEX].equals(UNLOAD_RECORD)) {
+            if (model.entryDoesNotExist(entryId)) {
+                throw new IOException(INCONSISTENT_LOG.formatted(logFile));
+            }
+            model.unloadInputFile(entryId);
+            return;
+        }
+
+        Document document = model.findDocument(entryId, header[DOCUMENT_IDENTIFIER_INDEX]);
+        if (document == null) {
+            throw new IOException(INCONSISTENT_LOG.formatted(logFile));
+        }
+        model.changeAccessCount(entryId, document, Integer.parseInt(header[ACCESS_COUNT_INDEX]));
+    }
+
+    private void applyBatch(FileSystemOrganization model, int entryId, List<String> lines) throws IOException {
+        if (model.entryDoesNotExist(entryId)) {
+            throw new IOException(INCONSISTENT_LOG.formatted(logFile));
+        }
+        List<Document> documents = new ArrayList<>(lines.size());
+        int[] newAccessCounts = new int[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            if (!lines.get(i).matches(BATCH_LINE_PATTERN)) {
+                throw new IOException(INCONSISTENT_LOG.formatted(logFile));
+            }
+            int separatorIndex = lines.get(i).lastIndexOf(BATCH_LINE_SEPARATOR);
+            Document document = model.findDocument(entryId, lines.get(i).substring(0, separatorIndex));
+            if (document == null) {
+                throw new IOException(INCONSISTENT_LOG.formatted(logFile));
+            }
+            documents.add(document);
+            newAccessCounts[i] = Integer.parseInt(lines.get(i).substring(separatorIndex + 1));
+        }
+        model.changeAccessCounts(entryId, documents, newAccessCounts);
+    }
+
+    private void applyReload(FileSystemOrganization model, int entryId, List<String> recordLines)
+            throws IOException {
+        if (model.entryDoesNotExist(entryId)) {
+            throw new IOException(INCONSISTENT_LOG.formatted(logFile));
+        }
+        List<String> lines = new ArrayList<>();
+        List<Integer> keptPositions = new ArrayList<>();
+        for (String recordLine : recordLines) {
+            if (recordLine.matches(KEPT_RANGE_PATTERN)) {
+                int separatorIndex = recordLine.indexOf(BATCH_LINE_SEPARATOR);
+                int rangeStart = Integer.parseInt(recordLine.substring(1, separatorIndex));
+                int rangeLength = Integer.parseInt(recordLine.substring(separatorIndex + 1));
+                for (int position = rangeStart; position < rangeStart + rangeLength; position++) {
+                    lines.add(null);
+                    keptPositions.add(position);
+                }
+            } else if (!recordLine.isEmpty() && recordLine.charAt(0) == NEW_LINE_MARKER) {
+                lines.add(recordLine.substring(1));
+                keptPositions.add(FileSystemOrganization.NEW_DOCUMENT);
+            } else {
+                throw new IOException(INCONSISTENT_LOG.formatted(logFile));
+            }
+        }
+        int[] positions = keptPositions.stream().mapToInt(Integer::intValue).toArray();
+        if (!model.reloadDocuments(entryId, lines, positions)) {
+            throw new IOException(INCONSISTENT_LOG.formatted(logFile));
+        }
+    }
+
+    private static int indexOfLineTerminator(byte[] content, int from) {
+        for (int i = from; i < content.length; i++) {
+            if (content[i] == LINE_TERMINATOR) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeAheadLog.close();
+    }
+
+    private record RecoveredLog(long validLength, long lastSequence) {
+    }
+}
@@ -0,0 +1,87 @@
+package filesystemorganization.model.persistence;
+
+import filesystemorganization.model.document.Document;
+import filesystemorganization.model.document.DocumentSerializer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class keeps the documents of idle input files on the disk, in the compact form of the
+ * {@link DocumentSerializer document serializer}.
+ *
+ * @author ujxbs
+ */
+public class SpillStore {
+
+    private static final String SPILL_FILE_FORMAT = "entry-%d.spill";
+    private final Path directory;
+    private final DocumentSerializer serializer = new DocumentSerializer();
+
+    /**
+     * Constructs a spill store.
+     *
+     * @param directory the directory of the spilled input files, created if it does not exist
+     * @throws IOException if the directory could not be created
+     */
+    public SpillStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Writes the documents of an input file to the disk.
+     *
+     * @param entryId   the entry ID of the input file
+     * @param documents the documents of the input file
+     * @throws IOException if the documents could not be written
+     */
+    public void write(int entryId, List<Document> documents) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(spillFile(entryId))))) {
+            output.writeInt(documents.size());
+            for (Document document : documents) {
+                serializer.write(output, document);
+            }
+        }
+    }
+
+    /**
+     * Reads the documents of a spilled input file.
+     *
+     * @param entryId the entry ID of the input file
+     * @return the documents of the input file
+     * @throws IOException if the documents could not be read
+     */
+    public List<Document> read(int entryId) throws IOException {
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(spillFile(entryId))))) {
+            int numberOfDocuments = input.readInt();
+            List<Document> documents = new ArrayList<>(numberOfDocuments);
+            for (int i = 0; i < numberOfDocuments; i++) {
+                documents.add(serializer.read(input));
+            }
+            return documents;
+        }
+    }
+
+    /**
+     * Deletes the spilled copy of an input file, if there is one.
+     *
+     * @param entryId the entry ID of the input file
+     * @throws IOException if the spilled copy could not be deleted
+     */
+    public void delete(int entryId) throws IOException {
+        Files.deleteIfExists(spillFile(entryId));
+    }
+
+    private Path spillFile(int entryId) {
+        return directory.resolve(SPILL_FILE_FORMAT.formatted(entryId));
+    }
+}
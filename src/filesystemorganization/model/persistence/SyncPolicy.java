@@ -0,0 +1,28 @@
+package filesystemorganization.model.persistence;
+
+/**
+ * This enum represents the policies that decide when the records of a {@link WriteAheadLog write-ahead log} are
+ * forced to the disk.
+ *
+ * @author ujxbs
+ */
+public enum SyncPolicy {
+
+    /**
+     * Every record is forced to the disk before it is acknowledged. Writers that append at the same time share a
+     * single force.
+     */
+    EVERY,
+
+    /**
+     * Like {@link #EVERY}, but while other writers wait, the writer that forces waits a short moment for further
+     * records, so that more writers share the same force. This pays off where a force takes longer than the wait.
+     */
+    BATCHED,
+
+    /**
+     * Records are acknowledged as soon as they are written and forced to the disk periodically. A crash may lose the
+     * records of the last period.
+     */
+    PERIODIC
+}
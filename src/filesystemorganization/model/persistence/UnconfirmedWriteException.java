@@ -0,0 +1,36 @@
+package filesystemorganization.model.persistence;
+
+import java.io.IOException;
+
+/**
+ * This exception signals that a modification was written to the journal and applied, but could not be confirmed as
+ * durable, for example because the waiting thread was interrupted. The modification stays applied and is replayed
+ * on the next start if its record reached the disk.
+ *
+ * @author ujxbs
+ */
+public class UnconfirmedWriteException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+    private final int entryId;
+
+    /**
+     * Constructs the exception for a modification of an input file.
+     *
+     * @param entryId the entry ID of the modified input file
+     * @param cause   the failure while waiting for the durability
+     */
+    public UnconfirmedWriteException(int entryId, IOException cause) {
+        super(cause);
+        this.entryId = entryId;
+    }
+
+    /**
+     * Returns the entry ID of the modified input file.
+     *
+     * @return the entry ID
+     */
+    public int getEntryId() {
+        return entryId;
+    }
+}
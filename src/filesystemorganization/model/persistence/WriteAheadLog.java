@@ -0,0 +1,262 @@
+package filesystemorganization.model.persistence;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class represents an append-only log of records. Every record gets a sequence number and is written in one
+ * piece. Depending on the {@link SyncPolicy sync policy}, appending waits until the record was forced to the disk.
+ * Writers waiting at the same time are group committed: one of them forces the log for all of them. The log is
+ * written without an interruptible channel, so interrupting a writer never closes the log.
+ *
+ * @author ujxbs
+ */
+public class WriteAheadLog implements AutoCloseable {
+
+    private static final String SEQUENCE_SEPARATOR = " ";
+    private static final String RECORD_TERMINATOR = "\n";
+    private static final int BATCH_SIZE = 64;
+    private static final long BATCH_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long BATCH_GAP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long PERIODIC_INTERVAL_MILLIS = 100;
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final String READ_WRITE_MODE = "rw";
+    private static final long NO_SEQUENCE = Long.MIN_VALUE;
+    private final RandomAccessFile file;
+    private final SyncPolicy syncPolicy;
+    private final ScheduledExecutorService periodicSync;
+    private long nextSequence;
+    private long writtenSequence;
+    private long syncedSequence;
+    private boolean syncInProgress = false;
+    private int waitingWriters = 0;
+
+    /**
+     * Opens a write-ahead log. Everything behind the given valid length, like a torn last record, is cut off.
+     *
+     * @param logFile       the file of the log
+     * @param syncPolicy    the policy that decides when records are forced to the disk
+     * @param validLength   the length of the log that holds complete records
+     * @param nextSequence  the sequence number of the next appended record
+     * @throws IOException if the log could not be opened
+     */
+    public WriteAheadLog(Path logFile, SyncPolicy syncPolicy, long validLength, long nextSequence) throws IOException {
+        this.file = new RandomAccessFile(logFile.toFile(), READ_WRITE_MODE);
+        this.file.setLength(validLength);
+        this.file.seek(validLength);
+        this.syncPolicy = syncPolicy;
+        this.nextSequence = nextSequence;
+        this.writtenSequence = nextSequence - 1;
+        this.syncedSequence = nextSequence - 1;
+
+        if (syncPolicy == SyncPolicy.PERIODIC) {
+            this.periodicSync = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "write-ahead-log-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.periodicSync.scheduleWithFixedDelay(this::syncQuietly, PERIODIC_INTERVAL_MILLIS,
+                    PERIODIC_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } else {
+            this.periodicSync = null;
+        }
+    }
+
+    /**
+     * Appends a record to the log. The record may span several lines, but its last line must not be terminated.
+     * Returns once the record is as durable as the sync policy demands.
+     *
+     * @param record the record to append
+     * @return the sequence number of the record
+     * @throws IOException if the record could not be written or forced to the disk
+     */
+    public long append(String record) throws IOException {
+        long sequence = write(record);
+        awaitDurable(sequence);
+        return sequence;
+    }
+
+    /**
+     * Writes a record to the log without waiting for it to become durable. Records are replayed in the order they
+     * were written.
+     *
+     * @param record the record to write
+     * @return the sequence number of the record, to {@link #awaitDurable await} its durability with
+     * @throws IOException if the record could not be written
+     */
+    public synchronized long write(String record) throws IOException {
+        long sequence = nextSequence;
+        byte[] bytes = (sequence + SEQUENCE_SEPARATOR + record + RECORD_TERMINATOR).getBytes(StandardCharsets.UTF_8);
+        long position = file.getFilePointer();
+        try {
+            file.write(bytes);
+        } catch (IOException e) {
+            file.setLength(position);
+            file.seek(position);
+            throw e;
+        }
+        nextSequence++;
+        writtenSequence = sequence;
+        notifyAll();
+        return sequence;
+    }
+
+    /**
+     * Waits until the record with given sequence number is as durable as the sync policy demands.
+     *
+     * @param sequence the sequence number of a written record
+     * @throws IOException if the log could not be forced to the disk
+     */
+    public void awaitDurable(long sequence) throws IOException {
+        if (syncPolicy != SyncPolicy.PERIODIC) {
+            awaitSync(sequence);
+        }
+    }
+
+    /**
+     * Returns the sequence number of the last appended record.
+     *
+     * @return the sequence number of the last appended record
+     */
+    public synchronized long getLastSequence() {
+        return writtenSequence;
+    }
+
+    /**
+     * Forces all appended records to the disk and removes them from the log. Must only be called while no other
+     * writer appends, after the records were saved elsewhere.
+     *
+     * @throws IOException if the log could not be cleared
+     */
+    public synchronized void clear() throws IOException {
+        file.setLength(0);
+        file.seek(0);
+        file.getFD().sync();
+        syncedSequence = writtenSequence;
+    }
+
+    private void awaitSync(long sequence) throws IOException {
+        synchronized (this) {
+            waitingWriters++;
+        }
+        try {
+            while (true) {
+                boolean batch;
+                synchronized (this) {
+                    while (syncInProgress && syncedSequence < sequence) {
+                        waitForLog(0);
+                    }
+                    if (syncedSequence >= sequence) {
+                        return;
+                    }
+                    syncInProgress = true;
+                    // Waiting for further records only pays off while other writers are about to append
+                    batch = syncPolicy == SyncPolicy.BATCHED && waitingWriters > 1;
+                }
+                if (batch) {
+                    awaitBatch();
+                }
+                long targetSequence;
+                synchronized (this) {
+                    targetSequence = writtenSequence;
+                }
+                force(targetSequence);
+            }
+        } finally {
+            synchronized (this) {
+                waitingWriters--;
+            }
+        }
+    }
+
+    /**
+     * Waits for further records to join the next force, until the batch is full, the batch window is over, or no
+     * record was appended for a short gap. The wait happens outside the lock, so other writers can append meanwhile.
+     */
+    private void awaitBatch() throws InterruptedIOException {
+        long deadline = System.nanoTime() + BATCH_WINDOW_NANOS;
+        long lastWrittenSequence = NO_SEQUENCE;
+        while (true) {
+            synchronized (this) {
+                if (writtenSequence == lastWrittenSequence || writtenSequence - syncedSequence >= BATCH_SIZE
+                        || deadline - System.nanoTime() <= 0) {
+                    return;
+                }
+                lastWrittenSequence = writtenSequence;
+            }
+            LockSupport.parkNanos(BATCH_GAP_NANOS);
+            if (Thread.interrupted()) {
+                synchronized (this) {
+                    syncInProgress = false;
+                    notifyAll();
+                }
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+    }
+
+    private void force(long targetSequence) throws IOException {
+        boolean forced = false;
+        try {
+            file.getFD().sync();
+            forced = true;
+        } finally {
+            synchronized (this) {
+                syncInProgress = false;
+                if (forced) {
+                    syncedSequence = Math.max(syncedSequence, targetSequence);
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    private void waitForLog(long nanos) throws InterruptedIOException {
+        try {
+            if (nanos == 0) {
+                wait();
+            } else {
+                wait(nanos / NANOS_PER_MILLI, (int) (nanos % NANOS_PER_MILLI));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private void syncQuietly() {
+        long targetSequence;
+        synchronized (this) {
+            if (syncInProgress || syncedSequence >= writtenSequence) {
+                return;
+            }
+            syncInProgress = true;
+            targetSequence = writtenSequence;
+        }
+        try {
+            force(targetSequence);
+        } catch (IOException e) {
+            // The next period tries again
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (periodicSync != null) {
+            periodicSync.shutdownNow();
+        }
+        synchronized (this) {
+            file.getFD().sync();
+            syncedSequence = writtenSequence;
+            file.close();
+        }
+    }
+}
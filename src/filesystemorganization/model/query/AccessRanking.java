@@ -0,0 +1,172 @@
+package filesystemorganization.model.query;
+
+import filesystemorganization.model.document.Document;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * This class keeps the documents of an input file in a binary max-heap by their access counts, so that the most
+ * accessed documents are found without sorting all of them. Documents with equal access counts are ranked in the order
+ * of the input file. A changed access count is moved to its place in the heap in logarithmic time.
+ *
+ * @author ujxbs
+ */
+public final class AccessRanking {
+
+    private static final int ROOT_SLOT = 0;
+    private static final int CHILD_FACTOR = 2;
+    private final List<Document> documents;
+    private final int[] heap;
+    private final int[] slots;
+
+    /**
+     * Constructs the ranking of the given documents.
+     *
+     * @param documents the documents in the order of the input file
+     */
+    public AccessRanking(List<Document> documents) {
+        this.documents = documents;
+        this.heap = new int[documents.size()];
+        this.slots = new int[documents.size()];
+        for (int position = 0; position < heap.length; position++) {
+            heap[position] = position;
+            slots[position] = position;
+        }
+        for (int slot = heap.length / CHILD_FACTOR - 1; slot >= ROOT_SLOT; slot--) {
+            siftDown(slot);
+        }
+    }
+
+    /**
+     * Moves a document to its place after its access count was changed.
+     *
+     * @param position the position of the document in the input file
+     */
+    public void update(int position) {
+        int slot = slots[position];
+        siftUp(slot);
+        if (heap[slot] == position) {
+            siftDown(slot);
+        }
+    }
+
+    /**
+     * Finds the most accessed documents. The heap is walked from its root in descending order, so only the documents
+     * ranked up to the last returned one and their children are looked at.
+     *
+     * @param limit the maximum number of documents to find
+     * @return the positions of the found documents, most accessed first
+     */
+    public int[] top(int limit) {
+        return walk(limit, null);
+    }
+
+    /**
+     * Finds the most accessed documents among some candidates. Many candidates are found by walking the heap and
+     * skipping the others, few are selected directly from the candidates, whichever looks at fewer documents.
+     *
+     * @param limit      the maximum number of documents to find
+     * @param candidates the ascending positions of the candidates
+     * @return the positions of the found documents, most accessed first
+     */
+    public int[] top(int limit, int[] candidates) {
+        if (candidates.length == 0) {
+            return candidates;
+        }
+        // Walking the heap looks at about limit * heap.length / candidates.length documents until enough are found
+        if ((long) limit * heap.length <= (long) candidates.length * candidates.length) {
+            return walk(limit, candidates);
+        }
+        return select(limit, candidates);
+    }
+
+    private int[] walk(int limit, int[] candidates) {
+        int[] result = new int[Math.min(limit, candidates == null ? heap.length : candidates.length)];
+        int size = 0;
+        PriorityQueue<Integer> frontier = new PriorityQueue<>((first, second) -> compare(heap[first], heap[second]));
+        if (heap.length > 0) {
+            frontier.add(ROOT_SLOT);
+        }
+        while (size < result.length && !frontier.isEmpty()) {
+            int slot = frontier.poll();
+            if (candidates == null || Arrays.binarySearch(candidates, heap[slot]) >= 0) {
+                result[size++] = heap[slot];
+            }
+            for (int child = slot * CHILD_FACTOR + 1; child <= slot * CHILD_FACTOR + CHILD_FACTOR; child++) {
+                if (child < heap.length) {
+                    frontier.add(child);
+                }
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private int[] select(int limit, int[] candidates) {
+        // The selected documents are kept in a heap with the least accessed one on top, which is replaced when a
+        // more accessed candidate comes up
+        PriorityQueue<Integer> selected = new PriorityQueue<>(this::compareReversed);
+        for (int position : candidates) {
+            if (selected.size() < limit) {
+                selected.add(position);
+            } else if (compare(position, selected.peek()) < 0) {
+                selected.poll();
+                selected.add(position);
+            }
+        }
+        int[] result = new int[selected.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = selected.poll();
+        }
+        return result;
+    }
+
+    private void siftUp(int slot) {
+        int current = slot;
+        while (current > ROOT_SLOT) {
+            int parent = (current - 1) / CHILD_FACTOR;
+            if (compare(heap[current], heap[parent]) >= 0) {
+                return;
+            }
+            swap(current, parent);
+            current = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        int current = slot;
+        while (true) {
+            int highest = current;
+            for (int child = current * CHILD_FACTOR + 1; child <= current * CHILD_FACTOR + CHILD_FACTOR; child++) {
+                if (child < heap.length && compare(heap[child], heap[highest]) < 0) {
+                    highest = child;
+                }
+            }
+            if (highest == current) {
+                return;
+            }
+            swap(current, highest);
+            current = highest;
+        }
+    }
+
+    private void swap(int first, int second) {
+        int position = heap[first];
+        heap[first] = heap[second];
+        heap[second] = position;
+        slots[heap[first]] = first;
+        slots[heap[second]] = second;
+    }
+
+    // The more accessed document comes first
+    private int compare(int firstPosition, int secondPosition) {
+        int comparison = Integer.compare(documents.get(secondPosition).getAccessCount(),
+                documents.get(firstPosition).getAccessCount());
+        return comparison != 0 ? comparison : Integer.compare(firstPosition, secondPosition);
+    }
+
+    private int compareReversed(int firstPosition, int secondPosition) {
+        return compare(secondPosition, firstPosition);
+    }
+}
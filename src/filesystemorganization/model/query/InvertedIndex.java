@@ -0,0 +1,215 @@
+package filesystemorganization.model.query;
+
+import filesystemorganization.model.document.Document;
+import filesystemorganization.model.document.DocumentType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class maps the terms of a {@link TagQuery} to the positions of the documents they match, in the order of the
+ * input file. A tag matches the documents that define it, a tag with a value those whose tag has that value, and a
+ * document type the documents of that type. Tags are looked at after the special tags of the document types were
+ * handled, like a structuring does, and their identifiers are case-insensitive. Besides, the numeric values of the tags
+ * as they were given, including those the special handling replaced by a category, are kept sorted per tag, so that
+ * the documents with a value in a range are found by binary search.
+ *
+ * @author ujxbs
+ */
+public final class InvertedIndex {
+
+    private static final String TAG_VALUE_EXPLICIT_UNDEFINED = "explicitUndefined!";
+    private static final String TAG_VALUE_SEPARATOR = "=";
+    private static final String TYPE_PREFIX = "type:";
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int GROWTH_FACTOR = 2;
+    private static final int[] NO_POSITIONS = new int[0];
+    private final Map<String, int[]> postings = new HashMap<>();
+    private final Map<String, NumericPostings> numericPostings = new HashMap<>();
+    private final int numberOfDocuments;
+
+    /**
+     * Constructs the index of the given documents.
+     *
+     * @param documents the documents in the order of the input file
+     */
+    public InvertedIndex(List<Document> documents) {
+        this.numberOfDocuments = documents.size();
+        Map<String, PostingList> postingLists = new HashMap<>();
+        Map<String, PostingList> numericPostingLists = new HashMap<>();
+        for (int position = 0; position < documents.size(); position++) {
+            Document document = documents.get(position);
+            postingLists.computeIfAbsent(typeTerm(document.getDocumentType()), term -> new PostingList())
+                    .add(position);
+            for (String tagIdentifier : document.getTagIdentifiers()) {
+                String value = document.getTagValue(tagIdentifier);
+                if (value.equalsIgnoreCase(TAG_VALUE_EXPLICIT_UNDEFINED)) {
+                    continue;
+                }
+                postingLists.computeIfAbsent(tagTerm(tagIdentifier), term -> new PostingList()).add(position);
+                postingLists.computeIfAbsent(tagTerm(tagIdentifier, value), term -> new PostingList()).add(position);
+            }
+            for (Map.Entry<String, Long> numericValue : document.getNumericTagValues().entrySet()) {
+                numericPostingLists.computeIfAbsent(tagTerm(numericValue.getKey()), term -> new PostingList())
+                        .add(position, numericValue.getValue());
+            }
+        }
+        for (Map.Entry<String, PostingList> entry : postingLists.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+        for (Map.Entry<String, PostingList> entry : numericPostingLists.entrySet()) {
+            numericPostings.put(entry.getKey(), entry.getValue().sortByValue());
+        }
+    }
+
+    /**
+     * Returns the positions of the documents that match a query.
+     *
+     * @param query the query
+     * @return the ascending positions of the matching documents
+     */
+    public int[] query(TagQuery query) {
+        return query.evaluate(this);
+    }
+
+    /**
+     * Returns the number of indexed documents.
+     *
+     * @return the number of documents
+     */
+    public int getNumberOfDocuments() {
+        return numberOfDocuments;
+    }
+
+    /**
+     * Returns the positions of the documents that match a term. The array must not be modified.
+     *
+     * @param term the term
+     * @return the ascending positions of the documents with the term
+     */
+    int[] getPostings(String term) {
+        return postings.getOrDefault(term, NO_POSITIONS);
+    }
+
+    /**
+     * Counts the documents whose numeric value of a tag is within a range, without collecting them.
+     *
+     * @param tagIdentifier the identifier of the tag
+     * @param from          the lowest value of the range
+     * @param to            the highest value of the range
+     * @return the number of documents with a value in the range
+     */
+    int countRange(String tagIdentifier, long from, long to) {
+        NumericPostings tagPostings = numericPostings.get(tagTerm(tagIdentifier));
+        return tagPostings == null ? 0 : Math.max(tagPostings.end(to) - tagPostings.start(from), 0);
+    }
+
+    /**
+     * Returns the positions of the documents whose numeric value of a tag is within a range.
+     *
+     * @param tagIdentifier the identifier of the tag
+     * @param from          the lowest value of the range
+     * @param to            the highest value of the range
+     * @return the ascending positions of the documents with a value in the range
+     */
+    int[] getRangePostings(String tagIdentifier, long from, long to) {
+        NumericPostings tagPostings = numericPostings.get(tagTerm(tagIdentifier));
+        if (tagPostings == null) {
+            return NO_POSITIONS;
+        }
+        int start = tagPostings.start(from);
+        int end = tagPostings.end(to);
+        if (start >= end) {
+            return NO_POSITIONS;
+        }
+        int[] positions = Arrays.copyOfRange(tagPostings.positions, start, end);
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    static String tagTerm(String tagIdentifier) {
+        return tagIdentifier.toLowerCase();
+    }
+
+    static String tagTerm(String tagIdentifier, String value) {
+        return tagIdentifier.toLowerCase() + TAG_VALUE_SEPARATOR + value;
+    }
+
+    static String typeTerm(DocumentType documentType) {
+        return TYPE_PREFIX + documentType.name();
+    }
+
+    /**
+     * A growing list of positions, which are added in ascending order, optionally with a numeric value each.
+     */
+    private static final class PostingList {
+        private int[] positions = new int[INITIAL_CAPACITY];
+        private long[] values;
+        private int size = 0;
+
+        private void add(int position) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * GROWTH_FACTOR);
+            }
+            positions[size++] = position;
+        }
+
+        private void add(int position, long value) {
+            if (values == null) {
+                values = new long[positions.length];
+            } else if (size == values.length) {
+                values = Arrays.copyOf(values, size * GROWTH_FACTOR);
+            }
+            values[size] = value;
+            add(position);
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(positions, size);
+        }
+
+        private NumericPostings sortByValue() {
+            long[] sortedValues = Arrays.copyOf(values, size);
+            Arrays.sort(sortedValues);
+            // Each position is placed behind the positions with the same value that were placed before, so positions
+            // with equal values stay ascending
+            int[] sortedPositions = new int[size];
+            int[] placed = new int[size];
+            for (int i = 0; i < size; i++) {
+                int start = NumericPostings.lowerBound(sortedValues, values[i]);
+                sortedPositions[start + placed[start]++] = positions[i];
+            }
+            return new NumericPostings(sortedValues, sortedPositions);
+        }
+    }
+
+    /**
+     * The positions of the documents with a numeric value of a tag, sorted by that value.
+     */
+    private record NumericPostings(long[] values, int[] positions) {
+
+        private int start(long from) {
+            return lowerBound(values, from);
+        }
+
+        private int end(long to) {
+            return to == Long.MAX_VALUE ? values.length : lowerBound(values, to + 1);
+        }
+
+        private static int lowerBound(long[] sortedValues, long value) {
+            int low = 0;
+            int high = sortedValues.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (sortedValues[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
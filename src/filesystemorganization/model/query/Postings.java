@@ -0,0 +1,146 @@
+package filesystemorganization.model.query;
+
+import java.util.Arrays;
+
+/**
+ * This class provides the set operations on posting lists, which are ascending arrays of document positions without
+ * duplicates. A list that is much shorter than the other one is looked up in it by binary search, so that the cost
+ * depends on the shorter list only.
+ *
+ * @author ujxbs
+ */
+final class Postings {
+
+    private static final String UTILITY_CLASS_CONSTRUCTOR_MESSAGE = "Utility classes cannot be instantiated";
+    private static final int SEARCH_RATIO = 32;
+
+    private Postings() {
+        throw new UnsupportedOperationException(UTILITY_CLASS_CONSTRUCTOR_MESSAGE);
+    }
+
+    /**
+     * Calculates the positions that occur in both lists.
+     *
+     * @param first  a posting list
+     * @param second another posting list
+     * @return the intersection of both lists
+     */
+    static int[] intersect(int[] first, int[] second) {
+        int[] shorter = first.length <= second.length ? first : second;
+        int[] longer = shorter == first ? second : first;
+        int[] result = new int[shorter.length];
+        int size = 0;
+        if ((long) shorter.length * SEARCH_RATIO < longer.length) {
+            int from = 0;
+            for (int position : shorter) {
+                int index = Arrays.binarySearch(longer, from, longer.length, position);
+                if (index >= 0) {
+                    result[size++] = position;
+                }
+                from = index >= 0 ? index + 1 : -index - 1;
+            }
+            return Arrays.copyOf(result, size);
+        }
+
+        int i = 0;
+        int j = 0;
+        while (i < shorter.length && j < longer.length) {
+            if (shorter[i] < longer[j]) {
+                i++;
+            } else if (shorter[i] > longer[j]) {
+                j++;
+            } else {
+                result[size++] = shorter[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Calculates the positions that occur in either list.
+     *
+     * @param first  a posting list
+     * @param second another posting list
+     * @return the union of both lists
+     */
+    static int[] union(int[] first, int[] second) {
+        int[] result = new int[first.length + second.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                result[size++] = first[i++];
+            } else if (first[i] > second[j]) {
+                result[size++] = second[j++];
+            } else {
+                result[size++] = first[i++];
+                j++;
+            }
+        }
+        while (i < first.length) {
+            result[size++] = first[i++];
+        }
+        while (j < second.length) {
+            result[size++] = second[j++];
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Calculates the positions of a list that do not occur in another list.
+     *
+     * @param positions the posting list to remove positions from
+     * @param removed   the posting list of the positions to remove
+     * @return the difference of both lists
+     */
+    static int[] subtract(int[] positions, int[] removed) {
+        int[] result = new int[positions.length];
+        int size = 0;
+        if ((long) positions.length * SEARCH_RATIO < removed.length) {
+            int from = 0;
+            for (int position : positions) {
+                int index = Arrays.binarySearch(removed, from, removed.length, position);
+                if (index < 0) {
+                    result[size++] = position;
+                }
+                from = index >= 0 ? index + 1 : -index - 1;
+            }
+            return Arrays.copyOf(result, size);
+        }
+
+        int j = 0;
+        for (int position : positions) {
+            while (j < removed.length && removed[j] < position) {
+                j++;
+            }
+            if (j == removed.length || removed[j] != position) {
+                result[size++] = position;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Calculates the positions of all documents that do not occur in a list.
+     *
+     * @param positions         the posting list
+     * @param numberOfDocuments the number of all documents
+     * @return the complement of the list
+     */
+    static int[] complement(int[] positions, int numberOfDocuments) {
+        int[] result = new int[numberOfDocuments - positions.length];
+        int size = 0;
+        int j = 0;
+        for (int position = 0; position < numberOfDocuments; position++) {
+            if (j < positions.length && positions[j] == position) {
+                j++;
+            } else {
+                result[size++] = position;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,255 @@
+package filesystemorganization.model.query;
+
+import filesystemorganization.model.document.DocumentType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This class represents a boolean query over the tags and types of documents, which is answered by an
+ * {@link InvertedIndex}. The number of documents a query matches is estimated from the lengths of the posting lists,
+ * so that a conjunction starts with its most selective part and shrinks its result before it looks at the others.
+ * Negated parts of a conjunction are subtracted from its result rather than complemented first.
+ *
+ * @author ujxbs
+ */
+public abstract class TagQuery {
+
+    private static final String TAG_VALUE_UNDEFINED = "undefined";
+
+    private TagQuery() {
+    }
+
+    /**
+     * Creates the query for the documents that define a tag.
+     *
+     * @param tagIdentifier the identifier of the tag
+     * @return the query
+     */
+    public static TagQuery tag(String tagIdentifier) {
+        return new Term(InvertedIndex.tagTerm(tagIdentifier));
+    }
+
+    /**
+     * Creates the query for the documents whose tag has a value. The value "undefined" matches the documents that do
+     * not define the tag.
+     *
+     * @param tagIdentifier the identifier of the tag
+     * @param value         the value of the tag
+     * @return the query
+     */
+    public static TagQuery tagValue(String tagIdentifier, String value) {
+        if (value.equals(TAG_VALUE_UNDEFINED)) {
+            return not(tag(tagIdentifier));
+        }
+        return new Term(InvertedIndex.tagTerm(tagIdentifier, value));
+    }
+
+    /**
+     * Creates the query for the documents whose numeric value of a tag is within a range. The values are compared as
+     * they were given, also for the special tags whose values are replaced by categories.
+     *
+     * @param tagIdentifier the identifier of the tag
+     * @param from          the lowest value of the range
+     * @param to            the highest value of the range
+     * @return the query
+     */
+    public static TagQuery range(String tagIdentifier, long from, long to) {
+        return new Range(tagIdentifier, from, to);
+    }
+
+    /**
+     * Creates the query for the documents of a type.
+     *
+     * @param documentType the type of the documents
+     * @return the query
+     */
+    public static TagQuery type(DocumentType documentType) {
+        return new Term(InvertedIndex.typeTerm(documentType));
+    }
+
+    /**
+     * Creates the query for the documents that match all given queries.
+     *
+     * @param queries the queries
+     * @return the query
+     */
+    public static TagQuery and(List<TagQuery> queries) {
+        return queries.size() == 1 ? queries.get(0) : new And(List.copyOf(queries));
+    }
+
+    /**
+     * Creates the query for the documents that match any of the given queries.
+     *
+     * @param queries the queries
+     * @return the query
+     */
+    public static TagQuery or(List<TagQuery> queries) {
+        return queries.size() == 1 ? queries.get(0) : new Or(List.copyOf(queries));
+    }
+
+    /**
+     * Creates the query for the documents that do not match a query.
+     *
+     * @param query the query
+     * @return the query
+     */
+    public static TagQuery not(TagQuery query) {
+        return query instanceof Not negation ? negation.query : new Not(query);
+    }
+
+    /**
+     * Estimates the number of documents the query matches, without evaluating it.
+     *
+     * @param index the index of the documents
+     * @return the estimated number of matching documents
+     */
+    abstract long estimate(InvertedIndex index);
+
+    /**
+     * Evaluates the query.
+     *
+     * @param index the index of the documents
+     * @return the ascending positions of the matching documents, which must not be modified
+     */
+    abstract int[] evaluate(InvertedIndex index);
+
+    private static final class Term extends TagQuery {
+        private final String term;
+
+        private Term(String term) {
+            this.term = term;
+        }
+
+        @Override
+        long estimate(InvertedIndex index) {
+            return index.getPostings(term).length;
+        }
+
+        @Override
+        int[] evaluate(InvertedIndex index) {
+            return index.getPostings(term);
+        }
+    }
+
+    private static final class Range extends TagQuery {
+        private final String tagIdentifier;
+        private final long from;
+        private final long to;
+
+        private Range(String tagIdentifier, long from, long to) {
+            this.tagIdentifier = tagIdentifier;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        long estimate(InvertedIndex index) {
+            return index.countRange(tagIdentifier, from, to);
+        }
+
+        @Override
+        int[] evaluate(InvertedIndex index) {
+            return index.getRangePostings(tagIdentifier, from, to);
+        }
+    }
+
+    private static final class Not extends TagQuery {
+        private final TagQuery query;
+
+        private Not(TagQuery query) {
+            this.query = query;
+        }
+
+        @Override
+        long estimate(InvertedIndex index) {
+            return index.getNumberOfDocuments() - query.estimate(index);
+        }
+
+        @Override
+        int[] evaluate(InvertedIndex index) {
+            return Postings.complement(query.evaluate(index), index.getNumberOfDocuments());
+        }
+    }
+
+    private static final class And extends TagQuery {
+        private final List<TagQuery> queries;
+
+        private And(List<TagQuery> queries) {
+            this.queries = queries;
+        }
+
+        @Override
+        long estimate(InvertedIndex index) {
+            long estimate = index.getNumberOfDocuments();
+            for (TagQuery query : queries) {
+                estimate = Math.min(estimate, query.estimate(index));
+            }
+            return estimate;
+        }
+
+        @Override
+        int[] evaluate(InvertedIndex index) {
+            List<TagQuery> included = new ArrayList<>();
+            List<TagQuery> excluded = new ArrayList<>();
+            for (TagQuery query : queries) {
+                if (query instanceof Not negation) {
+                    excluded.add(negation.query);
+                } else {
+                    included.add(query);
+                }
+            }
+            if (included.isEmpty()) {
+                return Postings.complement(or(excluded).evaluate(index), index.getNumberOfDocuments());
+            }
+
+            // The most selective parts come first, as every further part can only shrink the result
+            included.sort(Comparator.comparingLong(query -> query.estimate(index)));
+            excluded.sort(Comparator.comparingLong((TagQuery query) -> query.estimate(index)).reversed());
+            int[] positions = included.get(0).evaluate(index);
+            for (TagQuery query : included.subList(1, included.size())) {
+                if (positions.length == 0) {
+                    return positions;
+                }
+                positions = Postings.intersect(positions, query.evaluate(index));
+            }
+            for (TagQuery query : excluded) {
+                if (positions.length == 0) {
+                    return positions;
+                }
+                positions = Postings.subtract(positions, query.evaluate(index));
+            }
+            return positions;
+        }
+    }
+
+    private static final class Or extends TagQuery {
+        private final List<TagQuery> queries;
+
+        private Or(List<TagQuery> queries) {
+            this.queries = queries;
+        }
+
+        @Override
+        long estimate(InvertedIndex index) {
+            long estimate = 0;
+            for (TagQuery query : queries) {
+                estimate += query.estimate(index);
+            }
+            return Math.min(estimate, index.getNumberOfDocuments());
+        }
+
+        // The smallest results are merged first, so that the large ones are copied as rarely as possible
+        @Override
+        int[] evaluate(InvertedIndex index) {
+            List<TagQuery> sortedQueries = new ArrayList<>(queries);
+            sortedQueries.sort(Comparator.comparingLong(query -> query.estimate(index)));
+            int[] positions = sortedQueries.get(0).evaluate(index);
+            for (TagQuery query : sortedQueries.subList(1, sortedQueries.size())) {
+                positions = Postings.union(positions, query.evaluate(index));
+            }
+            return positions;
+        }
+    }
+}
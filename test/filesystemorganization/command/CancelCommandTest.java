@@ -0,0 +1,69 @@
+package filesystemorganization.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link CancelCommand} reports a job as cancelled only after it has stopped, and that a job that
+ * completes after its last cancellation check is not reported as cancelled.
+ *
+ * @author ujxbs
+ */
+class CancelCommandTest {
+
+    private static final String COMMAND_LINE = "load input.txt &";
+    private static final String COMPLETED_MESSAGE = "Loaded";
+
+    @Test
+    void reportsCancelledJobAfterItStopped() throws Exception {
+        BackgroundJobs backgroundJobs = new BackgroundJobs();
+        CountDownLatch started = new CountDownLatch(1);
+        int jobId = backgroundJobs.submit(COMMAND_LINE, () -> {
+            started.countDown();
+            while (!Thread.currentThread().isInterrupted()) {
+                Thread.onSpinWait();
+            }
+            throw new CancellationException();
+        });
+        started.await();
+
+        CommandResult result = new CancelCommand(backgroundJobs).execute(null, new String[] {String.valueOf(jobId)});
+
+        assertEquals(CommandResultType.SUCCESS, result.getType());
+        assertTrue(backgroundJobs.getJob(jobId).isStopped());
+        assertEquals(List.of("[1] cancelled: " + COMMAND_LINE), backgroundJobs.describeJobs());
+        assertEquals(CommandResultType.FAILURE,
+                new WaitCommand(backgroundJobs).execute(null, new String[] {String.valueOf(jobId)}).getType());
+    }
+
+    @Test
+    void reportsJobThatCompletedAfterItsLastCheck() throws Exception {
+        BackgroundJobs backgroundJobs = new BackgroundJobs();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        int jobId = backgroundJobs.submit(COMMAND_LINE, () -> {
+            started.countDown();
+            while (cancelled.getCount() > 0) {
+                Thread.onSpinWait();
+            }
+            return new CommandResult(CommandResultType.SUCCESS, COMPLETED_MESSAGE);
+        });
+        started.await();
+        BackgroundJobs.Job job = backgroundJobs.getJob(jobId);
+
+        job.cancel(true);
+        assertEquals(List.of("[1] cancelling: " + COMMAND_LINE), backgroundJobs.describeJobs());
+        cancelled.countDown();
+        job.awaitStop();
+
+        assertEquals(List.of("[1] done: " + COMMAND_LINE), backgroundJobs.describeJobs());
+        assertEquals(COMPLETED_MESSAGE,
+                new WaitCommand(backgroundJobs).execute(null, new String[] {String.valueOf(jobId)}).getMessage());
+    }
+}
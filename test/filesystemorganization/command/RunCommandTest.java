@@ -0,0 +1,92 @@
+package filesystemorganization.command;
+
+import filesystemorganization.model.FileSystemOrganization;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the option parsing of {@link RunCommand}.
+ *
+ * @author ujxbs
+ */
+class RunCommandTest {
+
+    private static final String DOCUMENT = "a.mp3,audio,5,fun";
+    private static final List<String> DOCUMENTS = List.of("a.mp3,audio,5,fun", "b.mp3,audio,7,genre=pop",
+            "c.mp3,audio,3,fun,genre=rock", "d.txt,text,4,genre=pop");
+    private static final String FROM_SCRATCH = "was structured from scratch.";
+
+    @Test
+    void rejectsDeadlineBeyondRangeOfLong() throws Exception {
+        FileSystemOrganization model = new FileSystemOrganization();
+        int entryId = model.loadDocuments(List.of(DOCUMENT));
+
+        CommandResult result = new RunCommand().execute(model,
+                new String[] {String.valueOf(entryId), "--deadline", "99999999999999999999"});
+
+        assertEquals(CommandResultType.FAILURE, result.getType());
+    }
+
+    @Test
+    void reportsPreviousEntryWithoutStructuring() throws Exception {
+        FileSystemOrganization model = new FileSystemOrganization();
+        int previousEntryId = model.loadDocuments(DOCUMENTS);
+        int entryId = model.loadDocuments(DOCUMENTS);
+
+        CommandResult result = new RunCommand().execute(model,
+                new String[] {String.valueOf(entryId), "--from", String.valueOf(previousEntryId)});
+
+        assertEquals(CommandResultType.SUCCESS, result.getType());
+        assertEquals(runFromScratch() + System.lineSeparator() + "Entry 0 has no complete structuring to start from, "
+                + "so entry 1 " + FROM_SCRATCH, result.getMessage());
+    }
+
+    @Test
+    void reportsPreviousStructuringWithOtherOptions() throws Exception {
+        FileSystemOrganization model = new FileSystemOrganization();
+        int previousEntryId = model.loadDocuments(DOCUMENTS);
+        int entryId = model.loadDocuments(DOCUMENTS);
+        new RunCommand().execute(model, new String[] {String.valueOf(previousEntryId)});
+
+        CommandResult result = new RunCommand().execute(model, new String[] {String.valueOf(entryId),
+                "--from", String.valueOf(previousEntryId), "--max-children", "2"});
+
+        assertTrue(result.getMessage().endsWith(FROM_SCRATCH));
+    }
+
+    @Test
+    void warmStartPrintsOutputOfColdStart() throws Exception {
+        FileSystemOrganization model = new FileSystemOrganization();
+        int previousEntryId = model.loadDocuments(DOCUMENTS);
+        int entryId = model.loadDocuments(DOCUMENTS);
+        new RunCommand().execute(model, new String[] {String.valueOf(previousEntryId)});
+
+        CommandResult result = new RunCommand().execute(model,
+                new String[] {String.valueOf(entryId), "--from", String.valueOf(previousEntryId)});
+
+        assertFalse(result.getMessage().endsWith(FROM_SCRATCH));
+        assertEquals(runFromScratch(), result.getMessage());
+    }
+
+    @Test
+    void acceptsDeadlineWithinLimit() throws Exception {
+        FileSystemOrganization model = new FileSystemOrganization();
+        int entryId = model.loadDocuments(List.of(DOCUMENT));
+
+        CommandResult result = new RunCommand().execute(model,
+                new String[] {String.valueOf(entryId), "--deadline", "999999999999"});
+
+        assertEquals(CommandResultType.SUCCESS, result.getType());
+    }
+
+    private static String runFromScratch() throws Exception {
+        FileSystemOrganization model = new FileSystemOrganization();
+        int entryId = model.loadDocuments(DOCUMENTS);
+        return new RunCommand().execute(model, new String[] {String.valueOf(entryId)}).getMessage();
+    }
+}
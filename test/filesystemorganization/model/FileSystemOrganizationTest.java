@@ -0,0 +1,63 @@
+package filesystemorganization.model;
+
+import filesystemorganization.model.document.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests the changes of access counts and the lookups of unloaded input files of {@link FileSystemOrganization}.
+ *
+ * @author ujxbs
+ */
+class FileSystemOrganizationTest {
+
+    private static final String FIRST_DOCUMENT = "a.mp3,audio,5,fun";
+    private static final String SECOND_DOCUMENT = "b.mp3,audio,7,fun";
+
+    @Test
+    void changeOfRemovedDocumentFails() throws Exception {
+        FileSystemOrganization model = new FileSystemOrganization();
+        int entryId = model.loadDocuments(List.of(FIRST_DOCUMENT, SECOND_DOCUMENT));
+        Document removedDocument = model.findDocument(entryId, "a.mp3");
+
+        model.reloadDocuments(entryId, Arrays.asList((String) null), new int[] {1});
+
+        assertFalse(model.changeAccessCount(entryId, removedDocument, 1));
+        assertFalse(model.changeAccessCounts(entryId, List.of(removedDocument), new int[] {1}));
+        assertEquals(7, model.findDocument(entryId, "b.mp3").getAccessCount());
+    }
+
+    @Test
+    void changeOfUnloadedInputFileFails() throws Exception {
+        FileSystemOrganization model = new FileSystemOrganization();
+        int entryId = model.loadDocuments(List.of(FIRST_DOCUMENT));
+        Document document = model.findDocument(entryId, "a.mp3");
+
+        model.unloadInputFile(entryId);
+
+        assertFalse(model.changeAccessCount(entryId, document, 1));
+        assertFalse(model.changeAccessCounts(entryId, List.of(document), new int[] {1}));
+    }
+
+    @Test
+    void lookupsOfUnloadedInputFileReturnNull() throws Exception {
+        FileSystemOrganization model = new FileSystemOrganization();
+        int entryId = model.loadDocuments(List.of(FIRST_DOCUMENT));
+        model.getStructuring(entryId);
+
+        model.unloadInputFile(entryId);
+
+        assertNull(model.getSpecificInputFile(entryId));
+        assertNull(model.findDocument(entryId, "a.mp3"));
+        assertNull(model.queryDocuments(entryId, null));
+        assertNull(model.findTopDocuments(entryId, 1, null));
+        assertNull(model.getCachedStructuring(entryId));
+        assertNull(model.getStructuring(entryId));
+    }
+}
@@ -0,0 +1,110 @@
+package filesystemorganization.model.document;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the heap an index from identifiers to document positions takes and the time of a lookup, for the hash map
+ * of identifiers to boxed positions that input files used before and for the {@link IdentifierTrie}. Both index the
+ * same documents, whose identifiers are not counted. It is not a test and is run by hand:
+ * {@code java -cp target/classes:target/test-classes filesystemorganization.model.document.IdentifierIndexBenchmark
+ * [documents]}.
+ *
+ * @author ujxbs
+ */
+final class IdentifierIndexBenchmark {
+
+    private static final int DEFAULT_NUMBER_OF_DOCUMENTS = 200_000;
+    private static final int NUMBER_OF_DIRECTORIES = 10;
+    private static final String SHORT_PATH_FORMAT = "d%d/f%d.ima";
+    private static final String LONG_PATH_FORMAT = "home/user/archive/photos/%d/holidays/IMG_%d.jpg";
+    private static final int NUMBER_OF_LOOKUPS = 1_000_000;
+    private static final int NUMBER_OF_GARBAGE_COLLECTIONS = 5;
+    private static final long SEED = 1;
+    private static final double BYTES_PER_MEGABYTE = 1 << 20;
+    private static final double NANOS_PER_MICRO = 1e3;
+
+    private IdentifierIndexBenchmark() {
+    }
+
+    /**
+     * Prints the heap of both indices in megabytes and bytes per document, and their mean lookup times, for short
+     * paths and for long paths with shared prefixes.
+     *
+     * @param args the number of documents, optional
+     */
+    public static void main(String[] args) {
+        int numberOfDocuments = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUMBER_OF_DOCUMENTS;
+        measure(SHORT_PATH_FORMAT, numberOfDocuments);
+        measure(LONG_PATH_FORMAT, numberOfDocuments);
+    }
+
+    private static void measure(String pathFormat, int numberOfDocuments) {
+        List<Document> documents = new ArrayList<>(numberOfDocuments);
+        for (int document = 0; document < numberOfDocuments; document++) {
+            documents.add(new ImageDocument(pathFormat.formatted(document % NUMBER_OF_DIRECTORIES, document), 1,
+                    new HashSet<>()));
+        }
+
+        long before = usedHeap();
+        Map<String, Integer> hashIndex = new HashMap<>();
+        for (int position = 0; position < documents.size(); position++) {
+            hashIndex.putIfAbsent(documents.get(position).getIdentifier(), position);
+        }
+        long hashBytes = usedHeap() - before;
+        long hashNanos = timeLookups(documents, identifier -> hashIndex.getOrDefault(identifier, -1));
+
+        before = usedHeap();
+        IdentifierTrie trie = new IdentifierTrie();
+        trie.add(documents);
+        trie.index(documents);
+        long trieBytes = usedHeap() - before;
+        long trieNanos = timeLookups(documents, trie::find);
+
+        System.out.printf("%s: hash map %6.1f MB (%5.1f B/document, %.2f us/lookup), "
+                        + "trie %6.1f MB (%5.1f B/document, %.2f us/lookup)%n", pathFormat,
+                hashBytes / BYTES_PER_MEGABYTE, (double) hashBytes / numberOfDocuments,
+                hashNanos / NANOS_PER_MICRO / NUMBER_OF_LOOKUPS,
+                trieBytes / BYTES_PER_MEGABYTE, (double) trieBytes / numberOfDocuments,
+                trieNanos / NANOS_PER_MICRO / NUMBER_OF_LOOKUPS);
+        // Both indices have to be alive while the heap of the later one is measured
+        if (hashIndex.size() + trie.getNumberOfDirectories() < 0) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long timeLookups(List<Document> documents, Lookup lookup) {
+        Random random = new Random(SEED);
+        String[] identifiers = new String[NUMBER_OF_LOOKUPS];
+        for (int i = 0; i < NUMBER_OF_LOOKUPS; i++) {
+            // A copy of the identifier, as a command gets it from its arguments
+            identifiers[i] = new String(documents.get(random.nextInt(documents.size())).getIdentifier());
+        }
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (String identifier : identifiers) {
+            checksum += lookup.find(identifier);
+        }
+        long nanos = System.nanoTime() - start;
+        if (checksum < 0) {
+            throw new IllegalStateException();
+        }
+        return nanos;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < NUMBER_OF_GARBAGE_COLLECTIONS; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private interface Lookup {
+        int find(String identifier);
+    }
+}
@@ -0,0 +1,68 @@
+package filesystemorganization.model.document;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests the lookups and the pruning of {@link IdentifierTrie}.
+ *
+ * @author ujxbs
+ */
+class IdentifierTrieTest {
+
+    @Test
+    void findsFirstDocumentWithIdentifier() {
+        IdentifierTrie identifiers = new IdentifierTrie();
+        List<Document> documents = List.of(audioDocument("music/b.mp3"), audioDocument("music/a.mp3"),
+                audioDocument("a.mp3"), audioDocument("music/b.mp3"), audioDocument("music/ab.mp3"));
+        identifiers.add(documents);
+        identifiers.index(documents);
+
+        assertEquals(0, identifiers.find("music/b.mp3"));
+        assertEquals(1, identifiers.find("music/a.mp3"));
+        assertEquals(2, identifiers.find("a.mp3"));
+        assertEquals(4, identifiers.find("music/ab.mp3"));
+        assertEquals(-1, identifiers.find("music/c.mp3"));
+        assertEquals(-1, identifiers.find("sound/a.mp3"));
+        assertEquals(-1, identifiers.find("music/"));
+    }
+
+    @Test
+    void keepsIdentifiersOfDocuments() {
+        IdentifierTrie identifiers = new IdentifierTrie();
+        String identifier = "music/rock/a.mp3";
+        Document document = audioDocument(identifier);
+
+        identifiers.add(List.of(document));
+
+        assertSame(identifier, document.getIdentifier());
+    }
+
+    @Test
+    void pruneRemovesDirectoriesOfReplacedDocuments() {
+        IdentifierTrie identifiers = new IdentifierTrie();
+        List<Document> documents = List.of(audioDocument("music/old/a.mp3"), audioDocument("music/b.mp3"));
+        identifiers.add(documents);
+        assertEquals(3, identifiers.getNumberOfDirectories());
+
+        List<Document> newDocuments = List.of(audioDocument("music/b.mp3"), audioDocument("sound/c.mp3"));
+        identifiers.add(newDocuments);
+        identifiers.prune(newDocuments);
+        identifiers.index(newDocuments);
+
+        assertEquals(3, identifiers.getNumberOfDirectories());
+        assertEquals(-1, identifiers.find("music/old/a.mp3"));
+        assertEquals(0, identifiers.find("music/b.mp3"));
+        assertEquals(1, identifiers.find("sound/c.mp3"));
+        assertEquals("music/old/a.mp3", documents.get(0).getIdentifier());
+    }
+
+    private static Document audioDocument(String identifier) {
+        return new AudioDocument(identifier, 1, new HashSet<>());
+    }
+}
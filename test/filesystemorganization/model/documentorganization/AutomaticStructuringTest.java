@@ -0,0 +1,156 @@
+package filesystemorganization.model.documentorganization;
+
+import filesystemorganization.model.FileSystemOrganization;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the output of {@link AutomaticStructuring}, which the run command prints, against golden files. The golden
+ * files of the default options were written by the structuring as it was before any option existed, so that its
+ * summation order, which decides between tags of almost equal gains, stays the same. The golden files of the options
+ * pin down their current output.
+ *
+ * @author ujxbs
+ */
+class AutomaticStructuringTest {
+
+    private static final int SMALL_INPUT_FILE = 60;
+    private static final int LARGE_INPUT_FILE = 300;
+    private static final String GOLDEN_FILE_FORMAT = "golden/%s-%d-%d.txt";
+    private static final long FAR_DEADLINE_NANOS = 3_600_000_000_000L;
+    private static final int CHANGED_DOCUMENT_DISTANCE = 40;
+    private static final String CHANGED_ACCESS_COUNT = "12";
+    private static final String ELEMENT_SEPARATOR = ",";
+    private static final int ACCESS_COUNT_INDEX = 2;
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12})
+    void defaultMatchesOriginalStructuring(long seed) throws IOException {
+        assertEquals(readGoldenFile("default", SMALL_INPUT_FILE, seed),
+                structure(seed, SMALL_INPUT_FILE, StructuringOptions.DEFAULT));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4})
+    void defaultMatchesOriginalStructuringOfLargerFiles(long seed) throws IOException {
+        assertEquals(readGoldenFile("default", LARGE_INPUT_FILE, seed),
+                structure(seed, LARGE_INPUT_FILE, StructuringOptions.DEFAULT));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4})
+    void optionsThatDoNotApplyMatchDefault(long seed) throws IOException {
+        String expected = readGoldenFile("default", LARGE_INPUT_FILE, seed);
+        assertEquals(expected, structure(seed, LARGE_INPUT_FILE,
+                StructuringOptions.DEFAULT.withDeadline(System.nanoTime() + FAR_DEADLINE_NANOS)));
+        assertEquals(expected, structure(seed, LARGE_INPUT_FILE,
+                StructuringOptions.DEFAULT.withSampleSize(SampleSize.ofCount(LARGE_INPUT_FILE))));
+        assertEquals(expected, structure(seed, LARGE_INPUT_FILE,
+                StructuringOptions.DEFAULT.withMaximumNumberOfChildren(LARGE_INPUT_FILE)));
+        assertEquals(expected, structure(seed, LARGE_INPUT_FILE,
+                StructuringOptions.DEFAULT.withSplitCriterion(SplitCriterion.ENTROPY)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4})
+    void sampleMatchesGoldenFile(long seed) throws IOException {
+        assertEquals(readGoldenFile("sample", LARGE_INPUT_FILE, seed), structure(seed, LARGE_INPUT_FILE,
+                StructuringOptions.DEFAULT.withSampleSize(SampleSize.ofFraction(0.5))));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4})
+    void maximumNumberOfChildrenMatchesGoldenFile(long seed) throws IOException {
+        assertEquals(readGoldenFile("max-children", LARGE_INPUT_FILE, seed), structure(seed, LARGE_INPUT_FILE,
+                StructuringOptions.DEFAULT.withMaximumNumberOfChildren(3)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4})
+    void binsMatchGoldenFile(long seed) throws IOException {
+        assertEquals(readGoldenFile("bins", LARGE_INPUT_FILE, seed), structure(seed, LARGE_INPUT_FILE,
+                StructuringOptions.DEFAULT.withNumberOfBins(2)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4})
+    void giniImpurityMatchesGoldenFile(long seed) throws IOException {
+        assertEquals(readGoldenFile("gini", LARGE_INPUT_FILE, seed), structure(seed, LARGE_INPUT_FILE,
+                StructuringOptions.DEFAULT.withSplitCriterion(SplitCriterion.GINI_IMPURITY)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4})
+    void gainRatioMatchesGoldenFile(long seed) throws IOException {
+        assertEquals(readGoldenFile("gain-ratio", LARGE_INPUT_FILE, seed), structure(seed, LARGE_INPUT_FILE,
+                StructuringOptions.DEFAULT.withSplitCriterion(SplitCriterion.GAIN_RATIO)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4})
+    void warmStartMatchesColdStart(long seed) throws IOException {
+        List<String> lines = InputGenerator.generate(seed, LARGE_INPUT_FILE);
+        FileSystemOrganization model = new FileSystemOrganization();
+        int previousEntryId = model.loadDocuments(lines);
+        int entryId = model.loadDocuments(changeAccessCounts(lines));
+        AutomaticStructuring previous = new AutomaticStructuring(model, previousEntryId);
+
+        AutomaticStructuring cold = new AutomaticStructuring(model, entryId);
+        AutomaticStructuring warm = new AutomaticStructuring(model, entryId,
+                StructuringOptions.DEFAULT.withPreviousStructuring(previous));
+
+        assertTrue(warm.isStartedFromPreviousStructuring());
+        assertFalse(cold.isStartedFromPreviousStructuring());
+        assertEquals(cold.toString(), warm.toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4})
+    void warmStartWithOtherOptionsStartsFromScratch(long seed) throws IOException {
+        FileSystemOrganization model = new FileSystemOrganization();
+        int entryId = model.loadDocuments(InputGenerator.generate(seed, LARGE_INPUT_FILE));
+        AutomaticStructuring previous = new AutomaticStructuring(model, entryId);
+
+        AutomaticStructuring structuring = new AutomaticStructuring(model, entryId,
+                StructuringOptions.DEFAULT.withMaximumNumberOfChildren(3).withPreviousStructuring(previous));
+
+        assertFalse(structuring.isStartedFromPreviousStructuring());
+        assertEquals(readGoldenFile("max-children", LARGE_INPUT_FILE, seed),
+                structuring.toString().replace(System.lineSeparator(), "\n"));
+    }
+
+    private static List<String> changeAccessCounts(List<String> lines) {
+        List<String> changedLines = new ArrayList<>(lines);
+        for (int i = 0; i < changedLines.size(); i += CHANGED_DOCUMENT_DISTANCE) {
+            String[] elements = changedLines.get(i).split(ELEMENT_SEPARATOR);
+            elements[ACCESS_COUNT_INDEX] = CHANGED_ACCESS_COUNT;
+            changedLines.set(i, String.join(ELEMENT_SEPARATOR, elements));
+        }
+        return changedLines;
+    }
+
+    private static String structure(long seed, int numberOfDocuments, StructuringOptions options) throws IOException {
+        FileSystemOrganization model = new FileSystemOrganization();
+        int entryId = model.loadDocuments(InputGenerator.generate(seed, numberOfDocuments));
+        return new AutomaticStructuring(model, entryId, options).toString().replace(System.lineSeparator(), "\n");
+    }
+
+    private static String readGoldenFile(String name, int numberOfDocuments, long seed) throws IOException {
+        try (InputStream golden = AutomaticStructuringTest.class.getResourceAsStream(
+                GOLDEN_FILE_FORMAT.formatted(name, numberOfDocuments, seed))) {
+            assertNotNull(golden);
+            return new String(golden.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
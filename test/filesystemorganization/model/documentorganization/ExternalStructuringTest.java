@@ -0,0 +1,60 @@
+package filesystemorganization.model.documentorganization;
+
+import filesystemorganization.model.FileSystemOrganization;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that {@link ExternalStructuring}, which the run-file command writes with, gives the output of the run command
+ * for memory budgets that split the documents into partitions.
+ *
+ * @author ujxbs
+ */
+class ExternalStructuringTest {
+
+    private static final int NUMBER_OF_DOCUMENTS = 300;
+    private static final long NO_MEMORY = 0;
+    private static final long SMALL_MEMORY_BUDGET = 20_000;
+    private static final String OUTPUT_FILE = "structure.txt";
+    private static final String PARTITION_DIRECTORY = "partitions";
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5, 6})
+    void smallBudgetMatchesRun(long seed) throws IOException {
+        assertMatchesRun(seed, SMALL_MEMORY_BUDGET);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5, 6})
+    void partitionsWithoutMemoryMatchRun(long seed) throws IOException {
+        assertMatchesRun(seed, NO_MEMORY);
+    }
+
+    private void assertMatchesRun(long seed, long memoryBudget) throws IOException {
+        List<String> lines = InputGenerator.generate(seed, NUMBER_OF_DOCUMENTS);
+        FileSystemOrganization model = new FileSystemOrganization();
+        int entryId = model.loadDocuments(lines);
+        Path outputFile = directory.resolve(OUTPUT_FILE);
+        try (ExternalStructuring structuring = new ExternalStructuring(directory.resolve(PARTITION_DIRECTORY),
+                memoryBudget)) {
+            for (String line : lines) {
+                structuring.addDocument(model.parseDocument(line));
+            }
+            structuring.writeStructuring(outputFile);
+        }
+
+        assertEquals(new AutomaticStructuring(model, entryId).toString() + System.lineSeparator(),
+                Files.readString(outputFile));
+    }
+}
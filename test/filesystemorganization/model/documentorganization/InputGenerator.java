@@ -0,0 +1,57 @@
+package filesystemorganization.model.documentorganization;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates the lines of an input file from a seed. Access counts and tag values are drawn from small ranges, so that
+ * equal information gains and equal access counts of values are common.
+ *
+ * @author ujxbs
+ */
+final class InputGenerator {
+
+    private static final String[] DOCUMENT_TYPES = {"audio", "image", "program", "text", "video"};
+    private static final String[] GENRES = {"rock", "pop", "jazz", "drama"};
+    private static final String[] AUTHORS = {"a1", "a2", "a3", "a4", "a5", "a6"};
+    private static final int[] YEARS = {1999, 2001, 2005, 2010, 2018};
+    private static final int MAXIMUM_ACCESS_COUNT = 9;
+    private static final int NUMBER_OF_DIRECTORIES = 4;
+    private static final double TAG_PROBABILITY = 0.6;
+
+    private InputGenerator() {
+    }
+
+    /**
+     * Generates the lines of an input file.
+     *
+     * @param seed              the seed of the random numbers
+     * @param numberOfDocuments the number of documents
+     * @return the lines of the input file
+     */
+    static List<String> generate(long seed, int numberOfDocuments) {
+        Random random = new Random(seed);
+        List<String> lines = new ArrayList<>();
+        for (int document = 0; document < numberOfDocuments; document++) {
+            StringBuilder line = new StringBuilder()
+                    .append('d').append(random.nextInt(NUMBER_OF_DIRECTORIES)).append("/f").append(document)
+                    .append(',').append(DOCUMENT_TYPES[random.nextInt(DOCUMENT_TYPES.length)])
+                    .append(',').append(1 + random.nextInt(MAXIMUM_ACCESS_COUNT));
+            if (random.nextDouble() < TAG_PROBABILITY) {
+                line.append(",genre=").append(GENRES[random.nextInt(GENRES.length)]);
+            }
+            if (random.nextDouble() < TAG_PROBABILITY) {
+                line.append(",author=").append(AUTHORS[random.nextInt(AUTHORS.length)]);
+            }
+            if (random.nextDouble() < TAG_PROBABILITY) {
+                line.append(",year=").append(YEARS[random.nextInt(YEARS.length)]);
+            }
+            if (random.nextBoolean()) {
+                line.append(",fun");
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+}
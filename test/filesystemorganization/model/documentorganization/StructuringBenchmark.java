@@ -0,0 +1,59 @@
+package filesystemorganization.model.documentorganization;
+
+import filesystemorganization.model.FileSystemOrganization;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Measures how long the structuring of a generated input file takes, with the default options and with the options
+ * that calculate gains from the precomputed terms of {@link EntropyKernels}. It is not a test and is run by hand:
+ * {@code java -cp target/classes:target/test-classes
+ * filesystemorganization.model.documentorganization.StructuringBenchmark [documents] [repetitions]}.
+ *
+ * @author ujxbs
+ */
+final class StructuringBenchmark {
+
+    private static final int DEFAULT_NUMBER_OF_DOCUMENTS = 200_000;
+    private static final int DEFAULT_NUMBER_OF_REPETITIONS = 5;
+    private static final int NUMBER_OF_WARM_UP_RUNS = 2;
+    private static final long SEED = 1;
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private StructuringBenchmark() {
+    }
+
+    /**
+     * Prints the median time of every option set in milliseconds.
+     *
+     * @param args the number of documents and the number of timed repetitions, both optional
+     * @throws Exception if the generated input file cannot be loaded
+     */
+    public static void main(String[] args) throws Exception {
+        int numberOfDocuments = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUMBER_OF_DOCUMENTS;
+        int numberOfRepetitions = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NUMBER_OF_REPETITIONS;
+        FileSystemOrganization model = new FileSystemOrganization();
+        int entryId = model.loadDocuments(InputGenerator.generate(SEED, numberOfDocuments));
+
+        Map<String, StructuringOptions> optionSets = new LinkedHashMap<>();
+        optionSets.put("default", StructuringOptions.DEFAULT);
+        optionSets.put("--max-children 3", StructuringOptions.DEFAULT.withMaximumNumberOfChildren(3));
+        optionSets.put("--bins 2", StructuringOptions.DEFAULT.withNumberOfBins(2));
+        optionSets.put("--criterion gini", StructuringOptions.DEFAULT.withSplitCriterion(SplitCriterion.GINI_IMPURITY));
+        for (Map.Entry<String, StructuringOptions> optionSet : optionSets.entrySet()) {
+            for (int run = 0; run < NUMBER_OF_WARM_UP_RUNS; run++) {
+                new AutomaticStructuring(model, entryId, optionSet.getValue());
+            }
+            long[] times = new long[numberOfRepetitions];
+            for (int run = 0; run < numberOfRepetitions; run++) {
+                long start = System.nanoTime();
+                new AutomaticStructuring(model, entryId, optionSet.getValue());
+                times[run] = System.nanoTime() - start;
+            }
+            Arrays.sort(times);
+            System.out.printf("%-18s %8.1f ms%n", optionSet.getKey(), times[numberOfRepetitions / 2] / NANOS_PER_MILLI);
+        }
+    }
+}
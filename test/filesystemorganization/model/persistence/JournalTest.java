@@ -0,0 +1,64 @@
+package filesystemorganization.model.persistence;
+
+import filesystemorganization.model.FileSystemOrganization;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests the replay of corrupt logs by {@link Journal}.
+ *
+ * @author ujxbs
+ */
+class JournalTest {
+
+    private static final String DOCUMENT = "a.mp3,audio,5,fun";
+    private static final String LOG_FILE_NAME = "log";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void corruptHeaderEndsLog() throws Exception {
+        writeLogWithLoad();
+        appendToLog("7x CHANGE 0 a.mp3 9\n");
+
+        FileSystemOrganization model = new FileSystemOrganization();
+        model.setJournal(Journal.open(directory, SyncPolicy.EVERY, model));
+
+        assertFalse(model.entryDoesNotExist(0));
+        assertEquals(5, model.findDocument(0, "a.mp3").getAccessCount());
+        model.closeJournal();
+    }
+
+    @Test
+    void corruptRecordFailsWithIOException() throws Exception {
+        writeLogWithLoad();
+        appendToLog("2 BATCH 0 1\na.mp3,99999999999\n");
+
+        FileSystemOrganization model = new FileSystemOrganization();
+        assertThrows(IOException.class, () -> Journal.open(directory, SyncPolicy.EVERY, model));
+    }
+
+    private void writeLogWithLoad() throws IOException {
+        FileSystemOrganization model = new FileSystemOrganization();
+        model.setJournal(Journal.open(directory, SyncPolicy.EVERY, model));
+        model.loadDocuments(List.of(DOCUMENT));
+        model.closeJournal();
+    }
+
+    private void appendToLog(String records) throws IOException {
+        Files.writeString(directory.resolve(LOG_FILE_NAME), records, StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,133 @@
+package filesystemorganization.model.persistence;
+
+import filesystemorganization.model.FileSystemOrganization;
+import filesystemorganization.model.document.Document;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures how long a journaled load of a generated input file takes and how many journaled changes of access counts
+ * are acknowledged per second, for every sync policy, with one writer and with eight concurrent writers. It produced
+ * the table of the journal in the README. It is not a test and is run by hand:
+ * {@code java -cp target/classes:target/test-classes filesystemorganization.model.persistence.SyncPolicyBenchmark
+ * [journal parent directory]}.
+ *
+ * @author ujxbs
+ */
+final class SyncPolicyBenchmark {
+
+    private static final int NUMBER_OF_DOCUMENTS = 3000;
+    private static final int NUMBER_OF_LOADS = 20;
+    private static final int NUMBER_OF_WARM_UP_RUNS = 1;
+    private static final int NUMBER_OF_RUNS = 7;
+    private static final int[] NUMBERS_OF_WRITERS = {1, 8};
+    private static final int CHANGES_OF_SINGLE_WRITER = 2000;
+    private static final int CHANGES_PER_CONCURRENT_WRITER = 500;
+    private static final String[] DOCUMENT_TYPES = {"audio", "image", "program", "text", "video"};
+    private static final String[] GENRES = {"rock", "pop", "jazz", "drama"};
+    private static final int NUMBER_OF_DIRECTORIES = 10;
+    private static final int NUMBER_OF_AUTHORS = 30;
+    private static final int MAXIMUM_ACCESS_COUNT = 200;
+    private static final long SEED = 1;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private SyncPolicyBenchmark() {
+    }
+
+    /**
+     * Prints the median time of a load in milliseconds and the median changes per second of every sync policy and
+     * number of writers, each run with a new journal.
+     *
+     * @param args the directory the journals are created in, optional
+     * @throws Exception if a journal cannot be written
+     */
+    public static void main(String[] args) throws Exception {
+        Path parentDirectory = args.length > 0 ? Path.of(args[0]) : Path.of(System.getProperty("java.io.tmpdir"));
+        List<String> lines = generateLines();
+        for (SyncPolicy syncPolicy : SyncPolicy.values()) {
+            for (int numberOfWriters : NUMBERS_OF_WRITERS) {
+                for (int run = 0; run < NUMBER_OF_WARM_UP_RUNS; run++) {
+                    measure(Files.createTempDirectory(parentDirectory, "journal"), syncPolicy, numberOfWriters, lines);
+                }
+                double[] loadMillis = new double[NUMBER_OF_RUNS];
+                double[] changesPerSecond = new double[NUMBER_OF_RUNS];
+                for (int run = 0; run < NUMBER_OF_RUNS; run++) {
+                    double[] measurement = measure(Files.createTempDirectory(parentDirectory, "journal"), syncPolicy,
+                            numberOfWriters, lines);
+                    loadMillis[run] = measurement[0];
+                    changesPerSecond[run] = measurement[1];
+                }
+                Arrays.sort(loadMillis);
+                Arrays.sort(changesPerSecond);
+                System.out.printf("%-9s writers=%d  load %6.1f ms  changes %8.0f/s%n", syncPolicy, numberOfWriters,
+                        loadMillis[NUMBER_OF_RUNS / 2], changesPerSecond[NUMBER_OF_RUNS / 2]);
+            }
+        }
+    }
+
+    // Returns the milliseconds of a load and the changes per second
+    private static double[] measure(Path directory, SyncPolicy syncPolicy, int numberOfWriters, List<String> lines)
+            throws Exception {
+        FileSystemOrganization model = new FileSystemOrganization();
+        model.setJournal(Journal.open(directory, syncPolicy, model));
+        long start = System.nanoTime();
+        int entryId = 0;
+        for (int load = 0; load < NUMBER_OF_LOADS; load++) {
+            entryId = model.loadDocuments(lines);
+        }
+        double loadMillis = (System.nanoTime() - start) / NANOS_PER_MILLI / NUMBER_OF_LOADS;
+
+        List<Document> documents = model.getSpecificInputFile(entryId);
+        int changesPerWriter = numberOfWriters == 1 ? CHANGES_OF_SINGLE_WRITER : CHANGES_PER_CONCURRENT_WRITER;
+        int changedEntryId = entryId;
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfWriters);
+        List<Future<?>> writers = new ArrayList<>();
+        start = System.nanoTime();
+        for (int writer = 0; writer < numberOfWriters; writer++) {
+            int firstChange = writer * changesPerWriter;
+            writers.add(executor.submit(() -> {
+                for (int change = firstChange; change < firstChange + changesPerWriter; change++) {
+                    model.changeAccessCount(changedEntryId, documents.get(change % documents.size()),
+                            1 + change % MAXIMUM_ACCESS_COUNT);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        executor.shutdown();
+        model.closeJournal();
+        return new double[] {loadMillis, numberOfWriters * changesPerWriter / seconds};
+    }
+
+    private static List<String> generateLines() {
+        Random random = new Random(SEED);
+        List<String> lines = new ArrayList<>(NUMBER_OF_DOCUMENTS);
+        for (int document = 0; document < NUMBER_OF_DOCUMENTS; document++) {
+            String documentType = DOCUMENT_TYPES[random.nextInt(DOCUMENT_TYPES.length)];
+            StringBuilder line = new StringBuilder()
+                    .append('d').append(random.nextInt(NUMBER_OF_DIRECTORIES)).append("/f").append(document)
+                    .append('.').append(documentType, 0, 3)
+                    .append(',').append(documentType)
+                    .append(',').append(1 + random.nextInt(MAXIMUM_ACCESS_COUNT))
+                    .append(",genre=").append(GENRES[random.nextInt(GENRES.length)])
+                    .append(",author=a").append(random.nextInt(NUMBER_OF_AUTHORS));
+            if (random.nextBoolean()) {
+                line.append(",fun");
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+}